@@ -4,9 +4,13 @@ package com.mongodb.migratecluster;
 import com.mongodb.migratecluster.commandline.ApplicationOptions;
 import com.mongodb.migratecluster.commandline.ApplicationOptionsLoader;
 import com.mongodb.migratecluster.commandline.InputArgsParser;
+import com.mongodb.migratecluster.commandline.MigrationMode;
+import com.mongodb.migratecluster.helpers.MongoClientRegistry;
 import com.mongodb.migratecluster.migrators.BaseMigrator;
 import com.mongodb.migratecluster.migrators.DataWithOplogMigrator;
-import com.mongodb.migratecluster.utils.Timer;
+import com.mongodb.migratecluster.migrators.ResyncMigrator;
+import com.mongodb.migratecluster.migrators.VerificationMigrator;
+import com.mongodb.migratecluster.trackers.CheckpointService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,7 +42,20 @@ public class Application {
     private void run(String[] args) {
     	logger.info("Runtime -> Java: "+System.getProperty("java.vendor")+ " " + System.getProperty("java.version") + " OS: "+System.getProperty("os.name")+" " +System.getProperty("os.version"));
         ApplicationOptions options = getApplicationOptions(args);
-        BaseMigrator migrator = new DataWithOplogMigrator(options);
+        MongoClientRegistry clientRegistry = new MongoClientRegistry(options);
+        clientRegistry.checkPoolSizes();
+        CheckpointService checkpointService = new CheckpointService(clientRegistry);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            // the checkpoints are saved before the clients go away
+            try {
+                checkpointService.close();
+            } catch (AppException e) {
+                logger.error(e.getMessage());
+            }
+            clientRegistry.close();
+        }));
+
+        BaseMigrator migrator = getMigrator(options, clientRegistry, checkpointService);
         try {
             migrator.preprocess();
             migrator.process();
@@ -48,6 +65,18 @@ public class Application {
         }
     }
 
+    private BaseMigrator getMigrator(ApplicationOptions options, MongoClientRegistry clientRegistry,
+                                     CheckpointService checkpointService) {
+        switch (options.getMode()) {
+            case VERIFY:
+                return new VerificationMigrator(options, clientRegistry, checkpointService);
+            case RESYNC:
+                return new ResyncMigrator(options, clientRegistry, checkpointService);
+            default:
+                return new DataWithOplogMigrator(options, clientRegistry, checkpointService);
+        }
+    }
+
     /**
      * Get's the application options injected into the command
      * line arguments or interprets the configuration file options
@@ -70,7 +99,12 @@ public class Application {
         if (configFilePath != "") {
             try {
                 logger.debug("configFilePath is set to {}. overriding command line input args if applicable", configFilePath);
+                MigrationMode mode = appOptions.getMode();
                 appOptions = ApplicationOptionsLoader.load(configFilePath);
+                if (mode != MigrationMode.DATA_WITH_OPLOG) {
+                    // the mode given on the command line picks the process to run against the configured clusters
+                    appOptions.setMode(mode);
+                }
             } catch (AppException e) {
                 logger.error(e.getMessage());
                 System.exit(1);
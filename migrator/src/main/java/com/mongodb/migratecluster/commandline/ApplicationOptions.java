@@ -20,9 +20,38 @@ public class ApplicationOptions {
     private String oplogStore;
     private String configFilePath;
     private boolean showHelp;
+    private MigrationMode mode;
     private boolean dropTarget;
     private List<ResourceFilter> blackListFilter;
     private Map<String, String> renames;
+    private int partitionCount;
+    private ReaderMode readerMode;
+    private int discoveryPoolSize;
+    private int readerPoolSize;
+    private int writerPoolSize;
+    private int oplogApplyLanes;
+    private boolean compactOplog;
+    private int batchMaxDocuments;
+    private long batchMaxBytes;
+    private boolean adaptiveBatching;
+    private long targetWriteLatencyMillis;
+    private boolean workStealing;
+    private boolean materializeSchema;
+    private int indexBuildPoolSize;
+    private boolean shardAwareReads;
+    private boolean readFromShardSecondaries;
+    private boolean presplitTarget;
+    private int presplitChunksPerShard;
+    private ClientOptions sourceClientOptions;
+    private ClientOptions targetClientOptions;
+    private ClientOptions oplogStoreClientOptions;
+    private ThrottleOptions sourceThrottle;
+    private ReadPreferenceOptions copyReadPreference;
+    private ReadPreferenceOptions oplogReadPreference;
+    private ReadPreferenceOptions gapWatcherReadPreference;
+    private ReadPreferenceOptions trackerReadPreference;
+    private String spillDirectory;
+    private long spillMaxBytes;
 
     public ApplicationOptions() {
         sourceCluster = "";
@@ -30,9 +59,38 @@ public class ApplicationOptions {
         oplogStore = "";
         configFilePath = "";
         showHelp = false;
+        mode = MigrationMode.DATA_WITH_OPLOG;
         dropTarget = false;
         setBlackListFilter(new ArrayList<>());
         setRenames(new HashMap<>());
+        partitionCount = 1;
+        readerMode = ReaderMode.ID_LOOKUP;
+        discoveryPoolSize = 2;
+        readerPoolSize = 4;
+        writerPoolSize = 8;
+        oplogApplyLanes = 4;
+        compactOplog = false;
+        batchMaxDocuments = 1000;
+        batchMaxBytes = 16 * 1024 * 1024;
+        adaptiveBatching = false;
+        targetWriteLatencyMillis = 1000;
+        workStealing = false;
+        materializeSchema = false;
+        indexBuildPoolSize = 4;
+        shardAwareReads = false;
+        readFromShardSecondaries = false;
+        presplitTarget = false;
+        presplitChunksPerShard = 4;
+        sourceClientOptions = new ClientOptions();
+        targetClientOptions = new ClientOptions();
+        oplogStoreClientOptions = new ClientOptions();
+        sourceThrottle = new ThrottleOptions();
+        copyReadPreference = new ReadPreferenceOptions();
+        oplogReadPreference = new ReadPreferenceOptions();
+        gapWatcherReadPreference = new ReadPreferenceOptions();
+        trackerReadPreference = new ReadPreferenceOptions();
+        spillDirectory = "";
+        spillMaxBytes = 1024L * 1024 * 1024;
     }
 
 
@@ -98,14 +156,309 @@ public class ApplicationOptions {
         this.blackListFilter = blackListFilter;
     }
 
+    @JsonProperty("partitionCount")
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    public void setPartitionCount(int partitionCount) {
+        this.partitionCount = partitionCount;
+    }
+
+    @JsonProperty("mode")
+    public MigrationMode getMode() {
+        return mode;
+    }
+
+    public void setMode(MigrationMode mode) {
+        this.mode = mode;
+    }
+
+    @JsonProperty("readerMode")
+    public ReaderMode getReaderMode() {
+        return readerMode;
+    }
+
+    public void setReaderMode(ReaderMode readerMode) {
+        this.readerMode = readerMode;
+    }
+
+    @JsonProperty("discoveryPoolSize")
+    public int getDiscoveryPoolSize() {
+        return discoveryPoolSize;
+    }
+
+    public void setDiscoveryPoolSize(int discoveryPoolSize) {
+        this.discoveryPoolSize = discoveryPoolSize;
+    }
+
+    @JsonProperty("readerPoolSize")
+    public int getReaderPoolSize() {
+        return readerPoolSize;
+    }
+
+    public void setReaderPoolSize(int readerPoolSize) {
+        this.readerPoolSize = readerPoolSize;
+    }
+
+    @JsonProperty("writerPoolSize")
+    public int getWriterPoolSize() {
+        return writerPoolSize;
+    }
+
+    public void setWriterPoolSize(int writerPoolSize) {
+        this.writerPoolSize = writerPoolSize;
+    }
+
+    @JsonProperty("oplogApplyLanes")
+    public int getOplogApplyLanes() {
+        return oplogApplyLanes;
+    }
+
+    public void setOplogApplyLanes(int oplogApplyLanes) {
+        this.oplogApplyLanes = oplogApplyLanes;
+    }
+
+    @JsonProperty("compactOplog")
+    public boolean isCompactOplog() {
+        return compactOplog;
+    }
+
+    public void setCompactOplog(boolean compactOplog) {
+        this.compactOplog = compactOplog;
+    }
+
+    @JsonProperty("batchMaxDocuments")
+    public int getBatchMaxDocuments() {
+        return batchMaxDocuments;
+    }
+
+    public void setBatchMaxDocuments(int batchMaxDocuments) {
+        this.batchMaxDocuments = batchMaxDocuments;
+    }
+
+    @JsonProperty("batchMaxBytes")
+    public long getBatchMaxBytes() {
+        return batchMaxBytes;
+    }
+
+    public void setBatchMaxBytes(long batchMaxBytes) {
+        this.batchMaxBytes = batchMaxBytes;
+    }
+
+    @JsonProperty("adaptiveBatching")
+    public boolean isAdaptiveBatching() {
+        return adaptiveBatching;
+    }
+
+    public void setAdaptiveBatching(boolean adaptiveBatching) {
+        this.adaptiveBatching = adaptiveBatching;
+    }
+
+    @JsonProperty("targetWriteLatencyMillis")
+    public long getTargetWriteLatencyMillis() {
+        return targetWriteLatencyMillis;
+    }
+
+    public void setTargetWriteLatencyMillis(long targetWriteLatencyMillis) {
+        this.targetWriteLatencyMillis = targetWriteLatencyMillis;
+    }
+
+    @JsonProperty("workStealing")
+    public boolean isWorkStealing() {
+        return workStealing;
+    }
+
+    public void setWorkStealing(boolean workStealing) {
+        this.workStealing = workStealing;
+    }
+
+    @JsonProperty("materializeSchema")
+    public boolean isMaterializeSchema() {
+        return materializeSchema;
+    }
+
+    public void setMaterializeSchema(boolean materializeSchema) {
+        this.materializeSchema = materializeSchema;
+    }
+
+    @JsonProperty("indexBuildPoolSize")
+    public int getIndexBuildPoolSize() {
+        return indexBuildPoolSize;
+    }
+
+    public void setIndexBuildPoolSize(int indexBuildPoolSize) {
+        this.indexBuildPoolSize = indexBuildPoolSize;
+    }
+
+    @JsonProperty("shardAwareReads")
+    public boolean isShardAwareReads() {
+        return shardAwareReads;
+    }
+
+    public void setShardAwareReads(boolean shardAwareReads) {
+        this.shardAwareReads = shardAwareReads;
+    }
+
+    @JsonProperty("readFromShardSecondaries")
+    public boolean isReadFromShardSecondaries() {
+        return readFromShardSecondaries;
+    }
+
+    public void setReadFromShardSecondaries(boolean readFromShardSecondaries) {
+        this.readFromShardSecondaries = readFromShardSecondaries;
+    }
+
+    @JsonProperty("presplitTarget")
+    public boolean isPresplitTarget() {
+        return presplitTarget;
+    }
+
+    public void setPresplitTarget(boolean presplitTarget) {
+        this.presplitTarget = presplitTarget;
+    }
+
+    @JsonProperty("presplitChunksPerShard")
+    public int getPresplitChunksPerShard() {
+        return presplitChunksPerShard;
+    }
+
+    public void setPresplitChunksPerShard(int presplitChunksPerShard) {
+        this.presplitChunksPerShard = presplitChunksPerShard;
+    }
+
+    @JsonProperty("sourceClientOptions")
+    public ClientOptions getSourceClientOptions() {
+        return sourceClientOptions;
+    }
+
+    public void setSourceClientOptions(ClientOptions sourceClientOptions) {
+        this.sourceClientOptions = sourceClientOptions;
+    }
+
+    @JsonProperty("targetClientOptions")
+    public ClientOptions getTargetClientOptions() {
+        return targetClientOptions;
+    }
+
+    public void setTargetClientOptions(ClientOptions targetClientOptions) {
+        this.targetClientOptions = targetClientOptions;
+    }
+
+    @JsonProperty("oplogStoreClientOptions")
+    public ClientOptions getOplogStoreClientOptions() {
+        return oplogStoreClientOptions;
+    }
+
+    public void setOplogStoreClientOptions(ClientOptions oplogStoreClientOptions) {
+        this.oplogStoreClientOptions = oplogStoreClientOptions;
+    }
+
+    @JsonProperty("sourceThrottle")
+    public ThrottleOptions getSourceThrottle() {
+        return sourceThrottle;
+    }
+
+    public void setSourceThrottle(ThrottleOptions sourceThrottle) {
+        this.sourceThrottle = sourceThrottle;
+    }
+
+    /**
+     * @return the read preference of the copy reads on source
+     */
+    @JsonProperty("copyReadPreference")
+    public ReadPreferenceOptions getCopyReadPreference() {
+        return copyReadPreference;
+    }
+
+    public void setCopyReadPreference(ReadPreferenceOptions copyReadPreference) {
+        this.copyReadPreference = copyReadPreference;
+    }
+
+    /**
+     * @return the read preference of the oplog tailing on source
+     */
+    @JsonProperty("oplogReadPreference")
+    public ReadPreferenceOptions getOplogReadPreference() {
+        return oplogReadPreference;
+    }
+
+    public void setOplogReadPreference(ReadPreferenceOptions oplogReadPreference) {
+        this.oplogReadPreference = oplogReadPreference;
+    }
+
+    /**
+     * @return the read preference of the latest oplog entry read on source by the gap watcher
+     */
+    @JsonProperty("gapWatcherReadPreference")
+    public ReadPreferenceOptions getGapWatcherReadPreference() {
+        return gapWatcherReadPreference;
+    }
+
+    public void setGapWatcherReadPreference(ReadPreferenceOptions gapWatcherReadPreference) {
+        this.gapWatcherReadPreference = gapWatcherReadPreference;
+    }
+
+    /**
+     * @return the read preference of the tracker reads on the oplog store
+     */
+    @JsonProperty("trackerReadPreference")
+    public ReadPreferenceOptions getTrackerReadPreference() {
+        return trackerReadPreference;
+    }
+
+    public void setTrackerReadPreference(ReadPreferenceOptions trackerReadPreference) {
+        this.trackerReadPreference = trackerReadPreference;
+    }
+
+    /**
+     * @return the directory the readers spill their batches to while the writers are behind; empty to not spill
+     */
+    @JsonProperty("spillDirectory")
+    public String getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    public void setSpillDirectory(String spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    @JsonProperty("spillMaxBytes")
+    public long getSpillMaxBytes() {
+        return spillMaxBytes;
+    }
+
+    public void setSpillMaxBytes(long spillMaxBytes) {
+        this.spillMaxBytes = spillMaxBytes;
+    }
+
     @Override
     public String toString() {
-        return String.format("{ showHelp : %s, configFilePath: \"%s\", " +
+        return String.format("{ showHelp : %s, mode: %s, configFilePath: \"%s\", " +
                 " sourceCluster: \"%s\", targetCluster: \"%s\", " +
-                ", oplog: \"%s\", drop: %s, blackListFilter: %s }",
-                this.isShowHelp(), this.getConfigFilePath(), this.getSourceCluster(),
+                ", oplog: \"%s\", drop: %s, blackListFilter: %s, partitionCount: %d, readerMode: %s, workStealing: %s, compactOplog: %s, " +
+                "pools: { discovery: %d, reader: %d, writer: %d, oplogApplyLanes: %d }, " +
+                "batch: { maxDocuments: %d, maxBytes: %d, adaptive: %s, targetWriteLatencyMillis: %d }, " +
+                "schema: { materialize: %s, indexBuildPoolSize: %d }, " +
+                "shards: { shardAwareReads: %s, readFromSecondaries: %s, presplitTarget: %s, presplitChunksPerShard: %d }, " +
+                "clients: { source: %s, target: %s, oplogStore: %s }, sourceThrottle: %s, " +
+                "readPreferences: { copy: %s, oplog: %s, gapWatcher: %s, tracker: %s }, " +
+                "spill: { directory: \"%s\", maxBytes: %d } }",
+                this.isShowHelp(), this.getMode(), this.getConfigFilePath(), this.getSourceCluster(),
                 this.getTargetCluster(), this.getOplogStore(), this.isDropTarget(),
-                ListUtils.select(this.getBlackListFilter(), f -> f.toString()));
+                ListUtils.select(this.getBlackListFilter(), f -> f.toString()),
+                this.getPartitionCount(), this.getReaderMode(), this.isWorkStealing(), this.isCompactOplog(),
+                this.getDiscoveryPoolSize(), this.getReaderPoolSize(), this.getWriterPoolSize(), this.getOplogApplyLanes(),
+                this.getBatchMaxDocuments(), this.getBatchMaxBytes(),
+                this.isAdaptiveBatching(), this.getTargetWriteLatencyMillis(),
+                this.isMaterializeSchema(), this.getIndexBuildPoolSize(),
+                this.isShardAwareReads(), this.isReadFromShardSecondaries(),
+                this.isPresplitTarget(), this.getPresplitChunksPerShard(),
+                this.getSourceClientOptions(), this.getTargetClientOptions(), this.getOplogStoreClientOptions(),
+                this.getSourceThrottle(),
+                this.getCopyReadPreference(), this.getOplogReadPreference(),
+                this.getGapWatcherReadPreference(), this.getTrackerReadPreference(),
+                this.getSpillDirectory(), this.getSpillMaxBytes());
     }
 
     @JsonProperty("renameNamespaces")
@@ -33,6 +33,16 @@ public class ApplicationOptionsLoader {
             throw new AppException(message, e);
         }
         appOptions.setConfigFilePath(configFilePath);
+        validateReadPreference("copyReadPreference", appOptions.getCopyReadPreference());
+        validateReadPreference("oplogReadPreference", appOptions.getOplogReadPreference());
+        validateReadPreference("gapWatcherReadPreference", appOptions.getGapWatcherReadPreference());
+        validateReadPreference("trackerReadPreference", appOptions.getTrackerReadPreference());
         return appOptions;
     }
+
+    private static void validateReadPreference(String name, ReadPreferenceOptions options) throws AppException {
+        if (options != null) {
+            options.validate(name);
+        }
+    }
 }
@@ -0,0 +1,130 @@
+package com.mongodb.migratecluster.commandline;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * File: ClientOptions
+ * Description:
+ *
+ * a class representing the connection settings of the client to one of
+ * the clusters. a setting left unset keeps the value from the connection
+ * string, or the driver default when the connection string has none.
+ */
+public class ClientOptions {
+    private Integer maxPoolSize;
+    private Integer minPoolSize;
+    private Integer maxWaitTimeMillis;
+    private Integer connectTimeoutMillis;
+    private Integer socketTimeoutMillis;
+    private Integer serverSelectionTimeoutMillis;
+    private List<String> compressors;
+    private String readConcern;
+    private String writeConcern;
+
+    public ClientOptions() {
+        compressors = new ArrayList<>();
+    }
+
+    @JsonProperty("maxPoolSize")
+    public Integer getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public void setMaxPoolSize(Integer maxPoolSize) {
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    @JsonProperty("minPoolSize")
+    public Integer getMinPoolSize() {
+        return minPoolSize;
+    }
+
+    public void setMinPoolSize(Integer minPoolSize) {
+        this.minPoolSize = minPoolSize;
+    }
+
+    @JsonProperty("maxWaitTimeMillis")
+    public Integer getMaxWaitTimeMillis() {
+        return maxWaitTimeMillis;
+    }
+
+    public void setMaxWaitTimeMillis(Integer maxWaitTimeMillis) {
+        this.maxWaitTimeMillis = maxWaitTimeMillis;
+    }
+
+    @JsonProperty("connectTimeoutMillis")
+    public Integer getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public void setConnectTimeoutMillis(Integer connectTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    @JsonProperty("socketTimeoutMillis")
+    public Integer getSocketTimeoutMillis() {
+        return socketTimeoutMillis;
+    }
+
+    public void setSocketTimeoutMillis(Integer socketTimeoutMillis) {
+        this.socketTimeoutMillis = socketTimeoutMillis;
+    }
+
+    @JsonProperty("serverSelectionTimeoutMillis")
+    public Integer getServerSelectionTimeoutMillis() {
+        return serverSelectionTimeoutMillis;
+    }
+
+    public void setServerSelectionTimeoutMillis(Integer serverSelectionTimeoutMillis) {
+        this.serverSelectionTimeoutMillis = serverSelectionTimeoutMillis;
+    }
+
+    /**
+     * @return the wire compressors in order of preference; i.e. zstd, snappy, zlib
+     */
+    @JsonProperty("compressors")
+    public List<String> getCompressors() {
+        return compressors;
+    }
+
+    public void setCompressors(List<String> compressors) {
+        this.compressors = compressors;
+    }
+
+    /**
+     * @return the read concern level; i.e. local, majority
+     */
+    @JsonProperty("readConcern")
+    public String getReadConcern() {
+        return readConcern;
+    }
+
+    public void setReadConcern(String readConcern) {
+        this.readConcern = readConcern;
+    }
+
+    /**
+     * @return the write concern; i.e. majority or the number of members to acknowledge
+     */
+    @JsonProperty("writeConcern")
+    public String getWriteConcern() {
+        return writeConcern;
+    }
+
+    public void setWriteConcern(String writeConcern) {
+        this.writeConcern = writeConcern;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("{ maxPoolSize: %s, minPoolSize: %s, maxWaitTimeMillis: %s, connectTimeoutMillis: %s, " +
+                        "socketTimeoutMillis: %s, serverSelectionTimeoutMillis: %s, compressors: %s, " +
+                        "readConcern: %s, writeConcern: %s }",
+                maxPoolSize, minPoolSize, maxWaitTimeMillis, connectTimeoutMillis,
+                socketTimeoutMillis, serverSelectionTimeoutMillis, compressors,
+                readConcern, writeConcern);
+    }
+}
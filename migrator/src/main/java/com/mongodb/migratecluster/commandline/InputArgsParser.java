@@ -30,6 +30,7 @@ public class InputArgsParser {
             options.addOption("t", "target", true,"target cluster connection string");
             options.addOption("o", "oplog", false,"oplogStore connection string. only required if oplog headroom is small");
             options.addOption("d", "drop", false,"drop target collections before copying");
+            options.addOption("m", "mode", true,"migration mode. Supported modes: dataWithOplog, verify, resync");
 
             areOptionsSet = true;
         }
@@ -82,6 +83,15 @@ public class InputArgsParser {
         if (cmd.hasOption("d")) {
             appOptions.setDropTarget(true);
         }
+        if (cmd.hasOption("m")) {
+            MigrationMode mode = MigrationMode.fromName(cmd.getOptionValue("m"));
+            if (mode == null) {
+                logger.error("unsupported migration mode {}", cmd.getOptionValue("m"));
+                appOptions.setShowHelp(true);
+                return appOptions;
+            }
+            appOptions.setMode(mode);
+        }
         return appOptions;
     }
 }
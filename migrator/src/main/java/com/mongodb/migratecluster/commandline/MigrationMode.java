@@ -0,0 +1,53 @@
+package com.mongodb.migratecluster.commandline;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * File: MigrationMode
+ * Description:
+ *
+ * the processes the application can run against the source and target
+ */
+public enum MigrationMode {
+    /**
+     * copies the collections and then applies the oplog entries since the copy began
+     */
+    @JsonProperty("dataWithOplog")
+    DATA_WITH_OPLOG("dataWithOplog"),
+
+    /**
+     * compares every document on source with its copy on target
+     */
+    @JsonProperty("verify")
+    VERIFY("verify"),
+
+    /**
+     * re-copies only the _id ranges whose digests on source and target differ
+     */
+    @JsonProperty("resync")
+    RESYNC("resync");
+
+    private final String name;
+
+    MigrationMode(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @param name the name of the mode as given on the command line; i.e. verify
+     * @return the mode with the given name; null if there is none
+     */
+    public static MigrationMode fromName(String name) {
+        for (MigrationMode mode : values()) {
+            if (mode.name.equalsIgnoreCase(name)) {
+                return mode;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
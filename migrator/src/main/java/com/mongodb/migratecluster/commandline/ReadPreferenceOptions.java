@@ -0,0 +1,90 @@
+package com.mongodb.migratecluster.commandline;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mongodb.migratecluster.AppException;
+import com.mongodb.migratecluster.helpers.MongoDBHelper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * File: ReadPreferenceOptions
+ * Description:
+ *
+ * a class representing the read preference of one kind of reads, i.e. the
+ * copy reads or the oplog tailing. a read preference without a mode keeps
+ * the default of its reads.
+ */
+public class ReadPreferenceOptions {
+    private String mode;
+    private List<Map<String, String>> tagSets;
+    private Long maxStalenessSeconds;
+
+    public ReadPreferenceOptions() {
+        tagSets = new ArrayList<>();
+    }
+
+    /**
+     * @return the read preference mode; i.e. primary, secondaryPreferred, nearest
+     */
+    @JsonProperty("mode")
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * @return the tag sets to select a member with, in order of preference; i.e. [{ "use": "analytics" }, {}]
+     */
+    @JsonProperty("tagSets")
+    public List<Map<String, String>> getTagSets() {
+        return tagSets;
+    }
+
+    public void setTagSets(List<Map<String, String>> tagSets) {
+        this.tagSets = tagSets;
+    }
+
+    /**
+     * @return how stale a secondary may be to be selected; at least 90 seconds
+     */
+    @JsonProperty("maxStalenessSeconds")
+    public Long getMaxStalenessSeconds() {
+        return maxStalenessSeconds;
+    }
+
+    public void setMaxStalenessSeconds(Long maxStalenessSeconds) {
+        this.maxStalenessSeconds = maxStalenessSeconds;
+    }
+
+    /**
+     * Checks that the mode is known and can be combined with the tag sets and the staleness
+     *
+     * @param name the name of the option holding the read preference
+     * @throws AppException when the read preference is not valid
+     */
+    public void validate(String name) throws AppException {
+        if (mode == null || mode.isEmpty()) {
+            return;
+        }
+        boolean hasTags = tagSets != null && !tagSets.isEmpty();
+        if ("primary".equals(mode) && (hasTags || maxStalenessSeconds != null)) {
+            throw new AppException(String.format("%s: mode primary can't be combined with tagSets or maxStalenessSeconds", name));
+        }
+        try {
+            MongoDBHelper.getReadPreference(this, null);
+        } catch (IllegalArgumentException e) {
+            throw new AppException(String.format("%s: invalid read preference %s; %s", name, this, e.getMessage()), e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("{ mode: %s, tagSets: %s, maxStalenessSeconds: %s }",
+                mode, tagSets, maxStalenessSeconds);
+    }
+}
@@ -0,0 +1,23 @@
+package com.mongodb.migratecluster.commandline;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * File: ReaderMode
+ * Description:
+ *
+ * the ways a collection can be read while copying it to the target
+ */
+public enum ReaderMode {
+    /**
+     * reads the _ids first and then fetches the full documents by _id in batches
+     */
+    @JsonProperty("idLookup")
+    ID_LOOKUP,
+
+    /**
+     * reads the full documents in a single pass of an _id sorted cursor
+     */
+    @JsonProperty("rangeScan")
+    RANGE_SCAN
+}
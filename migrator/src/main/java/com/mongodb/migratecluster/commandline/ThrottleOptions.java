@@ -0,0 +1,76 @@
+package com.mongodb.migratecluster.commandline;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * File: ThrottleOptions
+ * Description:
+ *
+ * a class representing the limits on the load the copy puts on the source.
+ * a limit of zero is no limit. the rates are shared by all the readers, and
+ * are scaled down while the source replication lag or read latency is past
+ * its threshold.
+ */
+public class ThrottleOptions {
+    private long maxDocumentsPerSecond;
+    private long maxBytesPerSecond;
+    private long maxReplicationLagSeconds;
+    private long maxReadLatencyMillis;
+
+    @JsonProperty("maxDocumentsPerSecond")
+    public long getMaxDocumentsPerSecond() {
+        return maxDocumentsPerSecond;
+    }
+
+    public void setMaxDocumentsPerSecond(long maxDocumentsPerSecond) {
+        this.maxDocumentsPerSecond = maxDocumentsPerSecond;
+    }
+
+    @JsonProperty("maxBytesPerSecond")
+    public long getMaxBytesPerSecond() {
+        return maxBytesPerSecond;
+    }
+
+    public void setMaxBytesPerSecond(long maxBytesPerSecond) {
+        this.maxBytesPerSecond = maxBytesPerSecond;
+    }
+
+    /**
+     * @return the replication lag of the source secondaries past which the reads back off
+     */
+    @JsonProperty("maxReplicationLagSeconds")
+    public long getMaxReplicationLagSeconds() {
+        return maxReplicationLagSeconds;
+    }
+
+    public void setMaxReplicationLagSeconds(long maxReplicationLagSeconds) {
+        this.maxReplicationLagSeconds = maxReplicationLagSeconds;
+    }
+
+    /**
+     * @return the average read latency on the source past which the reads back off
+     */
+    @JsonProperty("maxReadLatencyMillis")
+    public long getMaxReadLatencyMillis() {
+        return maxReadLatencyMillis;
+    }
+
+    public void setMaxReadLatencyMillis(long maxReadLatencyMillis) {
+        this.maxReadLatencyMillis = maxReadLatencyMillis;
+    }
+
+    /**
+     * @return true if any of the limits or the thresholds is set
+     */
+    public boolean isEnabled() {
+        return maxDocumentsPerSecond > 0 || maxBytesPerSecond > 0
+                || maxReplicationLagSeconds > 0 || maxReadLatencyMillis > 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("{ maxDocumentsPerSecond: %d, maxBytesPerSecond: %d, " +
+                        "maxReplicationLagSeconds: %d, maxReadLatencyMillis: %d }",
+                maxDocumentsPerSecond, maxBytesPerSecond, maxReplicationLagSeconds, maxReadLatencyMillis);
+    }
+}
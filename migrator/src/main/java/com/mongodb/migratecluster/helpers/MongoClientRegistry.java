@@ -0,0 +1,197 @@
+package com.mongodb.migratecluster.helpers;
+
+import com.mongodb.MongoClient;
+import com.mongodb.MongoClientOptions;
+import com.mongodb.MongoClientURI;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadConcernLevel;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import com.mongodb.migratecluster.commandline.ApplicationOptions;
+import com.mongodb.migratecluster.commandline.ClientOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+
+/**
+ * File: MongoClientRegistry
+ * Description:
+ *
+ * A class holding the one MongoClient shared by all the readers, writers
+ * and trackers of each cluster role. a client is created on first use with
+ * the client options of its role, and lives until the registry is closed.
+ */
+public class MongoClientRegistry {
+    private final static Logger logger = LoggerFactory.getLogger(MongoClientRegistry.class);
+
+    /**
+     * the clusters the migrator connects to
+     */
+    public enum ClusterRole {
+        SOURCE,
+        TARGET,
+        OPLOG_STORE
+    }
+
+    private final ApplicationOptions options;
+    private final EnumMap<ClusterRole, MongoClient> clients;
+
+    public MongoClientRegistry(ApplicationOptions options) {
+        this.options = options;
+        this.clients = new EnumMap<>(ClusterRole.class);
+    }
+
+    /**
+     * Get's the shared Mongo Client pointing to the cluster of the given role
+     *
+     * @param role the role of the cluster
+     * @return a MongoClient object pointing to the cluster
+     */
+    public synchronized MongoClient getClient(ClusterRole role) {
+        MongoClient client = clients.get(role);
+        if (client == null) {
+            MongoClientURI uri = getMongoClientURI(role);
+            logger.info("connecting to {} with {} connections per host",
+                    role, uri.getOptions().getConnectionsPerHost());
+            client = new MongoClient(uri);
+            clients.put(role, client);
+        }
+        return client;
+    }
+
+    /**
+     * Get's the connection string of the cluster of the given role, with its client options applied
+     *
+     * @param role the role of the cluster
+     * @return a MongoClientURI pointing to the cluster
+     */
+    public MongoClientURI getMongoClientURI(ClusterRole role) {
+        switch (role) {
+            case SOURCE:
+                return getMongoClientURI(options.getSourceCluster(), options.getSourceClientOptions());
+            case TARGET:
+                return getMongoClientURI(options.getTargetCluster(), options.getTargetClientOptions());
+            default:
+                // the oplog store is only read by the trackers
+                MongoClientOptions.Builder builder = getClientOptionsBuilder(options.getOplogStoreClientOptions())
+                        .readPreference(MongoDBHelper.getReadPreference(options.getTrackerReadPreference(),
+                                ReadPreference.primary()));
+                return MongoDBHelper.getMongoClientURI(options.getOplogStore(), builder);
+        }
+    }
+
+    /**
+     * Warns if the connection pool of a cluster is smaller than the number
+     * of workers using it at the same time; the workers would queue for a connection
+     */
+    public void checkPoolSizes() {
+        // the oplog tailer and the gap watcher hold a source connection each
+        int sourceWorkers = options.getDiscoveryPoolSize() + options.getReaderPoolSize() + 2;
+        // each lane of the oplog writer holds a target connection
+        int targetWorkers = options.getWriterPoolSize() + Math.max(1, options.getOplogApplyLanes())
+                + (options.isMaterializeSchema() ? options.getIndexBuildPoolSize() : 0);
+        checkPoolSize(ClusterRole.SOURCE, sourceWorkers);
+        checkPoolSize(ClusterRole.TARGET, targetWorkers);
+    }
+
+    /**
+     * Closes all the clients created so far
+     */
+    public synchronized void close() {
+        clients.values().forEach(MongoClient::close);
+        clients.clear();
+    }
+
+    /**
+     * Get's the connection string for the given cluster with the given client options applied
+     *
+     * @param cluster a string representing a mongodb servers; with or without the mongodb:// scheme
+     * @param clientOptions the client options of the cluster
+     * @return a MongoClientURI pointing to the cluster; an option set in the connection string takes precedence
+     */
+    public static MongoClientURI getMongoClientURI(String cluster, ClientOptions clientOptions) {
+        return MongoDBHelper.getMongoClientURI(cluster, getClientOptionsBuilder(clientOptions));
+    }
+
+    /**
+     * Get's a builder of the driver options holding the given client options
+     *
+     * @param clientOptions the client options of a cluster; may be null
+     * @return a builder of MongoClientOptions
+     */
+    public static MongoClientOptions.Builder getClientOptionsBuilder(ClientOptions clientOptions) {
+        MongoClientOptions.Builder builder = MongoClientOptions.builder();
+        if (clientOptions == null) {
+            return builder;
+        }
+        if (clientOptions.getMaxPoolSize() != null) {
+            builder.connectionsPerHost(clientOptions.getMaxPoolSize());
+        }
+        if (clientOptions.getMinPoolSize() != null) {
+            builder.minConnectionsPerHost(clientOptions.getMinPoolSize());
+        }
+        if (clientOptions.getMaxWaitTimeMillis() != null) {
+            builder.maxWaitTime(clientOptions.getMaxWaitTimeMillis());
+        }
+        if (clientOptions.getConnectTimeoutMillis() != null) {
+            builder.connectTimeout(clientOptions.getConnectTimeoutMillis());
+        }
+        if (clientOptions.getSocketTimeoutMillis() != null) {
+            builder.socketTimeout(clientOptions.getSocketTimeoutMillis());
+        }
+        if (clientOptions.getServerSelectionTimeoutMillis() != null) {
+            builder.serverSelectionTimeout(clientOptions.getServerSelectionTimeoutMillis());
+        }
+        if (clientOptions.getCompressors() != null && !clientOptions.getCompressors().isEmpty()) {
+            builder.compressorList(getCompressors(clientOptions.getCompressors()));
+        }
+        if (clientOptions.getReadConcern() != null) {
+            builder.readConcern(new ReadConcern(ReadConcernLevel.fromString(clientOptions.getReadConcern())));
+        }
+        if (clientOptions.getWriteConcern() != null) {
+            builder.writeConcern(getWriteConcern(clientOptions.getWriteConcern()));
+        }
+        return builder;
+    }
+
+    private void checkPoolSize(ClusterRole role, int workers) {
+        int poolSize = getMongoClientURI(role).getOptions().getConnectionsPerHost();
+        if (poolSize < workers) {
+            logger.warn("the connection pool of {} has {} connections per host, but up to {} workers use it at once. " +
+                    "set maxPoolSize to at least {}", role, poolSize, workers, workers);
+        }
+    }
+
+    private static List<MongoCompressor> getCompressors(List<String> names) {
+        List<MongoCompressor> compressors = new ArrayList<>();
+        for (String name : names) {
+            switch (name.toLowerCase()) {
+                case "zstd":
+                    compressors.add(MongoCompressor.createZstdCompressor());
+                    break;
+                case "snappy":
+                    compressors.add(MongoCompressor.createSnappyCompressor());
+                    break;
+                case "zlib":
+                    compressors.add(MongoCompressor.createZlibCompressor());
+                    break;
+                default:
+                    logger.warn("unsupported compressor {}; supported are zstd, snappy and zlib", name);
+            }
+        }
+        return compressors;
+    }
+
+    private static WriteConcern getWriteConcern(String writeConcern) {
+        try {
+            return new WriteConcern(Integer.parseInt(writeConcern));
+        } catch (NumberFormatException e) {
+            // i.e. majority or a tag set name
+            return new WriteConcern(writeConcern);
+        }
+    }
+}
@@ -5,11 +5,16 @@ import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.migratecluster.AppException;
 import com.mongodb.migratecluster.Application;
+import com.mongodb.migratecluster.commandline.ReadPreferenceOptions;
 import com.mongodb.migratecluster.model.Resource;
 import org.bson.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 /**
@@ -20,6 +25,64 @@ import java.util.function.Supplier;
  */
 public  class MongoDBHelper {
     private final static Logger logger = LoggerFactory.getLogger(MongoDBHelper.class);
+    private final static int DEFAULT_MAX_MESSAGE_SIZE_BYTES = 48000000;
+
+    /**
+     * Get's the connection string for the given cluster
+     *
+     * @param cluster a string representing a mongodb servers; with or without the mongodb:// scheme
+     * @return a MongoClientURI pointing to the cluster
+     */
+    public static MongoClientURI getMongoClientURI(String cluster) {
+        return getMongoClientURI(cluster, MongoClientOptions.builder());
+    }
+
+    /**
+     * Get's the connection string for the given cluster, with the given options as defaults
+     *
+     * @param cluster a string representing a mongodb servers; with or without the mongodb:// scheme
+     * @param builder the client options; an option set in the connection string takes precedence
+     * @return a MongoClientURI pointing to the cluster
+     */
+    public static MongoClientURI getMongoClientURI(String cluster, MongoClientOptions.Builder builder) {
+        String connectionString;
+        if (cluster.startsWith("mongodb://") || cluster.startsWith("mongodb+srv://"))
+            connectionString = cluster;
+        else
+            connectionString = String.format("mongodb://%s", cluster);
+        return new MongoClientURI(connectionString, builder);
+    }
+
+    /**
+     * Get's the driver read preference for the given read preference options
+     *
+     * @param options the read preference options of a kind of reads; may be null
+     * @param defaultPreference the read preference to use when the options have no mode
+     * @return a read preference
+     * @throws IllegalArgumentException when the mode is unknown or can't be combined with tags or staleness
+     */
+    public static ReadPreference getReadPreference(ReadPreferenceOptions options, ReadPreference defaultPreference) {
+        if (options == null || options.getMode() == null || options.getMode().isEmpty()) {
+            return defaultPreference;
+        }
+
+        List<TagSet> tagSets = new ArrayList<>();
+        if (options.getTagSets() != null) {
+            for (Map<String, String> tags : options.getTagSets()) {
+                List<Tag> tagList = new ArrayList<>();
+                tags.forEach((name, value) -> tagList.add(new Tag(name, value)));
+                tagSets.add(new TagSet(tagList));
+            }
+        }
+        if (options.getMaxStalenessSeconds() != null) {
+            return ReadPreference.valueOf(options.getMode(), tagSets, options.getMaxStalenessSeconds(), TimeUnit.SECONDS);
+        }
+        if (tagSets.isEmpty()) {
+            // primary takes no tag sets, not even an empty list
+            return ReadPreference.valueOf(options.getMode());
+        }
+        return ReadPreference.valueOf(options.getMode(), tagSets);
+    }
 
     public static MongoDatabase getDatabase(MongoClient client, String databaseName) {
        MongoDatabase database = client.getDatabase(databaseName);
@@ -77,6 +140,17 @@ public  class MongoDBHelper {
     }
 
 
+    /**
+     * Get's the maximum size of a wire protocol message accepted by the given cluster
+     *
+     * @param client a MongoDB client object to run the isMaster command
+     * @return the maxMessageSizeBytes reported by the server
+     */
+    public static int getMaxMessageSizeBytes(MongoClient client) {
+        Document result = getDatabase(client, "admin").runCommand(new Document("isMaster", 1));
+        return result.getInteger("maxMessageSizeBytes", DEFAULT_MAX_MESSAGE_SIZE_BYTES);
+    }
+
     /**
      * Drop the collection on given MongoDB client
      *
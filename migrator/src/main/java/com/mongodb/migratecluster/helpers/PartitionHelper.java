@@ -0,0 +1,251 @@
+package com.mongodb.migratecluster.helpers;
+
+import com.mongodb.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.CountOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.migratecluster.commandline.ApplicationOptions;
+import com.mongodb.migratecluster.migrators.MigratorSettings;
+import com.mongodb.migratecluster.model.Resource;
+import com.mongodb.migratecluster.model.ResourcePartition;
+import com.mongodb.migratecluster.utils.BsonValueComparator;
+import com.mongodb.migratecluster.utils.IdRangeFilter;
+import org.bson.*;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * File: PartitionHelper
+ * Description:
+ *
+ * A class to help split a collection into _id ranges so that
+ * each range can be copied by an independent reader / writer.
+ * the boundaries are picked from a random sample of _ids.
+ * it also finds the point at which the unread tail of a
+ * partition being copied can be split off for another worker.
+ */
+public class PartitionHelper {
+    private final static Logger logger = LoggerFactory.getLogger(PartitionHelper.class);
+    private final int partitionCount;
+
+    public PartitionHelper(ApplicationOptions options) {
+        this.partitionCount = options.getPartitionCount();
+    }
+
+    /**
+     * Splits the given resource into the configured number of _id ranges.
+     * small collections are split into fewer ranges, down to a single one.
+     *
+     * @param client a MongoDB client object pointing to the source
+     * @param resource a collection in a database
+     * @return a list of partitions covering the entire _id range of the collection
+     * @see ResourcePartition
+     */
+    public List<ResourcePartition> getPartitions(MongoClient client, Resource resource) {
+        MongoCollection<Document> collection = MongoDBHelper.getCollection(client,
+                resource.getDatabase(), resource.getCollection());
+
+        long documentsCount = collection.estimatedDocumentCount();
+        long maxPartitions = Math.max(1, documentsCount / MigratorSettings.MIN_DOCUMENTS_PER_PARTITION);
+        int count = (int) Math.min(partitionCount, maxPartitions);
+
+        List<ResourcePartition> partitions = getPartitions(collection, resource, count);
+        logger.info("split resource {} with ~{} documents into {} partitions",
+                resource.getNamespace(), documentsCount, partitions.size());
+        return partitions;
+    }
+
+    /**
+     * Splits the given resource into small _id ranges of about the given number of documents
+     *
+     * @param client a MongoDB client object pointing to the source
+     * @param resource a collection in a database
+     * @param documentsPerRange the number of documents wanted in a range
+     * @return a list of ranges covering the entire _id range of the collection
+     */
+    public List<ResourcePartition> getRanges(MongoClient client, Resource resource, long documentsPerRange) {
+        MongoCollection<Document> collection = MongoDBHelper.getCollection(client,
+                resource.getDatabase(), resource.getCollection());
+
+        long documentsCount = collection.estimatedDocumentCount();
+        int count = (int) Math.min(MigratorSettings.MAX_RANGES_PER_COLLECTION,
+                Math.max(1, documentsCount / documentsPerRange));
+        return getPartitions(collection, resource, count);
+    }
+
+    private List<ResourcePartition> getPartitions(MongoCollection<Document> collection, Resource resource, int count) {
+        List<Object> boundaries = (count > 1)
+                ? getSampledBoundaries(collection, count)
+                : new ArrayList<>();
+
+        List<ResourcePartition> partitions = new ArrayList<>();
+        Object lowerBound = null;
+        for (Object boundary : boundaries) {
+            partitions.add(new ResourcePartition(resource, partitions.size(), lowerBound, boundary));
+            lowerBound = boundary;
+        }
+        partitions.add(new ResourcePartition(resource, partitions.size(), lowerBound, null));
+        return partitions;
+    }
+
+    /**
+     * Get's the _id values that split the collection into roughly equal ranges
+     *
+     * @param collection the source collection to split
+     * @param count the number of partitions wanted
+     * @return a sorted list of distinct _id values to be used as partition boundaries
+     */
+    private List<Object> getSampledBoundaries(MongoCollection<Document> collection, int count) {
+        int samplesPerPartition = MigratorSettings.PARTITION_SAMPLES_PER_SPLIT;
+        List<Document> pipeline = Arrays.asList(
+                new Document("$sample", new Document("size", count * samplesPerPartition)),
+                new Document("$project", new Document("_id", 1)),
+                new Document("$sort", new Document("_id", 1)));
+
+        List<Object> samples = new ArrayList<>();
+        for (Document item : collection.aggregate(pipeline).allowDiskUse(true)) {
+            samples.add(item.get("_id"));
+        }
+        return getBoundaries(samples, count);
+    }
+
+    /**
+     * Picks the partition boundaries out of the sorted samples
+     *
+     * @param samples the sampled _id values, sorted by _id
+     * @param count the number of partitions wanted
+     * @return a sorted list of distinct _id values to be used as partition boundaries
+     */
+    static List<Object> getBoundaries(List<Object> samples, int count) {
+        List<Object> boundaries = new ArrayList<>();
+        for (int i = 1; i < count; i++) {
+            int index = (int) ((long) i * samples.size() / count);
+            if (index >= samples.size()) {
+                break;
+            }
+            Object boundary = samples.get(index);
+            // $sample may return duplicates; boundaries must be strictly increasing
+            if (boundaries.isEmpty() || !boundaries.get(boundaries.size() - 1).equals(boundary)) {
+                boundaries.add(boundary);
+            }
+        }
+        return boundaries;
+    }
+
+    /**
+     * Get's the _id at which the unread part of the given partition can be split in two.
+     * the split point is the midpoint between the last _id read and the upper bound of
+     * the partition. only ObjectId, numeric and date _ids have a computable midpoint.
+     *
+     * @param client a MongoDB client object pointing to the source
+     * @param partition a partition currently being copied
+     * @return the _id from which the tail of the partition can be copied separately; null if not worth splitting
+     */
+    public BsonValue getSplitPoint(MongoClient client, ResourcePartition partition) {
+        MongoCollection<BsonDocument> collection = client.getDatabase(partition.getDatabase())
+                .getCollection(partition.getCollection(), BsonDocument.class);
+
+        BsonValue lastReadId = partition.getLastReadId();
+        Object upperBound = partition.getUpperBound();
+        Bson remainingFilter = (lastReadId == null)
+                ? partition.getRangeFilter()
+                : Filters.and(partition.getRangeFilter(), IdRangeFilter.getFilterAfter(lastReadId));
+
+        // a bounded count on the _id index tells if the remaining range is worth splitting
+        long remaining = collection.countDocuments(remainingFilter,
+                new CountOptions().limit((int) MigratorSettings.MIN_DOCUMENTS_TO_STEAL));
+        if (remaining < MigratorSettings.MIN_DOCUMENTS_TO_STEAL) {
+            return null;
+        }
+
+        BsonValue low = (lastReadId != null) ? lastReadId : getBoundaryId(collection, remainingFilter, 1);
+        BsonValue high = (upperBound != null)
+                ? BsonValueComparator.toBsonValue(upperBound)
+                : getBoundaryId(collection, remainingFilter, -1);
+        if (low == null || high == null) {
+            return null;
+        }
+
+        BsonValue midpoint = getMidpoint(low, high);
+        if (midpoint == null
+                || BsonValueComparator.INSTANCE.compare(midpoint, low) <= 0
+                || BsonValueComparator.INSTANCE.compare(midpoint, high) >= 0) {
+            return null;
+        }
+
+        // the stolen range must not be empty
+        BsonValue first = getBoundaryId(collection,
+                Filters.and(remainingFilter, IdRangeFilter.getFilter(midpoint, true, null)), 1);
+        return (first == null) ? null : midpoint;
+    }
+
+    /**
+     * Get's the value halfway between the two given _ids
+     *
+     * @param low the lower _id
+     * @param high the higher _id
+     * @return the midpoint of the same type as the given _ids; null if the types have no midpoint
+     */
+    public static BsonValue getMidpoint(BsonValue low, BsonValue high) {
+        if (low.isObjectId() && high.isObjectId()) {
+            BigInteger value = getMidpoint(new BigInteger(1, low.asObjectId().getValue().toByteArray()),
+                    new BigInteger(1, high.asObjectId().getValue().toByteArray()));
+            byte[] bytes = new byte[12];
+            byte[] magnitude = value.toByteArray();
+            int length = Math.min(magnitude.length, bytes.length);
+            System.arraycopy(magnitude, magnitude.length - length, bytes, bytes.length - length, length);
+            return new BsonObjectId(new ObjectId(bytes));
+        }
+        if (low.isDateTime() && high.isDateTime()) {
+            return new BsonDateTime(getMidpoint(BigInteger.valueOf(low.asDateTime().getValue()),
+                    BigInteger.valueOf(high.asDateTime().getValue())).longValue());
+        }
+        if (isIntegral(low) && isIntegral(high)) {
+            long value = getMidpoint(BigInteger.valueOf(low.asNumber().longValue()),
+                    BigInteger.valueOf(high.asNumber().longValue())).longValue();
+            return (low.isInt32() && high.isInt32())
+                    ? new BsonInt32((int) value)
+                    : new BsonInt64(value);
+        }
+        if ((low.isNumber() && high.isNumber())) {
+            double lowValue = low.asNumber().doubleValue();
+            double highValue = high.asNumber().doubleValue();
+            return new BsonDouble(lowValue + (highValue - lowValue) / 2);
+        }
+        return null;
+    }
+
+    private static BigInteger getMidpoint(BigInteger low, BigInteger high) {
+        return low.add(high).shiftRight(1);
+    }
+
+    private static boolean isIntegral(BsonValue value) {
+        return value.isInt32() || value.isInt64();
+    }
+
+    /**
+     * Get's the lowest or the highest _id matching the given filter
+     *
+     * @param collection the source collection
+     * @param filter a filter on the _id range
+     * @param direction 1 for the lowest _id; -1 for the highest _id
+     * @return the _id found; null if no document matches the filter
+     */
+    private BsonValue getBoundaryId(MongoCollection<BsonDocument> collection, Bson filter, int direction) {
+        BsonDocument document = collection.find(filter)
+                .projection(Projections.include("_id"))
+                .sort(direction > 0 ? Sorts.ascending("_id") : Sorts.descending("_id"))
+                .limit(1)
+                .first();
+        return (document == null) ? null : document.get("_id");
+    }
+}
@@ -0,0 +1,180 @@
+package com.mongodb.migratecluster.helpers;
+
+import com.mongodb.MongoClient;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.migratecluster.commandline.ApplicationOptions;
+import com.mongodb.migratecluster.migrators.MigratorSettings;
+import com.mongodb.migratecluster.model.Resource;
+import org.bson.*;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * File: PresplitHelper
+ * Description:
+ *
+ * A class to help prepare a sharded target collection for the copy. the
+ * distribution of the target shard key is sampled from the source data,
+ * the empty target collection is split at the sampled quantiles and the
+ * chunks are spread across the target shards before any document is
+ * written, so the balancer has nothing left to move after the copy.
+ */
+public class PresplitHelper {
+    private final static Logger logger = LoggerFactory.getLogger(PresplitHelper.class);
+    private final int chunksPerShard;
+
+    public PresplitHelper(ApplicationOptions options) {
+        this.chunksPerShard = options.getPresplitChunksPerShard();
+    }
+
+    /**
+     * Pre-splits the target collection if it is sharded and still has a single chunk,
+     * and get's a router over the chunks of the target collection.
+     *
+     * @param sourceClient a MongoDB client object pointing to the source
+     * @param targetClient a MongoDB client object pointing to the target mongos
+     * @param resource a collection in a database on source
+     * @param mappedResource the collection on target the source collection is copied into
+     * @return a router over the target chunks; null if the target collection is not sharded on a ranged key
+     */
+    public TargetChunkRouter presplit(MongoClient sourceClient, MongoClient targetClient,
+                                      Resource resource, Resource mappedResource) {
+        String namespace = mappedResource.getNamespace();
+        Document collection = MongoDBHelper.getCollection(targetClient, "config", "collections")
+                .find(Filters.eq("_id", namespace))
+                .first();
+        if (collection == null || collection.getBoolean("dropped", false)) {
+            return null;
+        }
+
+        Document shardKey = collection.get("key", Document.class);
+        if (shardKey.values().contains("hashed")) {
+            logger.info("target collection {} has a hashed shard key {}; skipping the pre-split",
+                    namespace, shardKey.toJson());
+            return null;
+        }
+
+        Bson chunksFilter = getChunksFilter(collection, namespace);
+        MongoCollection<Document> chunks = MongoDBHelper.getCollection(targetClient, "config", "chunks");
+        long targetDocuments = MongoDBHelper.getCollection(targetClient,
+                mappedResource.getDatabase(), mappedResource.getCollection()).estimatedDocumentCount();
+        if (chunks.countDocuments(chunksFilter) == 1 && targetDocuments == 0) {
+            List<String> shards = getShardNames(targetClient);
+            TargetChunkRouter router = new TargetChunkRouter(shardKey, new ArrayList<>());
+            List<BsonDocument> splitPoints = getSplitPoints(sourceClient, resource, router, shards.size() * chunksPerShard);
+            splitAndDistribute(targetClient, namespace, splitPoints, shards);
+        }
+
+        List<Document> chunkMins = new ArrayList<>();
+        for (Document chunk : chunks.find(chunksFilter)) {
+            chunkMins.add(chunk.get("min", Document.class));
+        }
+        logger.info("batches for target collection {} are grouped by its {} chunks", namespace, chunkMins.size());
+        return new TargetChunkRouter(shardKey, chunkMins);
+    }
+
+    /**
+     * Get's the shard key values that split the source data into roughly equal chunks
+     *
+     * @param sourceClient a MongoDB client object pointing to the source
+     * @param resource a collection in a database on source
+     * @param router a router holding the shard key fields
+     * @param count the number of chunks wanted
+     * @return a sorted list of distinct shard key documents
+     */
+    private List<BsonDocument> getSplitPoints(MongoClient sourceClient, Resource resource,
+                                              TargetChunkRouter router, int count) {
+        Document projection = new Document("_id", 0);
+        router.getKeyFields().forEach(field -> projection.append(field, 1));
+        List<Document> pipeline = Arrays.asList(
+                new Document("$sample", new Document("size", count * MigratorSettings.PRESPLIT_SAMPLES_PER_CHUNK)),
+                new Document("$project", projection));
+
+        List<BsonValue[]> samples = new ArrayList<>();
+        for (BsonDocument sample : sourceClient.getDatabase(resource.getDatabase())
+                .getCollection(resource.getCollection(), BsonDocument.class)
+                .aggregate(pipeline)
+                .allowDiskUse(true)) {
+            samples.add(router.getShardKeyValues(sample));
+        }
+        samples.sort(TargetChunkRouter::compareKeys);
+
+        List<BsonDocument> splitPoints = new ArrayList<>();
+        BsonValue[] previous = null;
+        for (int i = 1; i < count; i++) {
+            int index = (int) ((long) i * samples.size() / count);
+            if (index >= samples.size()) {
+                break;
+            }
+            BsonValue[] values = samples.get(index);
+            if (previous == null || TargetChunkRouter.compareKeys(previous, values) != 0) {
+                BsonDocument point = new BsonDocument();
+                for (int field = 0; field < values.length; field++) {
+                    point.append(router.getKeyFields().get(field), values[field]);
+                }
+                splitPoints.add(point);
+                previous = values;
+            }
+        }
+        return splitPoints;
+    }
+
+    /**
+     * Splits the target collection at the given points and moves the chunks round robin across the shards
+     *
+     * @param targetClient a MongoDB client object pointing to the target mongos
+     * @param namespace the namespace of the target collection
+     * @param splitPoints the sorted shard key documents to split at
+     * @param shards the names of the target shards
+     */
+    private void splitAndDistribute(MongoClient targetClient, String namespace,
+                                    List<BsonDocument> splitPoints, List<String> shards) {
+        MongoDatabase admin = MongoDBHelper.getDatabase(targetClient, "admin");
+        for (BsonDocument point : splitPoints) {
+            runCommand(admin, new BsonDocument("split", new BsonString(namespace)).append("middle", point));
+        }
+
+        // the first chunk stays on the primary shard; the rest are spread round robin
+        for (int i = 0; i < splitPoints.size() && shards.size() > 1; i++) {
+            String shard = shards.get((i + 1) % shards.size());
+            runCommand(admin, new BsonDocument("moveChunk", new BsonString(namespace))
+                    .append("find", splitPoints.get(i))
+                    .append("to", new BsonString(shard))
+                    .append("_waitForDelete", BsonBoolean.FALSE));
+        }
+        logger.info("pre-split target collection {} into {} chunks across {} shards",
+                namespace, splitPoints.size() + 1, shards.size());
+    }
+
+    private void runCommand(MongoDatabase admin, BsonDocument command) {
+        try {
+            admin.runCommand(command);
+        } catch (MongoCommandException e) {
+            // i.e. the chunk is already on the shard, or the split point is a chunk boundary
+            logger.warn("error while running {} on target. Error {}", command.toJson(), e.getErrorMessage());
+        }
+    }
+
+    private List<String> getShardNames(MongoClient targetClient) {
+        List<String> shards = new ArrayList<>();
+        for (Document shard : MongoDBHelper.getCollection(targetClient, "config", "shards").find()) {
+            shards.add(shard.getString("_id"));
+        }
+        return shards;
+    }
+
+    private Bson getChunksFilter(Document collection, String namespace) {
+        // chunks are keyed by the collection uuid from 5.0 onwards
+        return collection.containsKey("uuid")
+                ? Filters.or(Filters.eq("ns", namespace), Filters.eq("uuid", collection.get("uuid")))
+                : Filters.eq("ns", namespace);
+    }
+}
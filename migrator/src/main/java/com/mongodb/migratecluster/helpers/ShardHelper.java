@@ -0,0 +1,200 @@
+package com.mongodb.migratecluster.helpers;
+
+import com.mongodb.MongoClient;
+import com.mongodb.MongoClientOptions;
+import com.mongodb.MongoClientURI;
+import com.mongodb.ReadPreference;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.migratecluster.commandline.ApplicationOptions;
+import com.mongodb.migratecluster.model.Resource;
+import com.mongodb.migratecluster.model.ShardChunk;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * File: ShardHelper
+ * Description:
+ *
+ * A class to help read a sharded source cluster shard by shard. it reads the
+ * shards and the chunks of a collection from the config database, and holds
+ * one client per shard connected directly to the replica set of the shard.
+ */
+public class ShardHelper {
+    private final static Logger logger = LoggerFactory.getLogger(ShardHelper.class);
+
+    private final MongoClientURI sourceUri;
+    private final boolean readFromSecondaries;
+    private final ConcurrentHashMap<String, MongoClient> shardClients;
+    private Map<String, String> shardHosts;
+    private Boolean isSharded;
+
+    /**
+     * @param options the application options holding the source cluster and the read preference of the shards
+     */
+    public ShardHelper(ApplicationOptions options) {
+        this.sourceUri = MongoClientRegistry.getMongoClientURI(options.getSourceCluster(), options.getSourceClientOptions());
+        this.readFromSecondaries = options.isReadFromShardSecondaries();
+        this.shardClients = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Checks if the source cluster is a sharded cluster, by asking the server it is connected to
+     *
+     * @param client a MongoDB client object pointing to the source
+     * @return true if the client is connected to a mongos
+     */
+    public synchronized boolean isShardedCluster(MongoClient client) {
+        if (isSharded == null) {
+            Document result = MongoDBHelper.getDatabase(client, "admin").runCommand(new Document("isMaster", 1));
+            isSharded = "isdbgrid".equals(result.getString("msg"));
+            if (isSharded) {
+                warnIfBalancerIsRunning(client);
+            }
+        }
+        return isSharded;
+    }
+
+    /**
+     * Get's the chunks of the given collection, interleaved across the shards so that
+     * copying them in order keeps all the shards busy at the same time.
+     *
+     * @param client a MongoDB client object pointing to the source mongos
+     * @param resource a collection in a database
+     * @return a list of chunks; empty if the collection is not sharded
+     */
+    public List<ShardChunk> getChunks(MongoClient client, Resource resource) {
+        Document collection = MongoDBHelper.getCollection(client, "config", "collections")
+                .find(Filters.eq("_id", resource.getNamespace()))
+                .first();
+        if (collection == null || collection.getBoolean("dropped", false)) {
+            return new ArrayList<>();
+        }
+
+        Document shardKey = collection.get("key", Document.class);
+        // chunks are keyed by the collection uuid from 5.0 onwards
+        Bson chunksFilter = collection.containsKey("uuid")
+                ? Filters.or(Filters.eq("ns", resource.getNamespace()), Filters.eq("uuid", collection.get("uuid")))
+                : Filters.eq("ns", resource.getNamespace());
+
+        Map<String, List<ShardChunk>> chunksByShard = new LinkedHashMap<>();
+        for (Document chunk : MongoDBHelper.getCollection(client, "config", "chunks")
+                .find(chunksFilter)
+                .sort(new Document("min", 1))) {
+            String shard = chunk.getString("shard");
+            chunksByShard.computeIfAbsent(shard, k -> new ArrayList<>())
+                    .add(new ShardChunk(resource, chunk.get("_id"), shard, shardKey,
+                            chunk.get("min", Document.class), chunk.get("max", Document.class)));
+        }
+
+        List<ShardChunk> chunks = new ArrayList<>();
+        List<Iterator<ShardChunk>> iterators = new ArrayList<>();
+        chunksByShard.values().forEach(list -> iterators.add(list.iterator()));
+        boolean added = true;
+        while (added) {
+            added = false;
+            for (Iterator<ShardChunk> iterator : iterators) {
+                if (iterator.hasNext()) {
+                    chunks.add(iterator.next());
+                    added = true;
+                }
+            }
+        }
+
+        logger.info("found {} chunks of resource {} on {} shards",
+                chunks.size(), resource.getNamespace(), chunksByShard.size());
+        return chunks;
+    }
+
+    /**
+     * Get's a client connected directly to the replica set of the given shard
+     *
+     * @param client a MongoDB client object pointing to the source mongos
+     * @param shard the name of the shard
+     * @return a MongoClient object pointing to the shard
+     */
+    public MongoClient getShardClient(MongoClient client, String shard) {
+        return shardClients.computeIfAbsent(shard, name -> createShardClient(getShardHosts(client).get(name)));
+    }
+
+    /**
+     * Get's the names of the shards of the source cluster
+     *
+     * @param client a MongoDB client object pointing to the source mongos
+     * @return the names of the shards as in config.shards
+     */
+    public Set<String> getShardNames(MongoClient client) {
+        return getShardHosts(client).keySet();
+    }
+
+    /**
+     * Closes all the clients connected to the shards
+     */
+    public void close() {
+        shardClients.values().forEach(MongoClient::close);
+        shardClients.clear();
+    }
+
+    private synchronized Map<String, String> getShardHosts(MongoClient client) {
+        if (shardHosts == null) {
+            Map<String, String> hosts = new HashMap<>();
+            for (Document shard : MongoDBHelper.getCollection(client, "config", "shards").find()) {
+                hosts.put(shard.getString("_id"), shard.getString("host"));
+            }
+            shardHosts = hosts;
+        }
+        return shardHosts;
+    }
+
+    /**
+     * Creates a client for a shard, with the credentials and the options of the source
+     *
+     * @param host the host string of the shard as in config.shards; i.e. rs0/host1:27017,host2:27017
+     * @return a MongoClient object pointing to the shard
+     */
+    private MongoClient createShardClient(String host) {
+        String replicaSet = null;
+        String seeds = host;
+        int index = host.indexOf('/');
+        if (index >= 0) {
+            replicaSet = host.substring(0, index);
+            seeds = host.substring(index + 1);
+        }
+
+        List<ServerAddress> addresses = new ArrayList<>();
+        for (String seed : seeds.split(",")) {
+            addresses.add(new ServerAddress(seed));
+        }
+
+        MongoClientOptions.Builder builder = MongoClientOptions.builder(sourceUri.getOptions())
+                .requiredReplicaSetName(replicaSet)
+                .readPreference(readFromSecondaries ? ReadPreference.secondaryPreferred() : ReadPreference.primary());
+
+        logger.info("connecting directly to shard {}", host);
+        return (sourceUri.getCredentials() == null)
+                ? new MongoClient(addresses, builder.build())
+                : new MongoClient(addresses, sourceUri.getCredentials(), builder.build());
+    }
+
+    /**
+     * Warns if the balancer is enabled; a chunk that moves while it is being copied may be missed
+     *
+     * @param client a MongoDB client object pointing to the source mongos
+     */
+    private void warnIfBalancerIsRunning(MongoClient client) {
+        MongoCollection<Document> settings = MongoDBHelper.getCollection(client, "config", "settings");
+        Document balancer = settings.find(Filters.eq("_id", "balancer")).first();
+        boolean stopped = balancer != null
+                && (balancer.getBoolean("stopped", false) || "off".equals(balancer.get("mode")));
+        if (!stopped) {
+            logger.warn("the balancer on the source cluster is enabled. stop it during the copy; " +
+                    "documents of a chunk that migrates while it is read directly from a shard may be missed");
+        }
+    }
+}
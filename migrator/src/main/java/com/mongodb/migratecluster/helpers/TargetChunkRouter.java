@@ -0,0 +1,135 @@
+package com.mongodb.migratecluster.helpers;
+
+import com.mongodb.migratecluster.utils.BsonValueComparator;
+import org.bson.BsonDocument;
+import org.bson.BsonNull;
+import org.bson.BsonValue;
+import org.bson.Document;
+
+import java.util.*;
+
+/**
+ * File: TargetChunkRouter
+ * Description:
+ *
+ * A class to help route documents to the chunks of a sharded target
+ * collection. it holds the lower bounds of the chunks sorted on the shard
+ * key, and finds the chunk of a document with a binary search. a batch is
+ * regrouped by chunk so that each insert is sent to a single shard.
+ */
+public class TargetChunkRouter {
+    private final List<String> keyFields;
+    private final List<BsonValue[]> chunkMins;
+
+    /**
+     * @param shardKey the shard key pattern of the target collection
+     * @param chunkMins the lower bounds of the chunks of the target collection
+     */
+    public TargetChunkRouter(Document shardKey, List<Document> chunkMins) {
+        this.keyFields = new ArrayList<>(shardKey.keySet());
+        this.chunkMins = new ArrayList<>();
+        for (Document min : chunkMins) {
+            BsonValue[] values = new BsonValue[keyFields.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = BsonValueComparator.toBsonValue(min.get(keyFields.get(i)));
+            }
+            this.chunkMins.add(values);
+        }
+        this.chunkMins.sort(TargetChunkRouter::compareKeys);
+    }
+
+    /**
+     * @return the number of chunks the documents are routed to
+     */
+    public int getChunkCount() {
+        return chunkMins.size();
+    }
+
+    /**
+     * @return the field names of the shard key, in the order of the shard key pattern
+     */
+    public List<String> getKeyFields() {
+        return keyFields;
+    }
+
+    /**
+     * Get's the values of the shard key fields of the document. a missing field is a null value
+     *
+     * @param document a document to be inserted into the target collection
+     * @return an array holding the value of each shard key field
+     */
+    public BsonValue[] getShardKeyValues(BsonDocument document) {
+        BsonValue[] values = new BsonValue[keyFields.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = getFieldValue(document, keyFields.get(i));
+        }
+        return values;
+    }
+
+    /**
+     * Get's the index of the chunk the document belongs to
+     *
+     * @param document a document to be inserted into the target collection
+     * @return the index of the chunk; in the order of the chunk bounds
+     */
+    public int getChunkIndex(BsonDocument document) {
+        BsonValue[] key = getShardKeyValues(document);
+        // the last chunk whose lower bound is less than or equal to the key
+        int low = 0;
+        int high = chunkMins.size() - 1;
+        int index = 0;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (compareKeys(chunkMins.get(middle), key) <= 0) {
+                index = middle;
+                low = middle + 1;
+            }
+            else {
+                high = middle - 1;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Regroups the documents by the chunk they belong to, keeping their relative order
+     *
+     * @param documents a batch of documents to be inserted into the target collection
+     * @return the documents grouped by chunk, in chunk order
+     */
+    public <T extends BsonDocument> Collection<List<T>> group(List<T> documents) {
+        TreeMap<Integer, List<T>> groups = new TreeMap<>();
+        for (T document : documents) {
+            groups.computeIfAbsent(getChunkIndex(document), k -> new ArrayList<>()).add(document);
+        }
+        return groups.values();
+    }
+
+    /**
+     * Compares two shard key values field by field
+     *
+     * @param left the values of a shard key
+     * @param right the values of another shard key
+     * @return a negative integer, zero, or a positive integer as the left key is less than, equal to, or greater than the right key
+     */
+    public static int compareKeys(BsonValue[] left, BsonValue[] right) {
+        for (int i = 0; i < Math.min(left.length, right.length); i++) {
+            int order = BsonValueComparator.INSTANCE.compare(left[i], right[i]);
+            if (order != 0) {
+                return order;
+            }
+        }
+        return Integer.compare(left.length, right.length);
+    }
+
+    private static BsonValue getFieldValue(BsonDocument document, String path) {
+        BsonValue value = document;
+        for (String part : path.split("\\.")) {
+            if (value == null || !value.isDocument() || !value.asDocument().containsKey(part)) {
+                return BsonNull.VALUE;
+            }
+            value = value.asDocument().get(part);
+        }
+        return value;
+    }
+}
@@ -1,9 +1,23 @@
 package com.mongodb.migratecluster.migrators;
 
 import com.mongodb.MongoClient;
-import com.mongodb.MongoClientURI;
 import com.mongodb.migratecluster.AppException;
 import com.mongodb.migratecluster.commandline.ApplicationOptions;
+import com.mongodb.migratecluster.commandline.ResourceFilter;
+import com.mongodb.migratecluster.helpers.MongoClientRegistry;
+import com.mongodb.migratecluster.helpers.MongoClientRegistry.ClusterRole;
+import com.mongodb.migratecluster.helpers.MongoDBHelper;
+import com.mongodb.migratecluster.model.BatchLimits;
+import com.mongodb.migratecluster.model.Resource;
+import com.mongodb.migratecluster.observables.CollectionFlowable;
+import com.mongodb.migratecluster.observables.DatabaseFlowable;
+import com.mongodb.migratecluster.predicates.CollectionFilterPredicate;
+import com.mongodb.migratecluster.predicates.DatabaseFilterPredicate;
+import com.mongodb.migratecluster.trackers.CheckpointService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
 
 /**
  * File: BaseMigrator
@@ -16,56 +30,84 @@ import com.mongodb.migratecluster.commandline.ApplicationOptions;
  * implementing a specific process
  */
 public abstract class BaseMigrator {
+    private final static Logger logger = LoggerFactory.getLogger(BaseMigrator.class);
 
     protected final String migratorName;
     protected ApplicationOptions options;
+    protected final MongoClientRegistry clientRegistry;
+    protected final CheckpointService checkpointService;
 
-    protected BaseMigrator(ApplicationOptions options) {
+    protected BaseMigrator(ApplicationOptions options, MongoClientRegistry clientRegistry,
+                           CheckpointService checkpointService) {
         this.options = options;
+        this.clientRegistry = clientRegistry;
+        this.checkpointService = checkpointService;
         this.migratorName = options.getSourceCluster();
     }
 
     /**
-     * Get's the Mongo Client pointing to the custom cluster
-     *
-     * @param cluster a string representing a mongodb servers
-     * @return  a MongoClient object pointing to specific cluster
-     */
-    private MongoClient getMongoClient(String cluster) {
-    	String connectionString;
-    	if (cluster.startsWith("mongodb://") || cluster.startsWith("mongodb+srv://"))
-    		connectionString = cluster;
-    	else
-    		connectionString = String.format("mongodb://%s", cluster);
-        MongoClientURI uri = new MongoClientURI(connectionString);
-        return new MongoClient(uri);
-    }
-
-    /**
-     * Get's the Mongo Client pointing to the source cluster
+     * Get's the shared Mongo Client pointing to the source cluster
      *
      * @return a MongoClient object pointing to source
      */
     protected MongoClient getSourceClient() {
-        return getMongoClient(this.options.getSourceCluster());
+        return clientRegistry.getClient(ClusterRole.SOURCE);
     }
 
     /**
-     * Get's the Mongo Client pointing to the target cluster
+     * Get's the shared Mongo Client pointing to the target cluster
      *
      * @return a MongoClient object pointing to target
      */
     protected MongoClient getTargetClient() {
-        return getMongoClient(this.options.getTargetCluster());
+        return clientRegistry.getClient(ClusterRole.TARGET);
     }
 
     /**
-     * Get's the Mongo Client pointing to the oplog cluster
+     * Get's the shared Mongo Client pointing to the oplog cluster
      *
      * @return a MongoClient object pointing to oplog store
      */
     protected MongoClient getOplogClient() {
-        return getMongoClient(this.options.getOplogStore());
+        return clientRegistry.getClient(ClusterRole.OPLOG_STORE);
+    }
+
+    /**
+     * Get's the collections on source that are not excluded by the blacklist filters
+     *
+     * @param sourceClient a MongoDB client object pointing to the source
+     * @return a list of the collections to migrate
+     */
+    protected List<Resource> getFilteredResources(MongoClient sourceClient) {
+        // load the blacklist filters and create database and collection predicates
+        List<ResourceFilter> blacklistFilter = options.getBlackListFilter();
+        DatabaseFilterPredicate databasePredicate = new DatabaseFilterPredicate(blacklistFilter);
+        CollectionFilterPredicate collectionPredicate = new CollectionFilterPredicate(blacklistFilter);
+
+        return new DatabaseFlowable(sourceClient)
+                .filter(databasePredicate)
+                .flatMap(db -> {
+                    logger.info("found database: {}", db.getString("name"));
+                    return new CollectionFlowable(sourceClient, db.getString("name"));
+                })
+                .filter(collectionPredicate)
+                .toList()
+                .blockingGet();
+    }
+
+    /**
+     * Get's the limits at which the documents are cut into batches. the configured bytes
+     * limit is capped so that a batch always fits in a single message to the target.
+     *
+     * @param targetClient a MongoDB client object pointing to the target
+     * @return the limits on the documents count and bytes of a batch
+     */
+    protected BatchLimits getBatchLimits(MongoClient targetClient) {
+        long maxMessageBytes = MongoDBHelper.getMaxMessageSizeBytes(targetClient) - MigratorSettings.MESSAGE_SIZE_OVERHEAD_BYTES;
+        long maxBytes = Math.min(options.getBatchMaxBytes(), maxMessageBytes);
+        BatchLimits batchLimits = new BatchLimits(options.getBatchMaxDocuments(), maxBytes);
+        logger.info("documents are copied in batches of {}", batchLimits);
+        return batchLimits;
     }
 
     /**
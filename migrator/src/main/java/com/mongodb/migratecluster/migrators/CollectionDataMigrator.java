@@ -1,34 +1,57 @@
 package com.mongodb.migratecluster.migrators;
 
 import com.mongodb.MongoClient;
+import com.mongodb.MongoException;
+import com.mongodb.ReadPreference;
 import com.mongodb.migratecluster.AppException;
 import com.mongodb.migratecluster.commandline.ApplicationOptions;
-import com.mongodb.migratecluster.commandline.ResourceFilter;
+import com.mongodb.migratecluster.commandline.ReaderMode;
 import com.mongodb.migratecluster.helpers.ModificationHelper;
+import com.mongodb.migratecluster.helpers.MongoClientRegistry;
 import com.mongodb.migratecluster.helpers.MongoDBHelper;
+import com.mongodb.migratecluster.helpers.PartitionHelper;
+import com.mongodb.migratecluster.helpers.PresplitHelper;
+import com.mongodb.migratecluster.helpers.ShardHelper;
+import com.mongodb.migratecluster.helpers.TargetChunkRouter;
+import com.mongodb.migratecluster.model.BatchLimits;
 import com.mongodb.migratecluster.model.DocumentsBatch;
 import com.mongodb.migratecluster.model.Resource;
-import com.mongodb.migratecluster.observables.CollectionFlowable;
-import com.mongodb.migratecluster.observables.DatabaseFlowable;
+import com.mongodb.migratecluster.model.ResourcePartition;
+import com.mongodb.migratecluster.model.ShardChunk;
+import com.mongodb.migratecluster.observables.BaseDocumentReader;
+import com.mongodb.migratecluster.observables.DocumentRangeReader;
 import com.mongodb.migratecluster.observables.DocumentReader;
 import com.mongodb.migratecluster.observables.DocumentWriter;
-import com.mongodb.migratecluster.predicates.CollectionFilterPredicate;
-import com.mongodb.migratecluster.predicates.DatabaseFilterPredicate;
+import com.mongodb.migratecluster.observables.ShardChunkReader;
+import com.mongodb.migratecluster.progress.CollectionProgress;
+import com.mongodb.migratecluster.progress.ProgressMonitor;
+import com.mongodb.migratecluster.schedulers.MigratorSchedulers;
+import com.mongodb.migratecluster.schedulers.RangeWorkScheduler;
+import com.mongodb.migratecluster.schema.SchemaMaterializer;
+import com.mongodb.migratecluster.spill.SpillStore;
+import com.mongodb.migratecluster.throttling.BatchSizeController;
+import com.mongodb.migratecluster.throttling.SourceThrottle;
+import com.mongodb.migratecluster.trackers.CheckpointService;
+import com.mongodb.migratecluster.trackers.ChunkDataTracker;
 import com.mongodb.migratecluster.trackers.CollectionDataTracker;
+import com.mongodb.migratecluster.trackers.CollectionPartitionsTracker;
+import com.mongodb.migratecluster.trackers.CompletionWatermark;
+import com.mongodb.migratecluster.trackers.PartitionDataTracker;
 import com.mongodb.migratecluster.trackers.ReadOnlyTracker;
 import com.mongodb.migratecluster.trackers.WritableDataTracker;
 import io.reactivex.Observable;
-import io.reactivex.schedulers.Schedulers;
+import org.bson.BsonValue;
 import org.bson.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
@@ -44,11 +67,30 @@ public class CollectionDataMigrator extends BaseMigrator {
     private final Object lockObject = new Object();
     private final ConcurrentHashMap<Resource, CollectionDataTracker> oplogDataTrackers;
     private final ModificationHelper modificationHelper;
-    
-    public CollectionDataMigrator(ApplicationOptions options) {
-        super(options);
+    private final PartitionHelper partitionHelper;
+    private final SchemaMaterializer schemaMaterializer;
+    private final ShardHelper shardHelper;
+    private final PresplitHelper presplitHelper;
+    private final ConcurrentHashMap<String, TargetChunkRouter> chunkRouters;
+    private final ConcurrentHashMap<String, AtomicInteger> nextPartitionIds;
+    private final ProgressMonitor progressMonitor;
+    private final SourceThrottle sourceThrottle;
+    private final SpillStore spillStore;
+
+    public CollectionDataMigrator(ApplicationOptions options, MongoClientRegistry clientRegistry,
+                                  CheckpointService checkpointService) {
+        super(options, clientRegistry, checkpointService);
         oplogDataTrackers = new ConcurrentHashMap<>();
         modificationHelper = new ModificationHelper(options);
+        partitionHelper = new PartitionHelper(options);
+        schemaMaterializer = new SchemaMaterializer(options, modificationHelper);
+        shardHelper = new ShardHelper(options);
+        presplitHelper = new PresplitHelper(options);
+        chunkRouters = new ConcurrentHashMap<>();
+        nextPartitionIds = new ConcurrentHashMap<>();
+        progressMonitor = new ProgressMonitor();
+        sourceThrottle = new SourceThrottle(options);
+        spillStore = new SpillStore(options);
     }
 
     /**
@@ -103,78 +145,286 @@ public class CollectionDataMigrator extends BaseMigrator {
 
     private void readAndWriteDocuments(MongoClient sourceClient,
                                        MongoClient targetClient,
-                                       MongoClient oplogClient) {
+                                       MongoClient oplogClient) throws AppException {
         List<Resource> filteredResources = getFilteredResources(sourceClient);
         if (filteredResources.size() > 0) {
+            MigratorSchedulers schedulers = new MigratorSchedulers(options);
+            BatchLimits batchLimits = getBatchLimits(targetClient);
+            // the batches spilled by a prior run are written before anything is read again
+            spillStore.recover(targetClient, modificationHelper);
+            progressMonitor.start();
+            sourceThrottle.start(sourceClient, shardHelper);
             try {
-                CountDownLatch latch = new CountDownLatch(filteredResources.size());
+                // collections are prepared on the discovery pool and their partitions are
+                // copied in parallel, bounded by the size of the reader and writer pools
+                Observable<Resource> partitions = Observable.fromIterable(filteredResources)
+                    .flatMap(resource -> Observable.just(resource)
+                        .subscribeOn(schedulers.getDiscoveryPool().getScheduler())
+                        .flatMapIterable(r -> {
+                            logger.info("found collection {}", r.getNamespace());
+                            dropTargetCollectionIfRequired(targetClient, r, modificationHelper);
+                            materializeTargetCollectionIfRequired(sourceClient, targetClient, r);
+                            presplitTargetCollectionIfRequired(sourceClient, targetClient, r);
+                            List<Resource> resourcePartitions = getResourcePartitions(sourceClient, oplogClient, r);
+                            progressMonitor.register(sourceClient, r).addPartitions(resourcePartitions.size());
+                            return resourcePartitions;
+                        }), schedulers.getDiscoveryPool().getSize());
+
+                if (isWorkStealingEnabled()) {
+                    readAndWriteWithWorkStealing(sourceClient, targetClient, oplogClient,
+                            partitions, batchLimits, schedulers);
+                }
+                else {
+                    // a failed partition fails the copy once the other partitions are done
+                    partitions
+                        .flatMap(partition -> readAndWritePartition(sourceClient, targetClient, oplogClient,
+                                        partition, batchLimits, schedulers)
+                                    .subscribeOn(schedulers.getReaderPool().getScheduler()),
+                                true, schedulers.getReaderPool().getSize())
+                        .ignoreElements()
+                        .blockingAwait();
+                }
+            } finally {
+                progressMonitor.stop();
+                sourceThrottle.stop();
+                logger.info("worker pools utilisation: {}", schedulers.getUtilisation());
+                schedulers.shutdown();
+                shardHelper.close();
+            }
+            // the oplog is applied from the checkpoints of the copy
+            checkpointService.flush();
 
-                Observable<Resource> resourceObservable = Observable.fromIterable(filteredResources)
-                        .flatMap(r -> Observable.just(r)).subscribeOn(Schedulers.io()); // runs all resources in parallel;
+            if (options.isMaterializeSchema()) {
+                // the builds outlive this method; the oplog writer waits for them per namespace
+                schemaMaterializer.buildIndexes(targetClient);
+            }
+        }
+    }
 
-                resourceObservable
-                    .map(resource -> {
-                        logger.info("found collection {}", resource.getNamespace());
-                        dropTargetCollectionIfRequired(targetClient, resource, modificationHelper);
-                        Document latestDocumentId = getOplogStoreLatestDocumentIdForGivenResource(oplogClient, resource);
-                        return new DocumentReader(sourceClient, resource, latestDocumentId);
+    /**
+     * Get's the pipeline that copies all the documents of the given resource from source to target
+     *
+     * @param resource a collection in a database or an _id range of it
+     * @param batchLimits the limits at which the documents read are cut into batches
+     * @param schedulers the worker pools to read and write the documents on
+     * @return an observable of the batches copied
+     */
+    private Observable<DocumentsBatch> readAndWritePartition(MongoClient sourceClient,
+                                                             MongoClient targetClient,
+                                                             MongoClient oplogClient,
+                                                             Resource resource,
+                                                             BatchLimits batchLimits,
+                                                             MigratorSchedulers schedulers) {
+        CollectionProgress progress = progressMonitor.get(resource);
+        return Observable.defer(() -> {
+                Document latestDocumentId = getOplogStoreLatestDocumentIdForGivenResource(oplogClient, resource);
+                BatchSizeController throttler = new BatchSizeController(resource, batchLimits,
+                        options.isAdaptiveBatching(), options.getTargetWriteLatencyMillis());
+                BaseDocumentReader reader;
+                if (resource instanceof ShardChunk) {
+                    ShardChunk chunk = (ShardChunk) resource;
+                    MongoClient shardClient = shardHelper.getShardClient(sourceClient, chunk.getShard());
+                    reader = new ShardChunkReader(shardClient, getCopyReadPreference(shardClient),
+                            chunk, latestDocumentId, throttler, sourceThrottle, spillStore.createQueue(resource));
+                }
+                else if (options.getReaderMode() == ReaderMode.RANGE_SCAN) {
+                    reader = new DocumentRangeReader(sourceClient, getCopyReadPreference(sourceClient),
+                            resource, latestDocumentId, throttler, sourceThrottle, spillStore.createQueue(resource));
+                }
+                else {
+                    reader = new DocumentReader(sourceClient, getCopyReadPreference(sourceClient),
+                            resource, latestDocumentId, throttler, sourceThrottle, spillStore.createQueue(resource),
+                            schedulers.getReaderPool().getScheduler());
+                }
+                // the batches of this reader complete out of order on the writer pool
+                CompletionWatermark watermark = new CompletionWatermark();
+                DocumentWriter writer = new DocumentWriter(targetClient, reader, modificationHelper,
+                        schedulers.getWriterPool().getScheduler(), chunkRouters.get(resource.getNamespace()), progress);
+                return writer
+                    .map((DocumentsBatch batch) -> {
+                        saveLastDocumentInBatch(oplogClient, watermark, batch);
+                        return batch;
                     })
-                    .map(reader -> new DocumentWriter(targetClient, reader, modificationHelper))
-                    .subscribe(writer -> {
-                        writer
-                            .map((DocumentsBatch batch) -> {
-                                saveLastDocumentInBatch(oplogClient, batch);
-                                return batch;
-                            })
-                            .blockingSubscribe();
-                        latch.countDown();
+                    .doOnComplete(() -> {
+                        progress.onPartitionCompleted();
+                        if (resource instanceof ShardChunk && writer.getFailedBatchCount() == 0) {
+                            // a chunk can't resume halfway; it is tracked as a whole and
+                            // only skipped on a restart once every batch of it is written
+                            ((ChunkDataTracker) getOrCreateCollectionDataTracker(oplogClient, resource)).markCompleted();
+                        }
                     });
-                latch.await();
-            } catch (InterruptedException e) {
-                logger.error("error while readAndWriteDocuments", e);
+            });
+    }
+
+    /**
+     * Copies the partitions on a fixed set of range workers. a worker that runs out of
+     * partitions splits the remaining range of a partition still being copied.
+     *
+     * @param partitions the partitions of all the collections, as they are discovered
+     * @param batchLimits the limits at which the documents read are cut into batches
+     * @param schedulers the worker pools to read and write the documents on
+     * @throws AppException
+     */
+    private void readAndWriteWithWorkStealing(MongoClient sourceClient,
+                                              MongoClient targetClient,
+                                              MongoClient oplogClient,
+                                              Observable<Resource> partitions,
+                                              BatchLimits batchLimits,
+                                              MigratorSchedulers schedulers) throws AppException {
+        RangeWorkScheduler scheduler = new RangeWorkScheduler(schedulers.getReaderPool(),
+                partition -> readAndWritePartition(sourceClient, targetClient, oplogClient,
+                        partition, batchLimits, schedulers).ignoreElements().blockingAwait(),
+                partition -> splitPartition(sourceClient, oplogClient, partition));
+        scheduler.start();
+        try {
+            partitions.blockingSubscribe(partition -> scheduler.submit((ResourcePartition) partition));
+        } finally {
+            scheduler.completeSubmissions();
+        }
+        scheduler.awaitCompletion();
+    }
+
+    /**
+     * Splits the unread tail off a partition that is being copied. the new range is
+     * saved before the partition is narrowed, so a crash in between leaves two
+     * overlapping ranges on the oplog store but never a gap between them.
+     *
+     * @param partition a partition currently being copied
+     * @return the range split off the partition; null if it can't be split
+     */
+    private ResourcePartition splitPartition(MongoClient sourceClient,
+                                             MongoClient oplogClient,
+                                             ResourcePartition partition) {
+        CollectionPartitionsTracker tracker = new CollectionPartitionsTracker(oplogClient, partition, this.migratorName);
+        ResourcePartition stolen = null;
+        try {
+            BsonValue splitPoint = partitionHelper.getSplitPoint(sourceClient, partition);
+            if (splitPoint == null) {
+                return null;
             }
+
+            stolen = new ResourcePartition(partition,
+                    nextPartitionIds.computeIfAbsent(partition.getNamespace(), k -> new AtomicInteger()).getAndIncrement(),
+                    splitPoint, partition.getUpperBound());
+            tracker.savePartition(stolen);
+            // counted before the split, so the collection is not done if the victim completes right after it
+            CollectionProgress progress = progressMonitor.get(partition);
+            progress.addPartitions(1);
+            if (!partition.trySplit(splitPoint)) {
+                // the reader went past the split point in the meantime
+                progress.onPartitionCompleted();
+                tracker.removePartition(stolen);
+                return null;
+            }
+            tracker.savePartition(partition);
+            return stolen;
+        } catch (Exception e) {
+            logger.error("error while splitting partition {}. Error {}", partition, e.getMessage());
+            return null;
         }
+    }
 
-        sourceClient.close();
-        targetClient.close();
+    /**
+     * Work stealing needs a reader that stops at the upper bound of its partition
+     *
+     * @return true if the partitions are copied by the range workers
+     */
+    private boolean isWorkStealingEnabled() {
+        if (options.isWorkStealing() && options.getReaderMode() != ReaderMode.RANGE_SCAN) {
+            logger.warn("work stealing requires the rangeScan reader mode; copying without work stealing");
+            return false;
+        }
+        if (options.isWorkStealing() && options.isShardAwareReads()) {
+            logger.warn("work stealing does not split shard chunks; copying without work stealing");
+            return false;
+        }
+        return options.isWorkStealing();
     }
 
-    private List<Resource> getFilteredResources(MongoClient sourceClient) {
-        // load the blacklist filters and create database and collection predicates
-        List<ResourceFilter> blacklistFilter = options.getBlackListFilter();
-        DatabaseFilterPredicate databasePredicate = new DatabaseFilterPredicate(blacklistFilter);
-        CollectionFilterPredicate collectionPredicate = new CollectionFilterPredicate(blacklistFilter);
+    /**
+     * Get's the _id ranges in which the given resource is copied. The ranges saved
+     * on oplog store by a prior run are reused so every partition resumes on its own.
+     *
+     * @param resource a collection in a database
+     * @return a list holding either the resource itself or its partitions
+     */
+    private List<Resource> getResourcePartitions(MongoClient sourceClient,
+                                                 MongoClient oplogClient,
+                                                 Resource resource) {
+        List<Resource> resources = new ArrayList<>();
+        if (options.isShardAwareReads() && shardHelper.isShardedCluster(sourceClient)) {
+            // a sharded collection is read chunk by chunk from the shards owning them
+            List<ShardChunk> chunks = shardHelper.getChunks(sourceClient, resource);
+            if (!chunks.isEmpty()) {
+                resources.addAll(chunks);
+                return resources;
+            }
+        }
+
+        boolean workStealing = isWorkStealingEnabled();
+        if (options.getPartitionCount() <= 1 && !workStealing) {
+            resources.add(resource);
+            return resources;
+        }
+
+        CollectionPartitionsTracker tracker = new CollectionPartitionsTracker(oplogClient, resource, this.migratorName);
+        List<ResourcePartition> partitions = options.isDropTarget()
+                ? new ArrayList<>()
+                : tracker.getPartitions();
 
-        return new DatabaseFlowable(sourceClient)
-                .filter(databasePredicate)
-                .flatMap(db -> {
-                    logger.info("found database: {}", db.getString("name"));
-                    return new CollectionFlowable(sourceClient, db.getString("name"));
-                })
-                .filter(collectionPredicate)
-                .toList()
-                .blockingGet();
+        if (partitions.isEmpty()) {
+            partitions = partitionHelper.getPartitions(sourceClient, resource);
+            try {
+                tracker.savePartitions(partitions);
+            } catch (AppException e) {
+                // without saved bounds the partitions can't be resumed; copy the collection as a whole
+                logger.error("error while saving partitions for resource {}. copying it unpartitioned. Error {}",
+                        resource.getNamespace(), e.getMessage());
+                resources.add(workStealing
+                        ? new ResourcePartition(resource, 0, null, null)
+                        : resource);
+                return resources;
+            }
+        }
+        else {
+            logger.info("found {} saved partitions for resource {}", partitions.size(), resource.getNamespace());
+        }
+        int nextPartitionId = 0;
+        for (ResourcePartition partition : partitions) {
+            nextPartitionId = Math.max(nextPartitionId, partition.getPartitionId() + 1);
+        }
+        nextPartitionIds.put(resource.getNamespace(), new AtomicInteger(nextPartitionId));
+        resources.addAll(partitions);
+        return resources;
     }
 
     /**
-     * Saves the last document from the batch to the oplog database for tracking
+     * Saves the watermark of the reader to the oplog database for tracking, if the
+     * written batch moved it. a batch written ahead of an earlier one is held back
+     * until the earlier one is written, so a resume never skips an unwritten batch.
+     * a batch that failed to write is never passed on, so the watermark stays below it.
      *
+     * @param watermark the written batches of the reader of the batch
      * @param batch an object representing current batch of data
      * @see DocumentsBatch
      *
      */
-    private void saveLastDocumentInBatch(MongoClient client, DocumentsBatch batch) {
-        if (batch.getSize() == 0) {
-            return ;
+    private void saveLastDocumentInBatch(MongoClient client, CompletionWatermark watermark, DocumentsBatch batch) {
+        // only the _id of the raw document is decoded
+        Object lastId = batch.getSize() == 0
+                ? null
+                : batch.getDocuments().get(batch.getSize() - 1).get("_id");
+        Object watermarkId = watermark.complete(batch.getBatchId(), lastId);
+        if (watermarkId == null) {
+            logger.debug("Batch {} is written ahead of batch {}; holding back its checkpoint",
+                    batch.getBatchId(), watermark.getNextBatchId());
+            return;
         }
-        // NOTE: Multiple threads could be writing here. so
-        synchronized (lockObject) {
-            Document document = batch.getDocuments().get(batch.getSize()-1);
-            logger.info("Saving Batch {}. lastDocumentId [{}]", batch.toString(), document.get("_id"));
+        Document latestDocument = new Document("_id", watermarkId);
+        logger.debug("Saving Batch {}. lastDocumentId [{}]", batch.toString(), watermarkId);
 
-            WritableDataTracker tracker = getOrCreateCollectionDataTracker(client, batch.getResource());
-            tracker.updateLatestDocument(document);
-        }
+        WritableDataTracker tracker = getOrCreateCollectionDataTracker(client, batch.getResource());
+        checkpointService.checkpoint(tracker, latestDocument);
     }
 
     /**
@@ -208,9 +458,62 @@ public class CollectionDataMigrator extends BaseMigrator {
         }
     }
 
+    /**
+     * Creates the collection on target with the source options, deferring its secondary
+     * indexes until the data is copied, if configured to materialize the schema.
+     *
+     * @param resource a collection in a database
+     */
+    private void materializeTargetCollectionIfRequired(MongoClient sourceClient, MongoClient targetClient, Resource resource) {
+        if (options.isMaterializeSchema()) {
+            schemaMaterializer.materialize(sourceClient, targetClient, resource);
+        }
+    }
+
+    /**
+     * Pre-splits the sharded target collection from the source data distribution, and
+     * keeps a router to group the batches by target chunk, if configured to pre-split.
+     *
+     * @param resource a collection in a database
+     */
+    private void presplitTargetCollectionIfRequired(MongoClient sourceClient, MongoClient targetClient, Resource resource) {
+        if (!options.isPresplitTarget()) {
+            return;
+        }
+        try {
+            TargetChunkRouter router = presplitHelper.presplit(sourceClient, targetClient,
+                    resource, modificationHelper.getMappedResource(resource));
+            if (router != null) {
+                chunkRouters.put(resource.getNamespace(), router);
+            }
+        } catch (MongoException e) {
+            logger.error("error while pre-splitting the target of resource {}; copying without it. Error {}",
+                    resource.getNamespace(), e.getMessage());
+        }
+    }
+
+    /**
+     * Get's the read preference of the copy reads; the client's own if none is configured
+     *
+     * @param client a MongoDB client object pointing to the source or one of its shards
+     * @return a read preference
+     */
+    private ReadPreference getCopyReadPreference(MongoClient client) {
+        return MongoDBHelper.getReadPreference(options.getCopyReadPreference(), client.getReadPreference());
+    }
+
     private CollectionDataTracker getOrCreateCollectionDataTracker(MongoClient client, Resource resource) {
         if (!oplogDataTrackers.containsKey(resource)) {
-            CollectionDataTracker tracker = new CollectionDataTracker(client, resource, this.migratorName);
+            CollectionDataTracker tracker;
+            if (resource instanceof ShardChunk) {
+                tracker = new ChunkDataTracker(client, (ShardChunk) resource, this.migratorName);
+            }
+            else if (resource instanceof ResourcePartition) {
+                tracker = new PartitionDataTracker(client, (ResourcePartition) resource, this.migratorName);
+            }
+            else {
+                tracker = new CollectionDataTracker(client, resource, this.migratorName);
+            }
             oplogDataTrackers.putIfAbsent(resource, tracker);
         }
         return oplogDataTrackers.get(resource);
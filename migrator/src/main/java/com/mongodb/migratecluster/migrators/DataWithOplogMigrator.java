@@ -2,6 +2,8 @@ package com.mongodb.migratecluster.migrators;
 
 import com.mongodb.migratecluster.AppException;
 import com.mongodb.migratecluster.commandline.ApplicationOptions;
+import com.mongodb.migratecluster.helpers.MongoClientRegistry;
+import com.mongodb.migratecluster.trackers.CheckpointService;
 
 /**
  * File: DataWithOplogMigrator
@@ -16,11 +18,12 @@ public class DataWithOplogMigrator extends BaseMigrator {
     private final CollectionDataMigrator dataMigrator;
     private final OplogMigrator oplogMigrator;
 
-    public DataWithOplogMigrator(ApplicationOptions options) {
-        super(options);
+    public DataWithOplogMigrator(ApplicationOptions options, MongoClientRegistry clientRegistry,
+                                 CheckpointService checkpointService) {
+        super(options, clientRegistry, checkpointService);
 
-        dataMigrator = new CollectionDataMigrator(options);
-        oplogMigrator = new OplogMigrator(options);
+        dataMigrator = new CollectionDataMigrator(options, clientRegistry, checkpointService);
+        oplogMigrator = new OplogMigrator(options, clientRegistry, checkpointService);
     }
 
     /**
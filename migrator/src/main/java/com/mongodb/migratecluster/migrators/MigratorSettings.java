@@ -2,6 +2,28 @@ package com.mongodb.migratecluster.migrators;
 
 public final class MigratorSettings {
     public static final int BATCH_SIZE_ID_READER = 5000;
-    public static final int BATCHES_MAX_COUNT = 2;
-    public static final int BATCH_SIZE_DOC_READER = 1000;
+    public static final int MESSAGE_SIZE_OVERHEAD_BYTES = 16 * 1024;
+    public static final long MIN_DOCUMENTS_PER_PARTITION = 100000;
+    public static final int PARTITION_SAMPLES_PER_SPLIT = 10;
+    public static final long MIN_DOCUMENTS_TO_STEAL = 10000;
+    public static final long STEAL_RETRY_INTERVAL_MILLIS = 5000;
+    public static final int PRESPLIT_SAMPLES_PER_CHUNK = 10;
+    public static final long CHECKPOINT_FLUSH_INTERVAL_MILLIS = 1000;
+    public static final long CHECKPOINT_FLUSH_BYTES = 256 * 1024;
+    public static final long PROGRESS_SAMPLE_INTERVAL_MILLIS = 5000;
+    public static final long PROGRESS_WINDOW_MILLIS = 5 * 60 * 1000;
+    public static final long PROGRESS_REPORT_INTERVAL_MILLIS = 60 * 1000;
+    public static final int VERIFY_BATCH_SIZE = 1000;
+    public static final int VERIFY_MAX_REPORTED_IDS = 100;
+    public static final long RESYNC_DOCUMENTS_PER_RANGE = 10000;
+    public static final int MAX_RANGES_PER_COLLECTION = 10000;
+    public static final long THROTTLE_POLL_INTERVAL_MILLIS = 5000;
+    public static final double THROTTLE_MIN_FACTOR = 0.05;
+    public static final double THROTTLE_RECOVERY_STEP = 0.1;
+    public static final long SPILL_SEGMENT_BYTES = 64 * 1024 * 1024;
+    public static final int OPLOG_MAX_RUN_SIZE = 1000;
+    public static final int OPLOG_RING_BUFFER_SIZE = 4096;
+    public static final int OPLOG_BATCH_MAX_DOCUMENTS = 1000;
+    public static final long OPLOG_BATCH_MAX_BYTES = 16 * 1024 * 1024;
+    public static final long OPLOG_FLUSH_INTERVAL_MILLIS = 5000;
 }
@@ -1,8 +1,10 @@
 package com.mongodb.migratecluster.migrators;
 
 import com.mongodb.MongoClient;
+import com.mongodb.ReadPreference;
 import com.mongodb.migratecluster.AppException;
 import com.mongodb.migratecluster.commandline.ApplicationOptions;
+import com.mongodb.migratecluster.helpers.MongoClientRegistry;
 import com.mongodb.migratecluster.helpers.MongoDBHelper;
 import com.mongodb.migratecluster.model.Resource;
 import com.mongodb.migratecluster.observables.OplogBufferedReader;
@@ -35,8 +37,9 @@ public class OplogMigrator extends BaseMigrator {
     private final Resource oplogRsResource;
     private Runnable gapWatcher;
 
-    public OplogMigrator(ApplicationOptions options) {
-        super(options);
+    public OplogMigrator(ApplicationOptions options, MongoClientRegistry clientRegistry,
+                         CheckpointService checkpointService) {
+        super(options, clientRegistry, checkpointService);
         oplogTrackerResource = new Resource("migrate-mongo", "oplog.tracker");
         oplogRsResource = new Resource("local", "oplog.rs");
     }
@@ -100,7 +103,6 @@ public class OplogMigrator extends BaseMigrator {
         MongoClient client = this.getOplogClient();
         ReadOnlyTracker tracker = new OplogTimestampTracker(client, oplogTrackerResource, this.migratorName);
         Document document = tracker.getLatestDocument();
-        client.close();
         if (document == null) {
             return null;
         }
@@ -116,7 +118,6 @@ public class OplogMigrator extends BaseMigrator {
         MongoClient client = this.getSourceClient();
         ReadOnlyTracker tracker = new OplogTimestampReader(client, oplogRsResource, this.migratorName);
         Document document = tracker.getLatestDocument();
-        client.close();
         return document;
     }
 
@@ -129,7 +130,6 @@ public class OplogMigrator extends BaseMigrator {
         MongoClient client = this.getOplogClient();
         WritableDataTracker tracker = new OplogTimestampTracker(client, oplogTrackerResource, this.migratorName);
         tracker.updateLatestDocument(document);
-        client.close();
     }
 
     /**
@@ -155,8 +155,11 @@ public class OplogMigrator extends BaseMigrator {
         MongoClient targetClient = getTargetClient();
         MongoClient oplogStoreClient = getOplogClient();
         logger.info("copyOplogsFromSourceToOplogstore timestamp: {}", lastTimestamp);
-        OplogBufferedReader reader = new OplogBufferedReader(sourceClient, lastTimestamp);
-        OplogWriter writer = new OplogWriter(targetClient, oplogStoreClient, this.migratorName, this.options);
+        ReadPreference readPreference = MongoDBHelper.getReadPreference(options.getOplogReadPreference(),
+                ReadPreference.secondaryPreferred());
+        OplogBufferedReader reader = new OplogBufferedReader(sourceClient, readPreference, lastTimestamp);
+        OplogWriter writer = new OplogWriter(targetClient, oplogStoreClient, checkpointService,
+                this.migratorName, this.options);
 
         reader
                 .subscribe(ops -> writer.applyOperations(ops));
@@ -169,7 +172,9 @@ public class OplogMigrator extends BaseMigrator {
         MongoClient sourceClient = getSourceClient();
         MongoClient oplogStoreClient = getOplogClient();
 
-        watcher = new OplogGapWatcher(sourceClient, oplogStoreClient, this.migratorName);
+        ReadPreference readPreference = MongoDBHelper.getReadPreference(options.getGapWatcherReadPreference(),
+                sourceClient.getReadPreference());
+        watcher = new OplogGapWatcher(sourceClient, readPreference, oplogStoreClient, this.migratorName);
         watcher
                 .subscribeOn(Schedulers.newThread())
                 .subscribe(gap -> {
@@ -0,0 +1,108 @@
+package com.mongodb.migratecluster.migrators;
+
+import com.mongodb.MongoClient;
+import com.mongodb.migratecluster.AppException;
+import com.mongodb.migratecluster.commandline.ApplicationOptions;
+import com.mongodb.migratecluster.helpers.ModificationHelper;
+import com.mongodb.migratecluster.helpers.MongoClientRegistry;
+import com.mongodb.migratecluster.helpers.PartitionHelper;
+import com.mongodb.migratecluster.helpers.ShardHelper;
+import com.mongodb.migratecluster.model.Resource;
+import com.mongodb.migratecluster.model.ResourcePartition;
+import com.mongodb.migratecluster.schedulers.WorkerPool;
+import com.mongodb.migratecluster.throttling.SourceThrottle;
+import com.mongodb.migratecluster.trackers.CheckpointService;
+import com.mongodb.migratecluster.verify.RangeResyncer;
+import io.reactivex.Observable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * File: ResyncMigrator
+ * Description:
+ *
+ * A class to bring a target that drifted from the source back in line
+ * without a full copy. the collections are cut into small _id ranges, the
+ * digests of each range are compared in parallel on the reader pool, and
+ * only the ranges that differ are re-copied.
+ */
+public class ResyncMigrator extends BaseMigrator {
+    private final static Logger logger = LoggerFactory.getLogger(ResyncMigrator.class);
+    private final ModificationHelper modificationHelper;
+    private final PartitionHelper partitionHelper;
+    private final ShardHelper shardHelper;
+    private final SourceThrottle sourceThrottle;
+
+    public ResyncMigrator(ApplicationOptions options, MongoClientRegistry clientRegistry,
+                          CheckpointService checkpointService) {
+        super(options, clientRegistry, checkpointService);
+        modificationHelper = new ModificationHelper(options);
+        partitionHelper = new PartitionHelper(options);
+        shardHelper = new ShardHelper(options);
+        sourceThrottle = new SourceThrottle(options);
+    }
+
+    /**
+     * A method that is invoked before the actual migration process
+     */
+    @Override
+    public void preprocess() {
+        // do nothing
+    }
+
+    /**
+     *
+     * A process method that re-copies the _id ranges that differ between source and target
+     *
+     * @throws AppException when a range could not be compared or re-copied
+     * @see AppException
+     */
+    @Override
+    public void process() throws AppException {
+        if (this.options.getSourceCluster().equals("") || this.options.getTargetCluster().equals("")) {
+            String message = String.format("invalid input args for sourceCluster and targetCluster. \ngiven: %s", this.options.toString());
+            throw new AppException(message);
+        }
+
+        MongoClient sourceClient = getSourceClient();
+        MongoClient targetClient = getTargetClient();
+        RangeResyncer resyncer = new RangeResyncer(sourceClient, targetClient,
+                modificationHelper, getBatchLimits(targetClient), sourceThrottle);
+        List<ResourcePartition> ranges = getRanges(sourceClient, getFilteredResources(sourceClient));
+
+        long[] totals = new long[2];
+        WorkerPool pool = new WorkerPool("migrator-resync", options.getReaderPoolSize());
+        sourceThrottle.start(sourceClient, shardHelper);
+        try {
+            Observable.fromIterable(ranges)
+                .flatMap(range -> Observable.fromCallable(() -> resyncer.resync(range))
+                        .subscribeOn(pool.getScheduler()), pool.getSize())
+                .blockingForEach(copied -> {
+                    if (copied >= 0) {
+                        totals[0]++;
+                        totals[1] += copied;
+                    }
+                });
+        } catch (RuntimeException e) {
+            throw new AppException("error while resyncing the target", e);
+        } finally {
+            sourceThrottle.stop();
+            pool.shutdown();
+            shardHelper.close();
+        }
+
+        logger.info("resync completed { ranges: {}, recopiedRanges: {}, recopiedDocuments: {} }",
+                ranges.size(), totals[0], totals[1]);
+    }
+
+    private List<ResourcePartition> getRanges(MongoClient sourceClient, List<Resource> resources) {
+        List<ResourcePartition> ranges = new ArrayList<>();
+        for (Resource resource : resources) {
+            ranges.addAll(partitionHelper.getRanges(sourceClient, resource, MigratorSettings.RESYNC_DOCUMENTS_PER_RANGE));
+        }
+        return ranges;
+    }
+}
@@ -0,0 +1,117 @@
+package com.mongodb.migratecluster.migrators;
+
+import com.mongodb.MongoClient;
+import com.mongodb.migratecluster.AppException;
+import com.mongodb.migratecluster.commandline.ApplicationOptions;
+import com.mongodb.migratecluster.helpers.ModificationHelper;
+import com.mongodb.migratecluster.helpers.MongoClientRegistry;
+import com.mongodb.migratecluster.helpers.PartitionHelper;
+import com.mongodb.migratecluster.helpers.ShardHelper;
+import com.mongodb.migratecluster.model.Resource;
+import com.mongodb.migratecluster.schedulers.WorkerPool;
+import com.mongodb.migratecluster.throttling.SourceThrottle;
+import com.mongodb.migratecluster.trackers.CheckpointService;
+import com.mongodb.migratecluster.verify.PartitionVerifier;
+import com.mongodb.migratecluster.verify.VerificationResult;
+import io.reactivex.Observable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * File: VerificationMigrator
+ * Description:
+ *
+ * A class to verify that the target holds the same documents as the source.
+ * the collections are split into the configured number of partitions, and
+ * the partitions are compared in parallel on the reader pool.
+ */
+public class VerificationMigrator extends BaseMigrator {
+    private final static Logger logger = LoggerFactory.getLogger(VerificationMigrator.class);
+    private final ModificationHelper modificationHelper;
+    private final PartitionHelper partitionHelper;
+    private final ShardHelper shardHelper;
+    private final SourceThrottle sourceThrottle;
+
+    public VerificationMigrator(ApplicationOptions options, MongoClientRegistry clientRegistry,
+                                CheckpointService checkpointService) {
+        super(options, clientRegistry, checkpointService);
+        modificationHelper = new ModificationHelper(options);
+        partitionHelper = new PartitionHelper(options);
+        shardHelper = new ShardHelper(options);
+        sourceThrottle = new SourceThrottle(options);
+    }
+
+    /**
+     * A method that is invoked before the actual migration process
+     */
+    @Override
+    public void preprocess() {
+        // do nothing
+    }
+
+    /**
+     *
+     * A process method that compares every collection on source with target
+     *
+     * @throws AppException when the target differs from the source
+     * @see AppException
+     */
+    @Override
+    public void process() throws AppException {
+        if (this.options.getSourceCluster().equals("") || this.options.getTargetCluster().equals("")) {
+            String message = String.format("invalid input args for sourceCluster and targetCluster. \ngiven: %s", this.options.toString());
+            throw new AppException(message);
+        }
+
+        MongoClient sourceClient = getSourceClient();
+        PartitionVerifier verifier = new PartitionVerifier(sourceClient, getTargetClient(),
+                modificationHelper, sourceThrottle);
+        List<Resource> partitions = getPartitions(sourceClient, getFilteredResources(sourceClient));
+
+        VerificationResult total = new VerificationResult("all collections");
+        WorkerPool pool = new WorkerPool("migrator-verifier", options.getReaderPoolSize());
+        sourceThrottle.start(sourceClient, shardHelper);
+        try {
+            Observable.fromIterable(partitions)
+                .flatMap(partition -> Observable.fromCallable(() -> verifier.verify(partition))
+                        .subscribeOn(pool.getScheduler()), pool.getSize())
+                .blockingForEach(result -> {
+                    if (result.getDiscrepancies() == 0) {
+                        logger.info("verified {}", result);
+                    }
+                    else {
+                        logger.warn("found discrepancies {}", result);
+                    }
+                    total.merge(result);
+                });
+        } catch (RuntimeException e) {
+            throw new AppException("error while verifying the target", e);
+        } finally {
+            sourceThrottle.stop();
+            pool.shutdown();
+            shardHelper.close();
+        }
+
+        logger.info("verification completed {}", total);
+        if (total.getDiscrepancies() > 0) {
+            throw new AppException(String.format("the target differs from the source on %d documents",
+                    total.getDiscrepancies()));
+        }
+    }
+
+    private List<Resource> getPartitions(MongoClient sourceClient, List<Resource> resources) {
+        List<Resource> partitions = new ArrayList<>();
+        for (Resource resource : resources) {
+            if (options.getPartitionCount() > 1) {
+                partitions.addAll(partitionHelper.getPartitions(sourceClient, resource));
+            }
+            else {
+                partitions.add(resource);
+            }
+        }
+        return partitions;
+    }
+}
@@ -0,0 +1,56 @@
+package com.mongodb.migratecluster.model;
+
+/**
+ * File: BatchLimits
+ * Description:
+ *
+ * a class representing the limits at which a batch of documents is cut.
+ * a batch is cut as soon as it reaches either the documents count or the
+ * bytes limit, but it always holds at least one document.
+ */
+public class BatchLimits {
+    private final int maxDocuments;
+    private final long maxBytes;
+
+    /**
+     * @param maxDocuments the maximum number of documents in a batch
+     * @param maxBytes the maximum total bson size of the documents in a batch
+     */
+    public BatchLimits(int maxDocuments, long maxBytes) {
+        this.maxDocuments = Math.max(1, maxDocuments);
+        this.maxBytes = Math.max(1, maxBytes);
+    }
+
+    /**
+     * @return the maximum number of documents in a batch
+     */
+    public int getMaxDocuments() {
+        return maxDocuments;
+    }
+
+    /**
+     * @return the maximum total bson size of the documents in a batch
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Checks if a batch with the given size has to be cut
+     *
+     * @param documentsCount the number of documents in the batch
+     * @param bytes the total bson size of the documents in the batch
+     * @return true if the batch reached any of the limits
+     */
+    public boolean isReached(int documentsCount, long bytes) {
+        return documentsCount >= getMaxDocuments() || bytes >= getMaxBytes();
+    }
+
+    /**
+     * @return a string representation of the BatchLimits object
+     */
+    @Override
+    public String toString() {
+        return String.format("{ maxDocuments: %d, maxBytes: %d }", getMaxDocuments(), getMaxBytes());
+    }
+}
@@ -1,6 +1,6 @@
 package com.mongodb.migratecluster.model;
 
-import org.bson.Document;
+import org.bson.RawBsonDocument;
 
 import java.util.List;
 
@@ -11,11 +11,13 @@ import java.util.List;
  * Date: 1/11/19 8:25 PM
  * Description:
  * a class representing a batch of documents processed for a given resource.
+ * the documents are kept as raw bson so they are never decoded while copying.
  */
 public class DocumentsBatch {
     private final int batchId;
     private final Resource resource;
-    private final List<Document> documents;
+    private final List<RawBsonDocument> documents;
+    private final long byteSize;
 
     /**
      * @param resource a resource representing database and collection
@@ -24,10 +26,25 @@ public class DocumentsBatch {
      *
      * @see Resource
      */
-    public DocumentsBatch(Resource resource, int batchId, List<Document> documents) {
+    public DocumentsBatch(Resource resource, int batchId, List<RawBsonDocument> documents) {
         this.resource = resource;
         this.batchId = batchId;
         this.documents = documents;
+        this.byteSize = getByteSize(documents);
+    }
+
+    /**
+     * Get's the total bson size of the given documents
+     *
+     * @param documents a list of raw documents
+     * @return the sum of the bson sizes of the documents in bytes
+     */
+    public static long getByteSize(List<RawBsonDocument> documents) {
+        long size = 0;
+        for (RawBsonDocument document : documents) {
+            size += document.getByteBuffer().remaining();
+        }
+        return size;
     }
 
     /**
@@ -50,10 +67,10 @@ public class DocumentsBatch {
     }
 
     /**
-     * @return a list of all the Documents in this Batch
-     * @see Document
+     * @return a list of all the raw Documents in this Batch
+     * @see RawBsonDocument
      */
-    public List<Document> getDocuments() {
+    public List<RawBsonDocument> getDocuments() {
         return documents;
     }
 
@@ -64,12 +81,19 @@ public class DocumentsBatch {
         return documents.size();
     }
 
+    /**
+     * @return the total bson size of the documents in the current batch
+     */
+    public long getByteSize() {
+        return byteSize;
+    }
+
     /**
      * @return a string representation of the Documents Batch object
      */
     @Override
     public String toString() {
-        return String.format("{ resource: %s; batchId: %d, size: %d }",
-                resource.toString(), batchId, documents.size());
+        return String.format("{ resource: %s; batchId: %d, size: %d, bytes: %d }",
+                resource.toString(), batchId, documents.size(), byteSize);
     }
 }
@@ -0,0 +1,127 @@
+package com.mongodb.migratecluster.model;
+
+import com.mongodb.migratecluster.utils.BsonValueComparator;
+import com.mongodb.migratecluster.utils.IdRangeFilter;
+import org.bson.BsonValue;
+import org.bson.conversions.Bson;
+
+/**
+ * File: ResourcePartition
+ * Description:
+ *
+ * a class representing a contiguous _id range of a collection.
+ * the lower bound is inclusive and the upper bound is exclusive,
+ * a null bound means the range is open on that side.
+ *
+ * the upper bound of a partition being copied can be narrowed when an idle
+ * worker steals the remaining tail of the range. the reader advances the
+ * partition one _id at a time, so a split never hands over an _id that
+ * has already been read.
+ */
+public class ResourcePartition extends Resource {
+    private final int partitionId;
+    private final Object lowerBound;
+    private Object upperBound;
+    private BsonValue upperBoundValue;
+    private BsonValue lastReadId;
+
+    /**
+     * @param resource a resource representing database and collection
+     * @param partitionId an identifier of the partition within the collection
+     * @param lowerBound the inclusive lower _id bound; null if unbounded
+     * @param upperBound the exclusive upper _id bound; null if unbounded
+     */
+    public ResourcePartition(Resource resource, int partitionId, Object lowerBound, Object upperBound) {
+        super(resource.getDatabase(), resource.getCollection(), resource.getCollectionOptions());
+        this.partitionId = partitionId;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+        this.upperBoundValue = (upperBound == null) ? null : BsonValueComparator.toBsonValue(upperBound);
+    }
+
+    /**
+     * Get's the identifier of the partition within the collection
+     *
+     * @return an integer representing the partition
+     */
+    public int getPartitionId() {
+        return partitionId;
+    }
+
+    /**
+     * @return the inclusive lower _id bound of the partition; null if unbounded
+     */
+    public Object getLowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * @return the exclusive upper _id bound of the partition; null if unbounded
+     */
+    public synchronized Object getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * @return the _id of the last document read within the partition; null if none was read yet
+     */
+    public synchronized BsonValue getLastReadId() {
+        return lastReadId;
+    }
+
+    /**
+     * Moves the read position of the partition to the given _id, unless the
+     * _id is at or beyond the upper bound of the partition.
+     *
+     * @param id the _id of the document just read from the cursor
+     * @return true if the document belongs to the partition; false if the reader should stop
+     */
+    public synchronized boolean tryAdvance(BsonValue id) {
+        if (upperBoundValue != null && BsonValueComparator.INSTANCE.compare(id, upperBoundValue) >= 0) {
+            return false;
+        }
+        lastReadId = id;
+        return true;
+    }
+
+    /**
+     * Narrows the upper bound of the partition to the given split point, so that
+     * the range from the split point onwards can be copied by another worker.
+     *
+     * @param splitPoint the _id at which the partition is cut
+     * @return true if the bound was narrowed; false if the reader has already gone past the split point
+     */
+    public synchronized boolean trySplit(Object splitPoint) {
+        BsonValue value = BsonValueComparator.toBsonValue(splitPoint);
+        if (lastReadId != null && BsonValueComparator.INSTANCE.compare(lastReadId, value) >= 0) {
+            return false;
+        }
+        if (upperBoundValue != null && BsonValueComparator.INSTANCE.compare(value, upperBoundValue) >= 0) {
+            return false;
+        }
+        upperBound = splitPoint;
+        upperBoundValue = value;
+        return true;
+    }
+
+    /**
+     * Get's the filter that limits a query to the _id range of this partition.
+     * _ids of a type other than the bounds are matched by the partition they sort in.
+     *
+     * @return a filter on _id representing the partition bounds
+     */
+    public synchronized Bson getRangeFilter() {
+        return IdRangeFilter.getFilter(lowerBound, true, upperBound);
+    }
+
+    /**
+     * @return a string representation of the ResourcePartition object
+     */
+    @Override
+    public synchronized String toString() {
+        String value = super.toString();
+        return String.format("{ %s, partition: %d, min_id: %s, max_id: %s }",
+                value.substring(2, value.length() - 2),
+                partitionId, lowerBound, upperBound);
+    }
+}
@@ -0,0 +1,82 @@
+package com.mongodb.migratecluster.model;
+
+import org.bson.Document;
+
+/**
+ * File: ShardChunk
+ * Description:
+ *
+ * a class representing a chunk of a sharded collection on the source.
+ * the chunk is a range of the shard key, from the inclusive min to the
+ * exclusive max, owned by a single shard.
+ */
+public class ShardChunk extends Resource {
+    private final Object chunkId;
+    private final String shard;
+    private final Document shardKey;
+    private final Document min;
+    private final Document max;
+
+    /**
+     * @param resource a resource representing database and collection
+     * @param chunkId the _id of the chunk in config.chunks
+     * @param shard the name of the shard owning the chunk
+     * @param shardKey the shard key pattern of the collection
+     * @param min the inclusive lower bound of the chunk on the shard key
+     * @param max the exclusive upper bound of the chunk on the shard key
+     */
+    public ShardChunk(Resource resource, Object chunkId, String shard, Document shardKey, Document min, Document max) {
+        super(resource.getDatabase(), resource.getCollection(), resource.getCollectionOptions());
+        this.chunkId = chunkId;
+        this.shard = shard;
+        this.shardKey = shardKey;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * @return the _id of the chunk in config.chunks
+     */
+    public Object getChunkId() {
+        return chunkId;
+    }
+
+    /**
+     * @return the name of the shard owning the chunk
+     */
+    public String getShard() {
+        return shard;
+    }
+
+    /**
+     * @return the shard key pattern of the collection, used as the index hint
+     */
+    public Document getShardKey() {
+        return shardKey;
+    }
+
+    /**
+     * @return the inclusive lower bound of the chunk on the shard key
+     */
+    public Document getMin() {
+        return min;
+    }
+
+    /**
+     * @return the exclusive upper bound of the chunk on the shard key
+     */
+    public Document getMax() {
+        return max;
+    }
+
+    /**
+     * @return a string representation of the ShardChunk object
+     */
+    @Override
+    public String toString() {
+        String value = super.toString();
+        return String.format("{ %s, shard: \"%s\", chunk: %s, min: %s, max: %s }",
+                value.substring(2, value.length() - 2),
+                shard, chunkId, min.toJson(), max.toJson());
+    }
+}
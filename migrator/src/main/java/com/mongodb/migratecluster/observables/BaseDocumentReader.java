@@ -0,0 +1,172 @@
+package com.mongodb.migratecluster.observables;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.migratecluster.model.BatchLimits;
+import com.mongodb.migratecluster.model.DocumentsBatch;
+import com.mongodb.migratecluster.model.Resource;
+import com.mongodb.migratecluster.model.ResourcePartition;
+import com.mongodb.migratecluster.throttling.BatchSizeController;
+import com.mongodb.migratecluster.spill.SpillQueue;
+import com.mongodb.migratecluster.throttling.SourceThrottle;
+import com.mongodb.migratecluster.utils.IdRangeFilter;
+import io.reactivex.Observable;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * File: BaseDocumentReader
+ * Description:
+ *
+ * An abstract class representing a reader that publishes the full
+ * documents of a resource in batches. the size of the batches and the
+ * number of batches handed over to the writers at any time are set by
+ * the batch size controller, and the pace of the reads by the source
+ * throttle shared with the other readers. while the writers have no room
+ * for another batch, the reader spills its batches to disk and keeps on
+ * reading; the spilled batches are handed over first once there is room.
+ */
+public abstract class BaseDocumentReader extends Observable<DocumentsBatch> {
+    private final static Logger logger = LoggerFactory.getLogger(BaseDocumentReader.class);
+    protected final Resource resource;
+    private final BatchSizeController throttler;
+    private final SourceThrottle sourceThrottle;
+    private final SpillQueue spillQueue;
+
+    /**
+     * @param resource An object representing database and collection that reader will process
+     * @param throttler the controller of the batch limits and the batches in flight
+     * @param sourceThrottle the limits on the documents and bytes read per second from the source
+     * @param spillQueue the queue to spill the batches to while the writers are behind; null to wait for them
+     */
+    protected BaseDocumentReader(Resource resource, BatchSizeController throttler,
+                                 SourceThrottle sourceThrottle, SpillQueue spillQueue) {
+        this.resource = resource;
+        this.throttler = throttler;
+        this.sourceThrottle = sourceThrottle;
+        this.spillQueue = spillQueue;
+    }
+
+    /**
+     * Get's the filter for reading the documents of a resource that are not copied yet.
+     * if a latest document was saved by a prior run, the read seeks straight past it
+     * on the _id index, without skipping any documents on either server or client.
+     *
+     * @param resource a collection in a database or an _id range of it
+     * @param readFromDocumentId A Document holding the latest_id saved for the resource; may be null
+     * @return a filter limited to the _id range of the resource and the resume point if any
+     */
+    static Bson getReadFilter(Resource resource, Document readFromDocumentId) {
+        Bson rangeFilter = (resource instanceof ResourcePartition)
+                ? ((ResourcePartition) resource).getRangeFilter()
+                : new Document();
+
+        if (readFromDocumentId == null) {
+            return rangeFilter;
+        }
+
+        Object latestId = readFromDocumentId.get("latest_id");
+        logger.info("found a tracker entry for resource {}. resuming after document {}", resource, latestId);
+        return Filters.and(rangeFilter, IdRangeFilter.getFilterAfter(latestId));
+    }
+
+    public Resource getResource() {
+        return resource;
+    }
+
+    /**
+     * @return the limits at which the next batch has to be cut
+     */
+    public BatchLimits getBatchLimits() {
+        return throttler.getBatchLimits();
+    }
+
+    /**
+     * Records the outcome of a batch write, so the following batches can be resized
+     *
+     * @param latencyMillis the time taken to write the batch
+     * @param failed a boolean representing if the write had errors other than duplicate keys
+     */
+    public void onBatchWritten(long latencyMillis, boolean failed) {
+        throttler.onBatchWritten(latencyMillis, failed);
+    }
+
+    /**
+     * Hands over the batch read, and the spilled batches before it, to the writers.
+     * if the writers have no room for the batch it is spilled to disk instead; only
+     * when the disk budget is used up too does the reader wait for the writers.
+     *
+     * @param batch the batch just read from the source
+     * @param publisher the consumer handing a batch over to the writers
+     * @throws InterruptedException
+     * @throws IOException when a spilled batch can't be read back
+     */
+    protected void handOver(DocumentsBatch batch, Consumer<DocumentsBatch> publisher) throws InterruptedException, IOException {
+        sourceThrottle.acquire(batch.getSize(), batch.getByteSize());
+        if (spillQueue == null) {
+            acquireThrottler();
+            publisher.accept(batch);
+            return;
+        }
+
+        while (!spillQueue.isEmpty() && throttler.tryAcquire()) {
+            publisher.accept(spillQueue.poll());
+        }
+        if (spillQueue.isEmpty() && throttler.tryAcquire()) {
+            publisher.accept(batch);
+            return;
+        }
+        if (spillQueue.offer(batch)) {
+            logger.debug("reader for resource: {} spilled batch {} to disk; {} batches spilled",
+                    resource.getNamespace(), batch.getBatchId(), spillQueue.size());
+            return;
+        }
+
+        // no room on disk either; wait for the writers
+        drainSpilled(publisher);
+        acquireThrottler();
+        publisher.accept(batch);
+    }
+
+    /**
+     * Hands over all the spilled batches to the writers, waiting for them as needed
+     *
+     * @param publisher the consumer handing a batch over to the writers
+     * @throws InterruptedException
+     * @throws IOException when a spilled batch can't be read back
+     */
+    protected void drainSpilled(Consumer<DocumentsBatch> publisher) throws InterruptedException, IOException {
+        if (spillQueue == null) {
+            return;
+        }
+        while (!spillQueue.isEmpty()) {
+            acquireThrottler();
+            publisher.accept(spillQueue.poll());
+        }
+    }
+
+    /**
+     * Closes the spill queue of the reader once all its batches are handed over
+     */
+    protected void closeSpillQueue() {
+        if (spillQueue != null) {
+            spillQueue.close();
+        }
+    }
+
+    public void acquireThrottler() throws InterruptedException {
+        logger.debug(String.format("Throttler [%d] wait for the consumers to write to db", throttler.availablePermits()));
+        throttler.acquire();
+        logger.debug(String.format("Throttler [%d] got the permit for me to produce", throttler.availablePermits()));
+    }
+
+    public void releaseThrottler() {
+        logger.debug(String.format("Throttler [%d] done consuming the data. notifying producers", throttler.availablePermits()));
+        throttler.release();
+        logger.debug(String.format("Throttler [%d] releasing the permit for producers", throttler.availablePermits()));
+    }
+}
@@ -0,0 +1,158 @@
+package com.mongodb.migratecluster.observables;
+
+import com.mongodb.MongoClient;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.migratecluster.model.BatchLimits;
+import com.mongodb.migratecluster.model.DocumentsBatch;
+import com.mongodb.migratecluster.model.Resource;
+import com.mongodb.migratecluster.model.ResourcePartition;
+import com.mongodb.migratecluster.spill.SpillQueue;
+import com.mongodb.migratecluster.throttling.BatchSizeController;
+import com.mongodb.migratecluster.throttling.SourceThrottle;
+import io.reactivex.Observer;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * File: DocumentRangeReader
+ * Description:
+ *
+ * this class helps you read full documents of a resource in a single pass
+ * of an _id sorted cursor. unlike the DocumentReader, there is no separate
+ * fetch of the documents by their _ids. a batch is published as soon as it
+ * reaches either the documents count or the bytes limit, and the cursor moves
+ * on to the next batch while the writers are saving the current one.
+ * when reading a partition, the reader stops as soon as it reaches the upper
+ * bound of the partition, which may have been narrowed by a split.
+ */
+public class DocumentRangeReader extends BaseDocumentReader {
+    private final static Logger logger = LoggerFactory.getLogger(DocumentRangeReader.class);
+    protected final Document readFromDocumentId;
+    protected final MongoCollection<RawBsonDocument> collection;
+
+    /**
+     * @param client a MongoDB client object pointing to the source
+     * @param readPreference the read preference of the documents read
+     * @param resource An object representing database and collection that reader will process
+     * @param readFromDocumentId A Document representing where to continue reading from given collection
+     * @param throttler the controller of the batch limits and the batches in flight
+     * @param sourceThrottle the limits on the documents and bytes read per second from the source
+     * @param spillQueue the queue to spill the batches to while the writers are behind; null to wait for them
+     */
+    public DocumentRangeReader(MongoClient client, ReadPreference readPreference, Resource resource,
+                               Document readFromDocumentId, BatchSizeController throttler,
+                               SourceThrottle sourceThrottle, SpillQueue spillQueue) {
+        this(client.getDatabase(resource.getDatabase())
+                        .getCollection(resource.getCollection(), RawBsonDocument.class)
+                        .withReadPreference(readPreference),
+                resource, readFromDocumentId, throttler, sourceThrottle, spillQueue);
+    }
+
+    DocumentRangeReader(MongoCollection<RawBsonDocument> collection, Resource resource,
+                        Document readFromDocumentId, BatchSizeController throttler,
+                        SourceThrottle sourceThrottle, SpillQueue spillQueue) {
+        super(resource, throttler, sourceThrottle, spillQueue);
+        this.readFromDocumentId = readFromDocumentId;
+        this.collection = collection;
+    }
+
+    /**
+     * @param observer
+     */
+    @Override
+    protected void subscribeActual(Observer<? super DocumentsBatch> observer) {
+        int batchId = 0;
+        long docsCount = 0;
+        long batchBytes = 0;
+        BatchLimits batchLimits = getBatchLimits();
+        List<RawBsonDocument> documents = new ArrayList<>();
+        ResourcePartition partition = (resource instanceof ResourcePartition)
+                ? (ResourcePartition) resource
+                : null;
+
+        try (MongoCursor<RawBsonDocument> cursor = getCursor(batchLimits)) {
+            while (cursor.hasNext()) {
+                RawBsonDocument item = cursor.next();
+                if (partition != null && !partition.tryAdvance(item.get("_id"))) {
+                    // the rest of the range was handed over to another worker
+                    break;
+                }
+                documents.add(item);
+                batchBytes += item.getByteBuffer().remaining();
+
+                if (batchLimits.isReached(documents.size(), batchBytes)) {
+                    docsCount += documents.size();
+                    publishBatch(observer, new DocumentsBatch(resource, batchId++, documents), docsCount);
+                    documents = new ArrayList<>();
+                    batchBytes = 0;
+                    batchLimits = getBatchLimits();
+                }
+            }
+            if (documents.size() > 0) {
+                docsCount += documents.size();
+                publishBatch(observer, new DocumentsBatch(resource, batchId, documents), docsCount);
+            }
+            drainSpilled(observer::onNext);
+            closeSpillQueue();
+        } catch (InterruptedException e) {
+            logger.error("reader for resource: {} was interrupted", this.resource.getNamespace(), e);
+            observer.onError(e);
+            return;
+        } catch (Exception e) {
+            logger.error("error while reading resource: {}", this.resource.getNamespace(), e);
+            observer.onError(e);
+            return;
+        }
+
+        logger.info("reader for resource: {} completed. total documents read: {}",
+                this.resource.getNamespace(), docsCount);
+        observer.onComplete();
+    }
+
+    /**
+     * @param batchLimits the limits of the first batch
+     * @return a cursor over the documents to read
+     */
+    protected MongoCursor<RawBsonDocument> getCursor(BatchLimits batchLimits) {
+        return getIterable(batchLimits).iterator();
+    }
+
+    /**
+     * Get's the cursor over the documents to read, sorted by _id
+     *
+     * @param batchLimits the limits of the first batch
+     * @return an iterable of raw documents
+     */
+    protected FindIterable<RawBsonDocument> getIterable(BatchLimits batchLimits) {
+        return collection
+                .find(getReadFilter(resource, readFromDocumentId))
+                .sort(BsonDocument.parse("{_id: 1}"))
+                .batchSize(batchLimits.getMaxDocuments());
+    }
+
+    /**
+     * Hands over the batch to the writers, or spills it while they are behind
+     *
+     * @param observer the consumer listening to the published batches
+     * @param batch a batch of full documents
+     * @param docsCount total number of documents read so far
+     * @throws InterruptedException
+     * @throws IOException when a spilled batch can't be read back
+     */
+    private void publishBatch(Observer<? super DocumentsBatch> observer, DocumentsBatch batch, long docsCount)
+            throws InterruptedException, IOException {
+        logger.debug("reader for resource: {} got {} documents ({} bytes); so far read total {} documents in this run.",
+                this.resource.getNamespace(), batch.getSize(), batch.getByteSize(), docsCount);
+        handOver(batch, observer::onNext);
+    }
+}
@@ -1,20 +1,23 @@
 package com.mongodb.migratecluster.observables;
 
 import com.mongodb.MongoClient;
+import com.mongodb.ReadPreference;
 import com.mongodb.client.MongoCollection;
-import com.mongodb.migratecluster.migrators.MigratorSettings;
 import com.mongodb.migratecluster.model.Resource;
+import com.mongodb.migratecluster.spill.SpillQueue;
+import com.mongodb.migratecluster.throttling.BatchSizeController;
+import com.mongodb.migratecluster.throttling.SourceThrottle;
 import com.mongodb.migratecluster.model.DocumentsBatch;
 import io.reactivex.Observable;
 import io.reactivex.Observer;
+import io.reactivex.Scheduler;
 import io.reactivex.functions.Function;
-import io.reactivex.schedulers.Schedulers;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
-import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -25,19 +28,21 @@ import java.util.concurrent.atomic.AtomicInteger;
  * this class helps you read full documents in batches
  * and publish them for any subscribers to listen.
  */
-public class DocumentReader extends Observable<DocumentsBatch> {
+public class DocumentReader extends BaseDocumentReader {
     final static Logger logger = LoggerFactory.getLogger(DocumentReader.class);
-    private final Resource resource;
     private final Document readFromDocumentId;
     private  MongoCollection<Document> collection;
-    private final Semaphore throttler;
+    private final Scheduler scheduler;
 
 
-    public DocumentReader(MongoClient client, Resource resource, Document readFromDocumentId) {
-        this.resource = resource;
+    public DocumentReader(MongoClient client, ReadPreference readPreference, Resource resource, Document readFromDocumentId,
+                          BatchSizeController throttler, SourceThrottle sourceThrottle, SpillQueue spillQueue,
+                          Scheduler scheduler) {
+        super(resource, throttler, sourceThrottle, spillQueue);
         this.readFromDocumentId = readFromDocumentId;
-        this.collection = client.getDatabase(resource.getDatabase()).getCollection(resource.getCollection());
-        this.throttler = new Semaphore(2);
+        this.scheduler = scheduler;
+        this.collection = client.getDatabase(resource.getDatabase()).getCollection(resource.getCollection())
+                .withReadPreference(readPreference);
     }
 
     /**
@@ -49,43 +54,34 @@ public class DocumentReader extends Observable<DocumentsBatch> {
         AtomicInteger docsCount = new AtomicInteger(0);
         AtomicInteger batchIdTracker = new AtomicInteger(0);
 
-        // fetch the ids and do bulk read of 1000 docs at a time
+        // fetch the ids and do bulk read of up to max documents at a time
         observable
-                .subscribeOn(Schedulers.io())
-                .buffer(MigratorSettings.BATCH_SIZE_DOC_READER)
+                .subscribeOn(scheduler)
+                .buffer(getBatchLimits().getMaxDocuments())
                 // .observeOn(Schedulers.io()) // throttle id reader based on documend reader by using same thread
                 .flatMap(new Function<List<Object>, Observable<DocumentsBatch>>() {
                     @Override
                     public Observable<DocumentsBatch> apply(List<Object> ids) throws Exception {
-                        return new DocumentsObservable(collection, getResource(), batchIdTracker.getAndAdd(1), ids.toArray());
+                        return new DocumentsObservable(collection.withDocumentClass(RawBsonDocument.class), getResource(),
+                                batchIdTracker, ids.toArray(), getBatchLimits());
                     }
                 })
-                .map(batch -> {
-                    acquireThrottler();
-                    logger.info("reader for resource: {} got {} documents; so far read total {} documents in this run.",
-                            this.resource.getNamespace(),  batch.getSize(), docsCount.addAndGet(batch.getSize()));
-                    return batch;
-                })
+                .concatMap(batch -> Observable.<DocumentsBatch>create(emitter -> {
+                    logger.debug("reader for resource: {} got {} documents ({} bytes); so far read total {} documents in this run.",
+                            this.resource.getNamespace(),  batch.getSize(), batch.getByteSize(), docsCount.addAndGet(batch.getSize()));
+                    // the batch may be spilled, or handed over after the batches spilled before it
+                    handOver(batch, emitter::onNext);
+                    emitter.onComplete();
+                }))
+                .concatWith(Observable.create(emitter -> {
+                    drainSpilled(emitter::onNext);
+                    closeSpillQueue();
+                    emitter.onComplete();
+                }))
                 .subscribeWith(observer);
 
 
         logger.info("reader for resource: {} completed. total documents read: {}",
                 this.resource.getNamespace(),  docsCount);
     }
-
-    public Resource getResource() {
-        return resource;
-    }
-
-    public void acquireThrottler() throws InterruptedException {
-        logger.debug(String.format("Throttler [%d] wait for the consumers to write to db", throttler.availablePermits()));
-        throttler.acquire();
-        logger.debug(String.format("Throttler [%d] got the permit for me to produce", throttler.availablePermits()));
-    }
-
-    public void releaseThrottler() {
-        logger.debug(String.format("Throttler [%d] done consuming the data. notifying producers", throttler.availablePermits()));
-        throttler.release();
-        logger.debug(String.format("Throttler [%d] releasing the permit for producers", throttler.availablePermits()));
-    }
-}
\ No newline at end of file
+}
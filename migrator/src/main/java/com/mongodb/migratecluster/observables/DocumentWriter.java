@@ -1,23 +1,35 @@
 package com.mongodb.migratecluster.observables;
 
+import com.mongodb.MongoBulkWriteException;
 import com.mongodb.MongoClient;
+import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteError;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.migratecluster.AppException;
 import com.mongodb.migratecluster.helpers.ModificationHelper;
 import com.mongodb.migratecluster.helpers.MongoDBHelper;
+import com.mongodb.migratecluster.helpers.TargetChunkRouter;
 import com.mongodb.migratecluster.model.Resource;
 import com.mongodb.migratecluster.model.DocumentsBatch;
 import com.mongodb.migratecluster.observers.BaseDocumentWriter;
+import com.mongodb.migratecluster.progress.CollectionProgress;
 import io.reactivex.Observable;
 import io.reactivex.ObservableSource;
 import io.reactivex.Observer;
+import io.reactivex.Scheduler;
 import io.reactivex.functions.Function;
-import io.reactivex.schedulers.Schedulers;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * File: DocumentWriter
@@ -31,55 +43,108 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class DocumentWriter extends Observable<DocumentsBatch> {
     private final static Logger logger = LoggerFactory.getLogger(DocumentWriter.class);
-    private final DocumentReader documentReader;
+    private final static int DUPLICATE_KEY_ERROR_CODE = 11000;
+    private final BaseDocumentReader documentReader;
     private final MongoClient client;
     private final Resource resource;
     private final ModificationHelper modificationHelper;
+    private final Scheduler scheduler;
+    private final TargetChunkRouter chunkRouter;
+    private final CollectionProgress progress;
+    private final AtomicInteger failedBatchCount;
 
-    public DocumentWriter(MongoClient client, DocumentReader documentReader, ModificationHelper modificationHelper) {
+    /**
+     * @param client a MongoDB client object pointing to the target
+     * @param documentReader the reader publishing the batches to write
+     * @param modificationHelper the helper mapping the source namespaces to the target ones
+     * @param scheduler the scheduler of the writer pool
+     * @param chunkRouter the router over the chunks of a sharded target collection; null to write batches as they are
+     * @param progress the progress of the collection the batches are written to
+     */
+    public DocumentWriter(MongoClient client, BaseDocumentReader documentReader, ModificationHelper modificationHelper,
+                          Scheduler scheduler, TargetChunkRouter chunkRouter, CollectionProgress progress) {
         this.client = client;
+        this.chunkRouter = chunkRouter;
+        this.progress = progress;
+        this.scheduler = scheduler;
         this.documentReader = documentReader;
         this.resource = documentReader.getResource();
         this.modificationHelper = modificationHelper;
+        this.failedBatchCount = new AtomicInteger(0);
+    }
+
+    /**
+     * @return the number of batches that failed to write
+     */
+    public int getFailedBatchCount() {
+        return failedBatchCount.get();
     }
 
     @Override
     protected void subscribeActual(Observer<? super DocumentsBatch> observer) {
         AtomicInteger documentCountTracker = new AtomicInteger(0);
+        AtomicLong byteCountTracker = new AtomicLong(0);
 
         this.documentReader
                 .flatMap(new Function<DocumentsBatch, ObservableSource<DocumentsBatch>>() {
                     @Override
                     public ObservableSource<DocumentsBatch> apply(DocumentsBatch batch) throws Exception {
+                        progress.onBatchRead();
                         // you got entire documents in here
                         // go save them to the target database in parallel
-                        // NOTE: Running on the .subscribeOn(Schedulers.io()) threads makes the order quite random.
+                        // NOTE: Running on the writer pool threads makes the order quite random.
                         return Observable
                                 .just(batch.getDocuments())
-                                .observeOn(Schedulers.io())
-                                .map(documents -> {
-                                    MongoCollection<Document> collection = getMongoCollection();
+                                .observeOn(scheduler)
+                                .flatMap(documents -> {
+                                    MongoCollection<RawBsonDocument> collection = getMongoCollection();
                                     Document operation = new Document("operation", "insertMany");
-                                    MongoDBHelper.performOperationWithRetry(() -> {
-                                        InsertManyOptions options = new InsertManyOptions();
-                                        options.ordered(false);
+                                    long startTime = System.nanoTime();
+                                    boolean failed = false;
+                                    // each group holds the documents of a single target chunk, sent to a single shard
+                                    for (List<RawBsonDocument> group : getChunkGroups(documents)) {
+                                        Boolean groupFailed;
                                         try {
-                                            collection.insertMany(documents, options);
+                                            // a retryable error is thrown on to be retried; null once the retries run out
+                                            groupFailed = MongoDBHelper.performOperationWithRetry(() -> {
+                                                InsertManyOptions options = new InsertManyOptions();
+                                                options.ordered(false);
+                                                try {
+                                                    collection.insertMany(group, options);
+                                                }
+                                                catch (MongoBulkWriteException e) {
+                                                    // duplicate keys are documents copied already by a prior run
+                                                    return !isDuplicateKeyErrorsOnly(e);
+                                                }
+                                                return false;
+                                            }, operation);
                                         }
-                                        catch (Exception e) {
-                                            // do nothing
+                                        catch (MongoException e) {
+                                            groupFailed = true;
                                         }
-                                        return documents.size();
-                                    }, operation);
+                                        failed |= (groupFailed == null || groupFailed);
+                                    }
+                                    long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+                                    documentReader.onBatchWritten(latencyMillis, failed);
+                                    documentReader.releaseThrottler();
 
-                                    String message = String.format("Batch %s. Inserted %d documents into target collection: %s",
-                                            batch.getBatchId(), documents.size(), resource.getNamespace());
-                                    logger.info(message);
-                                    documentCountTracker.addAndGet(documents.size());
+                                    if (failed) {
+                                        // a failed batch is not passed on, so the checkpoint never moves past it;
+                                        // the writer fails once the other batches are written
+                                        failedBatchCount.incrementAndGet();
+                                        progress.onBatchFailed();
+                                        logger.error("Batch {}. failed to insert {} documents into target collection: {}; holding back its checkpoint",
+                                                batch.getBatchId(), documents.size(), resource.getNamespace());
+                                        return Observable.<DocumentsBatch>empty();
+                                    }
 
-                                    observer.onNext(batch);
-                                    documentReader.releaseThrottler();
-                                    return batch;
+                                    String message = String.format("Batch %s. Inserted %d documents (%d bytes) into target collection: %s",
+                                            batch.getBatchId(), documents.size(), batch.getByteSize(), resource.getNamespace());
+                                    logger.debug(message);
+                                    progress.onBatchWritten(documents.size(), batch.getByteSize());
+                                    documentCountTracker.addAndGet(documents.size());
+                                    byteCountTracker.addAndGet(batch.getByteSize());
+                                    return Observable.just(batch);
                                 });
                     }
                 })
@@ -87,13 +152,40 @@ public class DocumentWriter extends Observable<DocumentsBatch> {
                     batch -> observer.onNext(batch),
                     err -> observer.onError(err),
                     () -> {
-                        logger.info("Completed writing {} documents to Resource: {}", documentCountTracker.get(), this.resource);
+                        logger.info("Completed writing {} documents ({} bytes) to Resource: {}",
+                                documentCountTracker.get(), byteCountTracker.get(), this.resource);
+                        if (failedBatchCount.get() > 0) {
+                            observer.onError(new AppException(String.format("%d batches of resource %s failed to write",
+                                    failedBatchCount.get(), this.resource)));
+                            return;
+                        }
                         observer.onComplete();
                     }
                 );
     }
 
-    private MongoCollection<Document> getMongoCollection() {
+    private Collection<List<RawBsonDocument>> getChunkGroups(List<RawBsonDocument> documents) {
+        if (chunkRouter == null) {
+            return Collections.singletonList(documents);
+        }
+        Collection<List<RawBsonDocument>> groups = chunkRouter.group(documents);
+        logger.debug("regrouped {} documents of resource {} into {} chunk groups",
+                documents.size(), resource.getNamespace(), groups.size());
+        return groups;
+    }
+
+    private boolean isDuplicateKeyErrorsOnly(MongoBulkWriteException exception) {
+        for (BulkWriteError error : exception.getWriteErrors()) {
+            if (error.getCode() != DUPLICATE_KEY_ERROR_CODE) {
+                logger.warn("error while inserting documents into target collection: {}; error: {}",
+                        resource.getNamespace(), error.getMessage());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private MongoCollection<RawBsonDocument> getMongoCollection() {
     	// added support for renaming
         Resource mappedResource = modificationHelper.getMappedResource(resource);
     	String namespaceName = mappedResource.getNamespace();
@@ -104,7 +196,8 @@ public class DocumentWriter extends Observable<DocumentsBatch> {
         return BaseDocumentWriter.getInstance(client).getMongoCollection(
                 namespaceName,
                 mappedResource.getDatabase(),
-                mappedResource.getCollection());
+                mappedResource.getCollection())
+                .withDocumentClass(RawBsonDocument.class);
     }
 
 
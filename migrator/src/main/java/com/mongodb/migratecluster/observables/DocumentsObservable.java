@@ -2,17 +2,20 @@ package com.mongodb.migratecluster.observables;
 
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.migratecluster.model.BatchLimits;
 import com.mongodb.migratecluster.model.Resource;
 import com.mongodb.migratecluster.model.DocumentsBatch;
 import io.reactivex.Observable;
 import io.reactivex.Observer;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
 import org.bson.conversions.Bson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.mongodb.client.model.Filters.in;
 
@@ -24,41 +27,55 @@ import static com.mongodb.client.model.Filters.in;
  */
 public class DocumentsObservable extends Observable<DocumentsBatch> {
     private final Resource resource;
-    private final int batchId;
+    private final AtomicInteger batchIdTracker;
     private final Object[] ids;
-    private final MongoCollection<Document> collection;
+    private final MongoCollection<RawBsonDocument> collection;
+    private final BatchLimits batchLimits;
 
     private final static Logger logger = LoggerFactory.getLogger(DocumentsObservable.class);
 
-    public DocumentsObservable(MongoCollection<Document> collection, Resource resource, int batchId, Object[] ids) {
+    /**
+     * @param collection the source collection holding the documents
+     * @param resource a resource representing database and collection
+     * @param batchIdTracker a counter handing out the identifiers of the batches
+     * @param ids the _ids of the documents to read
+     * @param batchLimits the limits at which the read documents are cut into batches
+     */
+    public DocumentsObservable(MongoCollection<RawBsonDocument> collection, Resource resource,
+                               AtomicInteger batchIdTracker, Object[] ids, BatchLimits batchLimits) {
         this.resource = resource;
-        this.batchId = batchId;
+        this.batchIdTracker = batchIdTracker;
         this.ids = ids;
         this.collection = collection;
+        this.batchLimits = batchLimits;
     }
 
     @Override
     protected void subscribeActual(Observer<? super DocumentsBatch> observer) {
-        List<Document> documents = getDocumentsFromDB();
-
-        String message = String.format("read %s full documents based on given _id's. ", documents.size());
-        //DEBUG: Remove below line
-        //message = String.format("read %s full documents based on given _id's. ", String.join(",",documents.stream().map(x -> x.get("_id").toString()).toArray(String[]::new)));
-        logger.info(message);
-
-        DocumentsBatch batch = new DocumentsBatch(resource, batchId, documents);
-        observer.onNext(batch);
-        observer.onComplete();
-    }
-
-    private List<Document> getDocumentsFromDB() {
-        List<Document> docs = new ArrayList<>();
         Bson filter = in("_id", this.ids);
-        FindIterable<Document> documents = this.collection.find(filter);
-        // find the full documents for given set of _id's
-        for (Document item : documents) {
+        // sorted, so the batches are cut in _id order and the last document of a batch is its highest _id
+        FindIterable<RawBsonDocument> documents = this.collection.find(filter).sort(new Document("_id", 1));
+
+        // find the full documents for given set of _id's and cut them on the byte limit
+        int documentsCount = 0;
+        long bytes = 0;
+        List<RawBsonDocument> docs = new ArrayList<>();
+        for (RawBsonDocument item : documents) {
             docs.add(item);
+            bytes += item.getByteBuffer().remaining();
+            if (batchLimits.isReached(docs.size(), bytes)) {
+                documentsCount += docs.size();
+                observer.onNext(new DocumentsBatch(resource, batchIdTracker.getAndAdd(1), docs));
+                docs = new ArrayList<>();
+                bytes = 0;
+            }
+        }
+        if (docs.size() > 0) {
+            documentsCount += docs.size();
+            observer.onNext(new DocumentsBatch(resource, batchIdTracker.getAndAdd(1), docs));
         }
-        return docs;
+
+        logger.debug("read {} full documents based on given _id's.", documentsCount);
+        observer.onComplete();
     }
 }
@@ -6,19 +6,25 @@ import com.mongodb.ReadPreference;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
 import com.mongodb.migratecluster.helpers.MongoDBHelper;
-import com.mongodb.migratecluster.utils.Timer;
+import com.mongodb.migratecluster.migrators.MigratorSettings;
+import com.mongodb.migratecluster.schedulers.WorkerPool;
+import com.mongodb.migratecluster.utils.RingBuffer;
 import io.reactivex.Observable;
 import io.reactivex.Observer;
 import org.bson.BsonTimestamp;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * File: OplogBufferedReader
@@ -27,33 +33,55 @@ import java.util.stream.Collectors;
  * Description:
  *
  * A class to help read the oplog entries and notify the consumers
- * of documents read either in bulk or timer based mode.
+ * of documents read in batches. the tailing thread hands the raw entries
+ * over a ring buffer to a batcher thread, which decodes them and notifies
+ * a batch once it is full by count or by bytes, or once its oldest entry
+ * waited long enough. the batcher parks while the ring buffer is empty and
+ * the tailing thread unparks it after handing over an entry. while the
+ * consumer is busy the ring buffer fills up and the tailing thread stops
+ * pulling from the cursor.
  */
 public class OplogBufferedReader extends Observable<List<Document>> {
+    private final static long WAIT_NANOS = 100_000;
+
     private final MongoClient client;
+    private final ReadPreference readPreference;
     private final BsonTimestamp lastTimeStamp;
-    private final int BUFFER_SIZE = 1000;
-    private final Object lockObject = new Object();
-
-    private final AtomicInteger counter = new AtomicInteger(0);
-    private final ConcurrentLinkedQueue<Document> queue;
+    private final RingBuffer<RawBsonDocument> ringBuffer;
+    private final DocumentCodec codec;
+    private final AtomicBoolean batcherParked;
+    private volatile boolean tailing;
+    private volatile boolean stopped;
+    private volatile Thread batcherThread;
+    private volatile RuntimeException batcherError;
+    private long notifiedCount;
 
     final static Logger logger = LoggerFactory.getLogger(OplogBufferedReader.class);
 
-    public OplogBufferedReader(MongoClient client, BsonTimestamp lastTimeStamp) {
+    /**
+     * @param client a MongoDB client object pointing to the source
+     * @param readPreference the read preference of the oplog reads
+     * @param lastTimeStamp the timestamp of the last oplog entry already read
+     */
+    public OplogBufferedReader(MongoClient client, ReadPreference readPreference, BsonTimestamp lastTimeStamp) {
         this.client = client;
+        this.readPreference = readPreference;
         this.lastTimeStamp = lastTimeStamp;
-        this.queue = new ConcurrentLinkedQueue<>();
-        this.client.setReadPreference(ReadPreference.secondaryPreferred());
+        this.ringBuffer = new RingBuffer<>(MigratorSettings.OPLOG_RING_BUFFER_SIZE);
+        this.codec = new DocumentCodec();
+        this.batcherParked = new AtomicBoolean();
     }
 
     @Override
     protected void subscribeActual(Observer<? super List<Document>> observer) {
-        MongoCollection<Document> collection =
-                MongoDBHelper.getCollection(client, "local", "oplog.rs");
+        // the client is shared with the other readers; the read preference applies to the oplog only
+        MongoCollection<RawBsonDocument> collection =
+                MongoDBHelper.getCollection(client, "local", "oplog.rs")
+                        .withDocumentClass(RawBsonDocument.class)
+                        .withReadPreference(readPreference);
 
         Document query = getFindQuery();
-        MongoCursor<Document> cursor =
+        MongoCursor<RawBsonDocument> cursor =
                 collection
                         .find(query)
                         .sort(new Document("$natural", 1))
@@ -62,48 +90,135 @@ public class OplogBufferedReader extends Observable<List<Document>> {
                         .noCursorTimeout(true)
                         .iterator();
 
-        // have a timer that notifies the collected items for every 5 seconds
-        Timer timer = new Timer(5000);
-        Runnable task = () -> {
-            collectAndNotify(observer, "Elapsed Timer");
-        };
-        timer.schedule(task);
-        while (cursor.hasNext()){
-            Document document = cursor.next();
-
-            // wait upon lock before adding
-            synchronized (lockObject) {
-                this.queue.add(document);
-                counter.addAndGet(1);
+        tailing = true;
+        WorkerPool batcher = new WorkerPool("migrator-oplog-batcher", 1);
+        Future<Void> batching = batcher.submit(() -> {
+            batcherThread = Thread.currentThread();
+            try {
+                collectAndNotify(observer);
+            } catch (RuntimeException e) {
+                logger.error("error while notifying the oplog entries; stopping the oplog tailing", e);
+                batcherError = e;
             }
-
-            if (this.queue.size() == BUFFER_SIZE) {
-                collectAndNotify(observer, "Buffered Reader");
-                // reset the timer for next notification as we just notified
-                timer.reset();
+            return null;
+        });
+        boolean failed = true;
+        try {
+            while (batcherError == null && cursor.hasNext()) {
+                RawBsonDocument document = cursor.next();
+                // waits while the ring buffer is full, holding back the next getMore
+                while (!ringBuffer.offer(document) && batcherError == null) {
+                    LockSupport.parkNanos(WAIT_NANOS);
+                }
+                if (batcherParked.compareAndSet(true, false)) {
+                    LockSupport.unpark(batcherThread);
+                }
             }
+            failed = false;
+        } finally {
+            // on a cursor error the batcher stops without notifying the entries left,
+            // so it never notifies the consumer after the error is thrown
+            stopped = failed;
+            tailing = false;
+            cursor.close();
+            awaitBatcher(batching);
+            batcher.shutdown();
+        }
+        if (batcherError != null) {
+            throw batcherError;
         }
     }
 
     /**
-     * Notifies the consumer about all the collected items
+     * Notifies the consumer about the entries read, in batches bounded by
+     * count, bytes and time. runs on the batcher thread until the tailing stops.
      *
      * @param observer the consumer listening to the published events
-     * @param invoker a string representing if invoker is timer based or counter based
      */
-    private void collectAndNotify(Observer<? super List<Document>> observer, String invoker) {
-        synchronized (lockObject) {
-            List<Document> documents = this.queue.stream().collect(Collectors.toList());
-            // notify only if there are documents in queue
-            if (documents != null && documents.size() > 0) {
-                this.queue.clear();
-                logger.info("collectAndNotify invoked by [{}] is notifying subscribers about [{}] documents. Total notified {}",
-                        invoker, documents.size(), this.counter.get());
-                observer.onNext(documents);
+    private void collectAndNotify(Observer<? super List<Document>> observer) {
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(MigratorSettings.OPLOG_FLUSH_INTERVAL_MILLIS);
+        List<Document> documents = new ArrayList<>(MigratorSettings.OPLOG_BATCH_MAX_DOCUMENTS);
+        long bytes = 0;
+        long oldestNanos = 0;
+
+        while (!stopped) {
+            RawBsonDocument raw = ringBuffer.poll();
+            if (raw != null) {
+                if (documents.isEmpty()) {
+                    oldestNanos = System.nanoTime();
+                }
+                documents.add(raw.decode(codec));
+                bytes += raw.getByteBuffer().remaining();
+                if (documents.size() >= MigratorSettings.OPLOG_BATCH_MAX_DOCUMENTS) {
+                    documents = notify(observer, documents, "Batch Size");
+                    bytes = 0;
+                }
+                else if (bytes >= MigratorSettings.OPLOG_BATCH_MAX_BYTES) {
+                    documents = notify(observer, documents, "Batch Bytes");
+                    bytes = 0;
+                }
+                continue;
             }
+
+            if (!tailing && ringBuffer.size() == 0) {
+                if (!documents.isEmpty()) {
+                    notify(observer, documents, "End Of Oplog");
+                }
+                return;
+            }
+            long waitNanos = flushIntervalNanos;
+            if (!documents.isEmpty()) {
+                waitNanos = flushIntervalNanos - (System.nanoTime() - oldestNanos);
+                if (waitNanos <= 0) {
+                    documents = notify(observer, documents, "Elapsed Time");
+                    bytes = 0;
+                    continue;
+                }
+            }
+            // the timeout bounds the wait for a batch due or a wake up that was missed
+            batcherParked.set(true);
+            if (tailing && ringBuffer.size() == 0) {
+                LockSupport.parkNanos(this, waitNanos);
+            }
+            batcherParked.set(false);
+        }
+    }
+
+    /**
+     * Wakes the batcher up and waits until it has notified the entries left, or stopped
+     *
+     * @param batching the future of the batcher
+     */
+    private void awaitBatcher(Future<Void> batching) {
+        Thread thread = batcherThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+        try {
+            batching.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // the batcher keeps its own error
+            logger.error("error while waiting for the oplog batcher", e);
         }
     }
 
+    /**
+     * Notifies the consumer about a batch
+     *
+     * @param observer the consumer listening to the published events
+     * @param documents the entries of the batch
+     * @param invoker a string representing the threshold that flushed the batch
+     * @return a new list for the next batch
+     */
+    private List<Document> notify(Observer<? super List<Document>> observer, List<Document> documents, String invoker) {
+        notifiedCount += documents.size();
+        logger.info("collectAndNotify invoked by [{}] is notifying subscribers about [{}] documents. Total notified {}",
+                invoker, documents.size(), notifiedCount);
+        observer.onNext(documents);
+        return new ArrayList<>(MigratorSettings.OPLOG_BATCH_MAX_DOCUMENTS);
+    }
 
     /**
      * Get's the filter for the find operation on oplog
@@ -0,0 +1,75 @@
+package com.mongodb.migratecluster.observables;
+
+import com.mongodb.MongoClient;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.FindIterable;
+import com.mongodb.migratecluster.model.BatchLimits;
+import com.mongodb.migratecluster.model.DocumentsBatch;
+import com.mongodb.migratecluster.model.ShardChunk;
+import com.mongodb.migratecluster.spill.SpillQueue;
+import com.mongodb.migratecluster.throttling.BatchSizeController;
+import com.mongodb.migratecluster.throttling.SourceThrottle;
+import io.reactivex.Observer;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * File: ShardChunkReader
+ * Description:
+ *
+ * this class helps you read a chunk of a sharded collection directly from
+ * the shard owning it, rather than through mongos. the cursor walks the
+ * shard key index between the chunk bounds, so orphaned documents left on
+ * the shard outside of the chunks it owns are never read.
+ */
+public class ShardChunkReader extends DocumentRangeReader {
+    private final static Logger logger = LoggerFactory.getLogger(ShardChunkReader.class);
+    private final ShardChunk chunk;
+
+    /**
+     * @param shardClient a MongoDB client object pointing to the shard owning the chunk
+     * @param readPreference the read preference of the documents read from the shard
+     * @param chunk the chunk of a collection that reader will process
+     * @param readFromDocumentId the tracking document of the chunk saved by a prior run; null if none
+     * @param throttler the controller of the batch limits and the batches in flight
+     * @param sourceThrottle the limits on the documents and bytes read per second from the source
+     * @param spillQueue the queue to spill the batches to while the writers are behind; null to wait for them
+     */
+    public ShardChunkReader(MongoClient shardClient, ReadPreference readPreference, ShardChunk chunk,
+                            Document readFromDocumentId, BatchSizeController throttler,
+                            SourceThrottle sourceThrottle, SpillQueue spillQueue) {
+        super(shardClient, readPreference, chunk, readFromDocumentId, throttler, sourceThrottle, spillQueue);
+        this.chunk = chunk;
+    }
+
+    /**
+     * @param observer
+     */
+    @Override
+    protected void subscribeActual(Observer<? super DocumentsBatch> observer) {
+        if (readFromDocumentId != null && readFromDocumentId.getBoolean("completed", false)) {
+            logger.info("chunk {} was already copied; skipping it", chunk);
+            observer.onComplete();
+            return;
+        }
+        super.subscribeActual(observer);
+    }
+
+    /**
+     * Get's the cursor over the documents of the chunk, in shard key order
+     *
+     * @param batchLimits the limits of the first batch
+     * @return an iterable of raw documents
+     */
+    @Override
+    protected FindIterable<RawBsonDocument> getIterable(BatchLimits batchLimits) {
+        return collection
+                .find()
+                .min(chunk.getMin())
+                .max(chunk.getMax())
+                .hint(chunk.getShardKey())
+                .batchSize(batchLimits.getMaxDocuments());
+    }
+}
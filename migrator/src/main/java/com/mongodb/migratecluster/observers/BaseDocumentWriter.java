@@ -3,7 +3,7 @@ package com.mongodb.migratecluster.observers;
 import com.mongodb.MongoClient;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
-import com.mongodb.client.model.CreateCollectionOptions;
+import com.mongodb.client.model.*;
 import org.bson.Document;
 
 import java.util.concurrent.ConcurrentHashMap;
@@ -58,18 +58,78 @@ public class BaseDocumentWriter {
         return collection;
     }
 
-    protected CreateCollectionOptions getCreateCollectionOptions(Document document) {
+    /**
+     * Get's the options to create a collection with, from the options reported by listCollections
+     *
+     * @param document the options of a collection on source
+     * @return the options to create the collection on target with
+     */
+    public CreateCollectionOptions getCreateCollectionOptions(Document document) {
         CreateCollectionOptions collectionOptions = new CreateCollectionOptions();
 
         if (document.containsKey("capped")) {
             collectionOptions.capped(document.getBoolean("capped"));
         }
         if (document.containsKey("maxDocuments")) {
-            collectionOptions.maxDocuments(document.getLong("maxDocuments"));
+            collectionOptions.maxDocuments(document.get("maxDocuments", Number.class).longValue());
+        }
+        if (document.containsKey("max")) {
+            collectionOptions.maxDocuments(document.get("max", Number.class).longValue());
         }
         if (document.containsKey("sizeInBytes")) {
-            collectionOptions.sizeInBytes(document.getLong("sizeInBytes"));
+            collectionOptions.sizeInBytes(document.get("sizeInBytes", Number.class).longValue());
+        }
+        if (document.containsKey("size")) {
+            collectionOptions.sizeInBytes(document.get("size", Number.class).longValue());
+        }
+        if (document.containsKey("collation")) {
+            collectionOptions.collation(getCollation(document.get("collation", Document.class)));
+        }
+        if (document.containsKey("validator")) {
+            ValidationOptions validationOptions = new ValidationOptions()
+                    .validator(document.get("validator", Document.class));
+            if (document.containsKey("validationLevel")) {
+                validationOptions.validationLevel(ValidationLevel.fromString(document.getString("validationLevel")));
+            }
+            if (document.containsKey("validationAction")) {
+                validationOptions.validationAction(ValidationAction.fromString(document.getString("validationAction")));
+            }
+            collectionOptions.validationOptions(validationOptions);
+        }
+        if (document.containsKey("storageEngine")) {
+            collectionOptions.storageEngineOptions(document.get("storageEngine", Document.class));
         }
         return collectionOptions;
     }
+
+    private Collation getCollation(Document document) {
+        Collation.Builder builder = Collation.builder()
+                .locale(document.getString("locale"));
+
+        if (document.containsKey("caseLevel")) {
+            builder.caseLevel(document.getBoolean("caseLevel"));
+        }
+        if (document.containsKey("caseFirst")) {
+            builder.collationCaseFirst(CollationCaseFirst.fromString(document.getString("caseFirst")));
+        }
+        if (document.containsKey("strength")) {
+            builder.collationStrength(CollationStrength.fromInt(document.get("strength", Number.class).intValue()));
+        }
+        if (document.containsKey("numericOrdering")) {
+            builder.numericOrdering(document.getBoolean("numericOrdering"));
+        }
+        if (document.containsKey("alternate")) {
+            builder.collationAlternate(CollationAlternate.fromString(document.getString("alternate")));
+        }
+        if (document.containsKey("maxVariable")) {
+            builder.collationMaxVariable(CollationMaxVariable.fromString(document.getString("maxVariable")));
+        }
+        if (document.containsKey("normalization")) {
+            builder.normalization(document.getBoolean("normalization"));
+        }
+        if (document.containsKey("backwards")) {
+            builder.backwards(document.getBoolean("backwards"));
+        }
+        return builder.build();
+    }
 }
@@ -0,0 +1,248 @@
+package com.mongodb.migratecluster.oplog;
+
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * File: OplogCompactor
+ * Description:
+ *
+ * A class to fold the crud oplog entries of a document between two
+ * barriers into fewer entries that leave the target in the same state.
+ * an insert followed by updates becomes a single insert, anything followed
+ * by a delete or an insert becomes that delete or insert, and consecutive
+ * $set / $unset updates are merged into one. an entry that can't be folded
+ * safely is kept as is, after the entries of the same document. a folded
+ * entry takes the position of the latest entry it replaces, so no write of a
+ * document is moved ahead of the entries of other documents before it.
+ */
+public class OplogCompactor {
+
+    private OplogCompactor() {
+    }
+
+    /**
+     * Folds the entries of each document
+     *
+     * @param operations the crud oplog entries between two barriers in oplog order, with their target namespace
+     * @return the folded entries; the entries of a document stay in oplog order
+     */
+    public static List<Document> compact(List<Document> operations) {
+        List<Document> compacted = new ArrayList<>(operations.size());
+        Map<DocumentKey, List<Integer>> entries = new HashMap<>();
+
+        for (Document operation : operations) {
+            Object id = OplogLanes.getDocumentId(operation);
+            if (id == null) {
+                compacted.add(operation);
+                continue;
+            }
+
+            DocumentKey key = new DocumentKey(operation.getString("ns"), id);
+            List<Integer> indexes = entries.computeIfAbsent(key, k -> new ArrayList<>());
+            String op = operation.getString("op");
+            if ("i".equals(op) || "d".equals(op)) {
+                // an insert or a delete makes all the earlier entries of the document moot
+                indexes.forEach(index -> compacted.set(index, null));
+                indexes.clear();
+            }
+            else if (!indexes.isEmpty()) {
+                int last = indexes.get(indexes.size() - 1);
+                Document folded = fold(compacted.get(last), operation);
+                if (folded != null) {
+                    compacted.set(last, null);
+                    indexes.set(indexes.size() - 1, compacted.size());
+                    compacted.add(folded);
+                    continue;
+                }
+            }
+            indexes.add(compacted.size());
+            compacted.add(operation);
+        }
+        compacted.removeIf(Objects::isNull);
+        return compacted;
+    }
+
+    /**
+     * Folds an entry into the previous entry of the same document
+     *
+     * @param previous the last entry kept for the document
+     * @param operation the next entry of the document
+     * @return the entry replacing both; null if they can't be folded
+     */
+    static Document fold(Document previous, Document operation) {
+        String previousOp = previous.getString("op");
+        switch (operation.getString("op")) {
+            case "u":
+                Document update = operation.get("o", Document.class);
+                if ("d".equals(previousOp)) {
+                    // an update of a deleted document; kept as is
+                    return null;
+                }
+                if (!isOperatorUpdate(update)) {
+                    return "i".equals(previousOp)
+                            ? withDocument(previous, withId(update, OplogLanes.getDocumentId(operation)))
+                            : operation;
+                }
+                if ("i".equals(previousOp) || !isOperatorUpdate(previous.get("o", Document.class))) {
+                    Document document = applyUpdate(previous.get("o", Document.class), update);
+                    return (document == null) ? null : withDocument(previous, document);
+                }
+                Document merged = mergeUpdates(previous.get("o", Document.class), update);
+                return (merged == null) ? null : withDocument(previous, merged);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @param update the o field of an update entry
+     * @return true if the update uses operators; false if it replaces the document
+     */
+    private static boolean isOperatorUpdate(Document update) {
+        return update.keySet().stream()
+                .filter(key -> !"$v".equals(key))
+                .anyMatch(key -> key.startsWith("$"));
+    }
+
+    /**
+     * Applies a $set / $unset update of top level fields on a whole document
+     *
+     * @param document the document of an insert or of a replacement
+     * @param update the o field of an update entry
+     * @return the updated document; null if the update uses other operators or paths
+     */
+    private static Document applyUpdate(Document document, Document update) {
+        Document result = new Document(document);
+        for (Map.Entry<String, Object> entry : update.entrySet()) {
+            String operator = entry.getKey();
+            if ("$v".equals(operator)) {
+                continue;
+            }
+            if (!("$set".equals(operator) || "$unset".equals(operator)) || !(entry.getValue() instanceof Document)) {
+                return null;
+            }
+            for (Map.Entry<String, Object> field : ((Document) entry.getValue()).entrySet()) {
+                if (field.getKey().contains(".") || "_id".equals(field.getKey())) {
+                    return null;
+                }
+                if ("$set".equals(operator)) {
+                    result.put(field.getKey(), field.getValue());
+                }
+                else {
+                    result.remove(field.getKey());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Merges two consecutive $set / $unset updates; the later value of a field wins
+     *
+     * @param previous the o field of the earlier update entry
+     * @param update the o field of the later update entry
+     * @return the merged update; null if either uses other operators or their paths overlap
+     */
+    private static Document mergeUpdates(Document previous, Document update) {
+        Document set = new Document();
+        Document unset = new Document();
+        if (!addFields(previous, set, unset) || !addFields(update, set, unset)) {
+            return null;
+        }
+
+        Document merged = new Document();
+        if (!set.isEmpty()) {
+            merged.append("$set", set);
+        }
+        if (!unset.isEmpty()) {
+            merged.append("$unset", unset);
+        }
+        return merged;
+    }
+
+    private static boolean addFields(Document update, Document set, Document unset) {
+        for (Map.Entry<String, Object> entry : update.entrySet()) {
+            String operator = entry.getKey();
+            if ("$v".equals(operator)) {
+                continue;
+            }
+            if (!("$set".equals(operator) || "$unset".equals(operator)) || !(entry.getValue() instanceof Document)) {
+                return false;
+            }
+            for (Map.Entry<String, Object> field : ((Document) entry.getValue()).entrySet()) {
+                String path = field.getKey();
+                if (hasConflictingPath(set, path) || hasConflictingPath(unset, path)) {
+                    return false;
+                }
+                set.remove(path);
+                unset.remove(path);
+                if ("$set".equals(operator)) {
+                    set.put(path, field.getValue());
+                }
+                else {
+                    unset.put(path, field.getValue());
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if a different path of the fields is a parent or a child of the path
+     */
+    private static boolean hasConflictingPath(Document fields, String path) {
+        return fields.keySet().stream()
+                .anyMatch(key -> !key.equals(path) && (key.startsWith(path + ".") || path.startsWith(key + ".")));
+    }
+
+    private static Document withDocument(Document previous, Document document) {
+        Document folded = new Document(previous);
+        folded.put("o", document);
+        return folded;
+    }
+
+    private static Document withId(Document document, Object id) {
+        if (document.containsKey("_id")) {
+            return document;
+        }
+        Document result = new Document("_id", id);
+        result.putAll(document);
+        return result;
+    }
+
+    /**
+     * the namespace and the _id of a document
+     */
+    private static class DocumentKey {
+        private final String namespace;
+        private final Object id;
+
+        private DocumentKey(String namespace, Object id) {
+            this.namespace = namespace;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof DocumentKey)) {
+                return false;
+            }
+            DocumentKey that = (DocumentKey) o;
+            return Objects.equals(namespace, that.namespace) && Objects.equals(id, that.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(namespace, id);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.mongodb.migratecluster.oplog;
 
 import com.mongodb.MongoClient;
+import com.mongodb.ReadPreference;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
 import com.mongodb.migratecluster.AppException;
@@ -29,12 +30,21 @@ public class OplogGapWatcher  extends Observable<OplogGap> {
 
     private final MongoClient oplogStoreClient;
     private final MongoClient sourceClient;
+    private final ReadPreference sourceReadPreference;
     private final String name;
 
     final static Logger logger = LoggerFactory.getLogger(OplogGapWatcher.class);
 
-    public OplogGapWatcher(MongoClient sourceClient, MongoClient oplogStoreClient, String name) {
+    /**
+     * @param sourceClient a MongoDB client object pointing to the source
+     * @param sourceReadPreference the read preference of the latest oplog entry read on source
+     * @param oplogStoreClient a MongoDB client object pointing to the oplog store
+     * @param name the name of the migrator whose oplog tracker is watched
+     */
+    public OplogGapWatcher(MongoClient sourceClient, ReadPreference sourceReadPreference,
+                           MongoClient oplogStoreClient, String name) {
         this.sourceClient = sourceClient;
+        this.sourceReadPreference = sourceReadPreference;
         this.oplogStoreClient = oplogStoreClient;
         this.name = name;
     }
@@ -54,11 +64,13 @@ public class OplogGapWatcher  extends Observable<OplogGap> {
         observable.subscribe(time -> {
                 BsonTimestamp sourceTimestamp = getLatestOplogTimestamp(
                         this.sourceClient,
+                        this.sourceReadPreference,
                         filter,
                         "local",
                         "oplog.rs");
                 BsonTimestamp oplogStoreTimestamp = getLatestOplogTimestamp(
                         this.oplogStoreClient,
+                        this.oplogStoreClient.getReadPreference(),
                         targetFilter,
                         "migrate-mongo",
                         "oplog.tracker");
@@ -88,10 +100,10 @@ public class OplogGapWatcher  extends Observable<OplogGap> {
         return new Document("$and", filters);
     }
 
-    public static BsonTimestamp getLatestOplogTimestamp(MongoClient client,
+    public static BsonTimestamp getLatestOplogTimestamp(MongoClient client, ReadPreference readPreference,
                     Document filter, String databaseName, String collectionName) throws AppException {
         MongoCollection<Document> collection = MongoDBHelper.getCollection(
-                client, databaseName, collectionName);
+                client, databaseName, collectionName).withReadPreference(readPreference);
 
         BsonTimestamp timestamp = MongoDBHelper.performOperationWithRetry(() -> {
             BsonTimestamp ts = null;
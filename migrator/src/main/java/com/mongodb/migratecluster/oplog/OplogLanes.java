@@ -0,0 +1,60 @@
+package com.mongodb.migratecluster.oplog;
+
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * File: OplogLanes
+ * Description:
+ *
+ * A class to split the crud oplog entries between the barriers of a batch
+ * into lanes that can be applied in parallel. an entry is hashed on its
+ * target namespace and document _id, so all the entries of a document land
+ * in the same lane in their oplog order.
+ */
+public class OplogLanes {
+
+    private OplogLanes() {
+    }
+
+    /**
+     * Splits the entries into lanes
+     *
+     * @param operations the crud oplog entries in oplog order, with their target namespace
+     * @param laneCount the number of lanes
+     * @return a list of lanes; each lane holds its entries in oplog order
+     */
+    public static List<List<Document>> partition(List<Document> operations, int laneCount) {
+        List<List<Document>> lanes = new ArrayList<>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            lanes.add(new ArrayList<>());
+        }
+        for (Document operation : operations) {
+            lanes.get(getLane(operation, laneCount)).add(operation);
+        }
+        return lanes;
+    }
+
+    /**
+     * @param operation a crud oplog entry
+     * @param laneCount the number of lanes
+     * @return the lane of the document the entry applies to
+     */
+    static int getLane(Document operation, int laneCount) {
+        int hash = 31 * Objects.hashCode(operation.getString("ns")) + Objects.hashCode(getDocumentId(operation));
+        return Math.floorMod(hash, laneCount);
+    }
+
+    /**
+     * @param operation a crud oplog entry
+     * @return the _id of the document the entry applies to; null if it has none
+     */
+    public static Object getDocumentId(Document operation) {
+        String key = "u".equals(operation.getString("op")) ? "o2" : "o";
+        Document document = operation.get(key, Document.class);
+        return (document == null) ? null : document.get("_id");
+    }
+}
@@ -0,0 +1,116 @@
+package com.mongodb.migratecluster.oplog;
+
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * File: OplogRun
+ * Description:
+ *
+ * A class representing a run of crud oplog entries of a namespace that
+ * can be applied as a single set-based write. a run holds consecutive
+ * entries of the same kind on distinct _ids: deletes by _id, inserts, or
+ * updates by _id with an identical update spec. every other entry is a
+ * run of its own.
+ */
+public class OplogRun {
+    public enum Kind {
+        DELETE,
+        INSERT,
+        UPDATE,
+        SINGLE
+    }
+
+    private final Kind kind;
+    private final List<Document> operations;
+    private final Set<Object> ids;
+
+    private OplogRun(Kind kind) {
+        this.kind = kind;
+        this.operations = new ArrayList<>();
+        this.ids = new HashSet<>();
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public List<Document> getOperations() {
+        return operations;
+    }
+
+    /**
+     * @return the _ids of the documents of the run, in oplog order
+     */
+    public List<Object> getIds() {
+        List<Object> documentIds = new ArrayList<>(operations.size());
+        operations.forEach(operation -> documentIds.add(OplogLanes.getDocumentId(operation)));
+        return documentIds;
+    }
+
+    /**
+     * Splits the entries into runs
+     *
+     * @param operations the crud oplog entries of a namespace in oplog order
+     * @param maxRunSize the maximum number of entries in a run
+     * @return the runs in oplog order
+     */
+    public static List<OplogRun> split(List<Document> operations, int maxRunSize) {
+        List<OplogRun> runs = new ArrayList<>();
+        OplogRun current = null;
+
+        for (Document operation : operations) {
+            Kind kind = getKind(operation);
+            Object id = OplogLanes.getDocumentId(operation);
+            if (current == null || !current.accepts(kind, operation, id, maxRunSize)) {
+                current = new OplogRun(kind);
+                runs.add(current);
+            }
+            current.operations.add(operation);
+            current.ids.add(id);
+        }
+        return runs;
+    }
+
+    private boolean accepts(Kind operationKind, Document operation, Object id, int maxRunSize) {
+        if (kind == Kind.SINGLE || operationKind != kind
+                || operations.size() >= maxRunSize || ids.contains(id)) {
+            return false;
+        }
+        // the updates of a run share the same spec
+        return kind != Kind.UPDATE
+                || operation.get("o", Document.class).equals(operations.get(0).get("o", Document.class));
+    }
+
+    /**
+     * @param operation a crud oplog entry
+     * @return the kind of run the entry can be part of
+     */
+    static Kind getKind(Document operation) {
+        if (OplogLanes.getDocumentId(operation) == null) {
+            return Kind.SINGLE;
+        }
+        switch (operation.getString("op")) {
+            case "i":
+                return Kind.INSERT;
+            case "d":
+                // a delete carrying a shard key is applied by its full filter
+                return isIdOnly(operation.get("o", Document.class)) ? Kind.DELETE : Kind.SINGLE;
+            case "u":
+                Document update = operation.get("o", Document.class);
+                boolean operatorUpdate = !update.isEmpty()
+                        && update.keySet().stream().allMatch(key -> key.startsWith("$"));
+                return (operatorUpdate && isIdOnly(operation.get("o2", Document.class))) ? Kind.UPDATE : Kind.SINGLE;
+            default:
+                return Kind.SINGLE;
+        }
+    }
+
+    private static boolean isIdOnly(Document filter) {
+        return filter != null && filter.size() == 1 && filter.containsKey("_id");
+    }
+}
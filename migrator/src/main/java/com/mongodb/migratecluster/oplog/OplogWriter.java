@@ -13,9 +13,13 @@ import com.mongodb.migratecluster.commandline.ResourceFilter;
 import com.mongodb.migratecluster.helpers.BulkWriteOutput;
 import com.mongodb.migratecluster.helpers.ModificationHelper;
 import com.mongodb.migratecluster.helpers.MongoDBHelper;
+import com.mongodb.migratecluster.migrators.MigratorSettings;
 import com.mongodb.migratecluster.model.Resource;
 import com.mongodb.migratecluster.predicates.CollectionFilterPredicate;
 import com.mongodb.migratecluster.predicates.DatabaseFilterPredicate;
+import com.mongodb.migratecluster.schedulers.WorkerPool;
+import com.mongodb.migratecluster.schema.IndexBuildRegistry;
+import com.mongodb.migratecluster.trackers.CheckpointService;
 import com.mongodb.migratecluster.trackers.OplogTimestampTracker;
 import com.mongodb.migratecluster.trackers.WritableDataTracker;
 import org.bson.Document;
@@ -24,9 +28,14 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * File: OplogWriter
@@ -44,11 +53,23 @@ public class OplogWriter {
     private final HashMap<String, Boolean> allowedNamespaces;
 
     final static Logger logger = LoggerFactory.getLogger(OplogWriter.class);
+    private final static int DUPLICATE_KEY_ERROR_CODE = 11000;
     private final DatabaseFilterPredicate databasePredicate;
     private final CollectionFilterPredicate collectionPredicate;
     private final ModificationHelper modificationHelper;
+    private final IndexBuildRegistry indexBuildRegistry;
+    private final CheckpointService checkpointService;
+    private final WritableDataTracker timestampTracker;
+    private final WorkerPool applierPool;
+    private final AtomicLong bulkWriteCount;
+    private final AtomicLong uniqueIndexConflictCount;
+    private final boolean compactOplog;
+    private final Set<String> emptyNamespaces;
+    private long appliedEntryCount;
+    private long appliedBulkWriteCount;
 
-    public OplogWriter(MongoClient targetClient, MongoClient oplogStoreClient, String reader, ApplicationOptions options) {
+    public OplogWriter(MongoClient targetClient, MongoClient oplogStoreClient, CheckpointService checkpointService,
+                       String reader, ApplicationOptions options) {
         this.targetClient = targetClient;
         this.oplogStoreClient = oplogStoreClient;
         this.reader = reader;
@@ -59,10 +80,21 @@ public class OplogWriter {
         databasePredicate = new DatabaseFilterPredicate(blacklistFilter);
         collectionPredicate = new CollectionFilterPredicate(blacklistFilter);
         modificationHelper = new ModificationHelper(options);
+        indexBuildRegistry = IndexBuildRegistry.getInstance();
+        this.checkpointService = checkpointService;
+        timestampTracker = new OplogTimestampTracker(oplogStoreClient, oplogTrackerResource, this.reader);
+        applierPool = new WorkerPool("migrator-oplog-lane", options.getOplogApplyLanes());
+        bulkWriteCount = new AtomicLong();
+        uniqueIndexConflictCount = new AtomicLong();
+        compactOplog = options.isCompactOplog();
+        emptyNamespaces = ConcurrentHashMap.newKeySet();
     }
 
     /**
-     * Applies the oplog documents on the oplog store
+     * Applies the oplog documents on the target. the crud entries between two
+     * commands are spread over the lanes and applied in parallel; a command
+     * waits for all the lanes and is applied on its own. the timestamp of the
+     * batch is saved only once every lane has applied its entries.
      *
      * @param operations a list of oplog operation documents
      * @throws AppException
@@ -70,64 +102,306 @@ public class OplogWriter {
     public int applyOperations(List<Document> operations) throws AppException {
         int totalModelsAdded = 0;
         int totalValidOperations = 0;
-        String previousNamespace = null;
-        Document previousDocument = null;
-        List<WriteModel<Document>> models = new ArrayList<>();
+        long bulkWritesBefore = bulkWriteCount.get();
+        Document lastDocument = null;
+        List<Document> crudOperations = new ArrayList<>();
 
-        for(int i = 0; i < operations.size(); i++) {
-            Document currentDocument = operations.get(i);
-            String currentNamespace = currentDocument.getString("ns");
+        for (Document currentDocument : operations) {
             // Check for blacklisted namespace in the original deployment
-            if (!isNamespaceAllowed(currentNamespace)) {
+            if (!isNamespaceAllowed(currentDocument.getString("ns"))) {
                 continue;
             }
+            lastDocument = currentDocument;
 
+            String op = currentDocument.getString("op");
+            if ("n".equals(op)) {
+                continue;
+            }
+            if ("c".equals(op)) {
+                // a command is a barrier; everything before it is applied first
+                List<Document> segment = compactIfEnabled(crudOperations);
+                totalValidOperations += segment.size();
+                totalModelsAdded += applySegment(crudOperations, segment);
+                crudOperations.clear();
+                performRunCommand(currentDocument);
+                continue;
+            }
             // modify namespace via namespacesRename
-            currentNamespace = modificationHelper.getMappedNamespace(currentDocument.getString("ns"));
-            if (!currentNamespace.equals(previousNamespace)) {
-                // change of namespace. bulk apply models for previous namespace
-                if (previousNamespace != null && models.size() > 0) {
-                    BulkWriteOutput output = applyBulkWriteModelsOnCollection(previousNamespace, models);
-                    if (operations.size() == output.getSuccessfulWritesCount()) {
-                        logger.debug("all the {} write operations for the {} batch were applied successfully", operations.size(), currentNamespace);
-                    }
-                    else {
-                        logger.error("[FATAL] the {} write operations for the {} batch were applied fully; output {}", operations.size(), currentDocument, output.toString());
-                    }
-                    totalModelsAdded += output.getSuccessfulWritesCount();
-                    models.clear();
-                    // save documents timestamp to oplog tracker
-                    saveTimestampToOplogStore(previousDocument);
+            currentDocument.put("ns", modificationHelper.getMappedNamespace(currentDocument.getString("ns")));
+            crudOperations.add(currentDocument);
+        }
+        List<Document> segment = compactIfEnabled(crudOperations);
+        totalValidOperations += segment.size();
+        totalModelsAdded += applySegment(crudOperations, segment);
+
+        if (totalModelsAdded != totalValidOperations) {
+            logger.warn("[FATAL] total models added {} is not equal to operations injected {}. grep the logs for BULK-WRITE-RETRY", totalModelsAdded, totalValidOperations);
+        }
+        logFanOut(totalValidOperations, bulkWriteCount.get() - bulkWritesBefore);
+        if (lastDocument != null) {
+            // save documents timestamp to oplog tracker
+            saveTimestampToOplogStore(lastDocument);
+        }
+        return totalModelsAdded;
+    }
+
+    /**
+     * Folds the entries of each document between two barriers, if the compaction is enabled
+     *
+     * @param operations crud oplog entries in oplog order, with their target namespace
+     * @return the entries to apply
+     */
+    private List<Document> compactIfEnabled(List<Document> operations) {
+        if (!compactOplog || operations.size() < 2) {
+            return operations;
+        }
+        List<Document> compacted = OplogCompactor.compact(operations);
+        if (compacted.size() < operations.size()) {
+            logger.debug("compacted {} oplog entries into {}", operations.size(), compacted.size());
+        }
+        return compacted;
+    }
+
+    /**
+     * @return the average number of oplog entries applied per bulk write since the writer started
+     */
+    public double getOpsPerRoundTrip() {
+        return (appliedBulkWriteCount == 0) ? 0 : (double) appliedEntryCount / appliedBulkWriteCount;
+    }
+
+    /**
+     * Logs the fan-out of a batch, i.e. the number of entries applied per bulk write
+     *
+     * @param entries the crud entries of the batch
+     * @param bulkWrites the bulk writes sent to the target for the batch
+     */
+    private void logFanOut(int entries, long bulkWrites) {
+        if (bulkWrites == 0) {
+            return;
+        }
+        appliedEntryCount += entries;
+        appliedBulkWriteCount += bulkWrites;
+        if (logger.isDebugEnabled()) {
+            logger.debug("applied {} oplog entries in {} bulk writes; {} ops per round trip ({} overall)",
+                    entries, bulkWrites,
+                    String.format("%.1f", (double) entries / bulkWrites),
+                    String.format("%.1f", getOpsPerRoundTrip()));
+        }
+    }
+
+    /**
+     * Applies the crud entries between two barriers. the lanes and the compaction
+     * change the order of the writes of different documents, so a unique
+     * secondary index may reject a write that is valid in oplog order. if any
+     * write was rejected so, the entries are applied again one by one in oplog
+     * order; they are idempotent, so the ones applied already can be applied again.
+     *
+     * @param operations crud oplog entries in oplog order, with their target namespace
+     * @param segment the entries to apply; the compacted entries if the compaction is enabled
+     * @return the number of entries of the segment applied
+     * @throws AppException when a write is still rejected by a unique index in oplog order
+     */
+    private int applySegment(List<Document> operations, List<Document> segment) throws AppException {
+        long conflictsBefore = uniqueIndexConflictCount.get();
+        int applied = applyOperationsInLanes(segment);
+        boolean reordered = applierPool.getSize() > 1 || segment.size() < operations.size();
+        if (!reordered || uniqueIndexConflictCount.get() == conflictsBefore) {
+            return applied;
+        }
+
+        logger.warn("[WARN] {} writes were rejected by a unique index after reordering; applying the {} oplog entries again in oplog order",
+                uniqueIndexConflictCount.get() - conflictsBefore, operations.size());
+        conflictsBefore = uniqueIndexConflictCount.get();
+        int reapplied = applyLane(operations);
+        if (uniqueIndexConflictCount.get() != conflictsBefore) {
+            throw new AppException(String.format("%d writes were rejected by a unique index even in oplog order",
+                    uniqueIndexConflictCount.get() - conflictsBefore));
+        }
+        // the entries that failed in oplog order are counted against the segment
+        return segment.size() - (operations.size() - reapplied);
+    }
+
+    /**
+     * Applies the crud entries on the lanes and waits for all of them
+     *
+     * @param operations crud oplog entries in oplog order, with their target namespace
+     * @return the number of entries applied
+     * @throws AppException when a lane failed to apply its entries
+     */
+    private int applyOperationsInLanes(List<Document> operations) throws AppException {
+        if (operations.isEmpty()) {
+            return 0;
+        }
+        if (applierPool.getSize() == 1) {
+            return applyLane(operations);
+        }
+
+        List<Future<Integer>> lanes = new ArrayList<>();
+        for (List<Document> lane : OplogLanes.partition(operations, applierPool.getSize())) {
+            if (!lane.isEmpty()) {
+                lanes.add(applierPool.submit(() -> applyLane(lane)));
+            }
+        }
+
+        int applied = 0;
+        AppException failure = null;
+        for (Future<Integer> lane : lanes) {
+            try {
+                applied += lane.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AppException("interrupted while waiting for the oplog lanes", e);
+            } catch (ExecutionException e) {
+                // the other lanes are still waited for, so no lane runs into the next batch
+                if (failure == null) {
+                    // the execution exception is wrapped as is, since a lane may also die with an Error
+                    failure = (e.getCause() instanceof AppException)
+                            ? (AppException) e.getCause()
+                            : new AppException("error while applying the oplog entries of a lane", e);
                 }
-                previousNamespace = currentNamespace;
-                previousDocument = currentDocument;
             }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return applied;
+    }
+
+    /**
+     * Applies the crud entries of a lane in one bulk write per namespace. the
+     * entries are regrouped by namespace, keeping their oplog order within
+     * each namespace, so interleaved writes to many collections don't turn
+     * into many tiny bulk writes. entries of different namespaces never touch
+     * the same document, so their relative order doesn't matter.
+     *
+     * @param operations crud oplog entries in oplog order, with their target namespace
+     * @return the number of entries applied
+     * @throws AppException
+     */
+    private int applyLane(List<Document> operations) throws AppException {
+        Map<String, List<Document>> operationsByNamespace = new LinkedHashMap<>();
+        for (Document currentDocument : operations) {
+            operationsByNamespace
+                    .computeIfAbsent(currentDocument.getString("ns"), ns -> new ArrayList<>())
+                    .add(currentDocument);
+        }
+
+        int applied = 0;
+        for (Map.Entry<String, List<Document>> entry : operationsByNamespace.entrySet()) {
+            applied += applyNamespaceOperations(entry.getKey(), entry.getValue());
+        }
+        return applied;
+    }
+
+    /**
+     * Applies the crud entries of a namespace. runs of deletes, inserts or
+     * identical updates on distinct _ids are sent as set-based writes; if the
+     * set-based bulk write fails, the entries are applied one model per entry.
+     *
+     * @param namespace the target namespace
+     * @param operations crud oplog entries of the namespace in oplog order
+     * @return the number of entries applied
+     * @throws AppException
+     */
+    private int applyNamespaceOperations(String namespace, List<Document> operations) throws AppException {
+        List<OplogRun> runs = OplogRun.split(operations, MigratorSettings.OPLOG_MAX_RUN_SIZE);
+        if (runs.size() == operations.size()) {
+            return applyModels(namespace, getWriteModels(operations));
+        }
+
+        List<WriteModel<Document>> models = new ArrayList<>();
+        for (OplogRun run : runs) {
+            models.addAll(getSetBasedWriteModels(namespace, run));
+        }
+
+        awaitIndexBuild(namespace);
+        MongoCollection<Document> collection = MongoDBHelper.getCollectionByNamespace(this.targetClient, namespace);
+        bulkWriteCount.incrementAndGet();
+        BulkWriteResult result = null;
+        String error = "retries exhausted";
+        try {
+            result = applyBulkWriteModelsOnCollection(collection, models);
+        }
+        catch (Exception e) {
+            error = e.toString();
+        }
+        if (result != null) {
+            logger.debug("applied the {} write operations for the {} batch in {} set-based writes", operations.size(), namespace, models.size());
+            return operations.size();
+        }
+
+        // the entries are idempotent, so the ones applied already can be applied again
+        logger.warn("[WARN] the {} set-based write operations for the {} batch failed; applying them one model per entry. error: {}", models.size(), namespace, error);
+        emptyNamespaces.remove(namespace);
+        return applyModels(namespace, getWriteModels(operations));
+    }
+
+    /**
+     * @param namespace the target namespace of the run
+     * @param run a run of crud oplog entries
+     * @return the models applying the run with as few writes as possible
+     * @throws AppException
+     */
+    private List<WriteModel<Document>> getSetBasedWriteModels(String namespace, OplogRun run) throws AppException {
+        List<Document> operations = run.getOperations();
+        if (operations.size() < 2) {
+            return getWriteModels(operations);
+        }
+
+        List<WriteModel<Document>> models = new ArrayList<>();
+        Document filter = new Document("_id", new Document("$in", run.getIds()));
+        switch (run.getKind()) {
+            case DELETE:
+                models.add(new DeleteManyModel<>(filter));
+                break;
+            case UPDATE:
+                Document update = new Document(operations.get(0).get("o", Document.class));
+                update.remove("$v");
+                models.add(new UpdateManyModel<>(filter, update));
+                break;
+            case INSERT:
+                if (!emptyNamespaces.contains(namespace)) {
+                    // the documents may exist already, i.e. copied by the readers
+                    return getWriteModels(operations);
+                }
+                // plain inserts are sent by the driver as one batched insert
+                for (Document operation : operations) {
+                    models.add(new InsertOneModel<>(operation.get("o", Document.class)));
+                }
+                break;
+            default:
+                return getWriteModels(operations);
+        }
+        return models;
+    }
+
+    private List<WriteModel<Document>> getWriteModels(List<Document> operations) throws AppException {
+        List<WriteModel<Document>> models = new ArrayList<>(operations.size());
+        for (Document currentDocument : operations) {
             WriteModel<Document> model = getWriteModelForOperation(currentDocument);
             if (model != null) {
                 models.add(model);
-                totalValidOperations++;
             }
             else {
-                // if the command is $cmd for create index or create collection, there would not be any write model.
                 logger.warn(String.format("ignoring oplog entry. could not convert the document to model. Given document is [%s]", currentDocument.toJson()));
             }
         }
+        return models;
+    }
 
-        if (models.size() > 0) {
-            BulkWriteOutput output = applyBulkWriteModelsOnCollection(previousNamespace, models);
-            if (output != null) {
-                totalModelsAdded += output.getSuccessfulWritesCount(); // bulkWriteResult.getUpserts().size();
-                // save documents timestamp to oplog tracker
-                saveTimestampToOplogStore(previousDocument);
-            }
+    private int applyModels(String namespace, List<WriteModel<Document>> models) throws AppException {
+        if (models.isEmpty()) {
+            return 0;
         }
-
-        // TODO: What happens if there is duplicate exception?
-        if (totalModelsAdded != totalValidOperations) {
-            logger.warn("[FATAL] total models added {} is not equal to operations injected {}. grep the logs for BULK-WRITE-RETRY", totalModelsAdded, operations.size());
+        bulkWriteCount.incrementAndGet();
+        BulkWriteOutput output = applyBulkWriteModelsOnCollection(namespace, models);
+        if (models.size() == output.getSuccessfulWritesCount()) {
+            logger.debug("all the {} write operations for the {} batch were applied successfully", models.size(), namespace);
         }
-
-        return totalModelsAdded;
+        else {
+            logger.error("[FATAL] the {} write operations for the {} batch were not applied fully; output {}", models.size(), namespace, output.toString());
+        }
+        return output.getSuccessfulWritesCount();
     }
 
     private boolean isNamespaceAllowed(String namespace) {
@@ -162,14 +436,20 @@ public class OplogWriter {
 
     private BulkWriteOutput applyBulkWriteModelsOnCollection(String namespace,
                                  List<WriteModel<Document>> operations)  throws AppException {
+        awaitIndexBuild(namespace);
         MongoCollection<Document> collection = MongoDBHelper.getCollectionByNamespace(this.targetClient, namespace);
         try{
             BulkWriteResult bulkWriteResult = applyBulkWriteModelsOnCollection(collection, operations);
+            if (bulkWriteResult == null) {
+                logger.warn("[WARN] the {} bulk write operations for the {} batch were not applied after retries. applying them one by one", operations.size(), namespace);
+                return applySoloBulkWriteModelsOnCollection(operations, collection);
+            }
             BulkWriteOutput output = new BulkWriteOutput(bulkWriteResult);
             return output;
         }
         catch (MongoBulkWriteException err) {
-            if (err.getWriteErrors().size() == operations.size()) {
+            if (err.getWriteErrors().size() == operations.size()
+                    && err.getWriteErrors().stream().allMatch(this::isIdDuplicateKeyError)) {
                 // every doc in this batch is error. just move on
                 logger.debug("[IGNORE] Ignoring all the {} write operations for the {} batch as they all failed with duplicate key exception. (already applied previously)", operations.size(), namespace);
                 return new BulkWriteOutput(0,0,0, 0, operations.size(), new ArrayList<>());
@@ -205,7 +485,13 @@ public class OplogWriter {
                 // no errors? keep going
             } catch (MongoBulkWriteException bwe) {
                 BulkWriteError we = bwe.getWriteErrors().get(0);
-                if (bwe.getMessage().contains("E11000 duplicate key error collection")) {
+                if (bwe.getMessage().contains("E11000 duplicate key error collection") && !isIdDuplicateKeyError(we)) {
+                    // another document holds the key; it may only be released by a write reordered after this one
+                    uniqueIndexConflictCount.incrementAndGet();
+                    logger.warn("[BULK-WRITE-RETRY CONFLICT] unique index conflict for solo op {} on collection: {}; details: {}; error: {}",
+                            op.toString(), collection.getNamespace().getFullName(), we.getDetails().toJson(), bwe.toString());
+                }
+                else if (bwe.getMessage().contains("E11000 duplicate key error collection")) {
                     logger.warn("[BULK-WRITE-RETRY IGNORE] ignoring duplicate key exception for solo op {} on collection: {}; details: {}; error: {}",
                             op.toString(), collection.getNamespace().getFullName(), we.getDetails().toJson(), bwe.toString());
                 }
@@ -226,6 +512,14 @@ public class OplogWriter {
         return output;
     }
 
+    /**
+     * @param error a write error of a bulk write
+     * @return true if the error is a duplicate key on the _id index, i.e. the document was written already
+     */
+    private boolean isIdDuplicateKeyError(BulkWriteError error) {
+        return error.getCode() == DUPLICATE_KEY_ERROR_CODE && error.getMessage().contains(" index: _id_ ");
+    }
+
     private BulkWriteResult applyBulkWriteModelsOnCollection(MongoCollection<Document> collection, List<WriteModel<Document>> operations) throws AppException {
         BulkWriteResult writeResult = MongoDBHelper.performOperationWithRetry(
                 () -> {
@@ -256,13 +550,6 @@ public class OplogWriter {
             case "d":
                 model = getDeleteWriteModel(operation);
                 break;
-            case "c":
-                // might have to be individual operation
-                performRunCommand(operation);
-                //TODO update the last timestamp on oplogStore?
-                break;
-            case "n":
-                break;
             default:
                 message = String.format("unsupported operation %s; op: %s", operation.getString("op"), operation.toJson());
                 logger.error(message);
@@ -291,9 +578,9 @@ public class OplogWriter {
           update.remove("$v");
         }
 
-        // if the update operation is not using $set then use replaceOne
+        // if the update operation is not using operators then use replaceOne
         Set<String> docKeys = update.keySet();
-        if (docKeys.size() == 1 && docKeys.iterator().next().startsWith("$"))
+        if (!docKeys.isEmpty() && docKeys.stream().allMatch(key -> key.startsWith("$")))
           return new UpdateOneModel<>(find, update);
         else
           return new ReplaceOneModel<>(find, update);
@@ -309,6 +596,12 @@ public class OplogWriter {
         Document document = operation.get("o", Document.class);
         String databaseName = operation.getString("ns").replace(".$cmd", "");
 
+        // a command on a collection, such as a drop, waits for the index builds on it
+        Object commandTarget = document.isEmpty() ? null : document.values().iterator().next();
+        if (commandTarget instanceof String) {
+            awaitIndexBuild(databaseName + "." + commandTarget);
+        }
+
         logger.debug("performRunCommand: {}", databaseName);
         logger.debug("performRunCommand, modified operation: {}", operation);
         MongoDatabase database = MongoDBHelper.getDatabase(this.targetClient, databaseName);
@@ -317,10 +610,31 @@ public class OplogWriter {
             return 1L;
         }, operation);
 
+        trackEmptyNamespaces(databaseName, document);
         String message = String.format("completed runCommand op on database: %s; document: %s", databaseName, operation.toJson());
         logger.debug(message);
     }
 
+    /**
+     * Keeps track of the collections this writer created or dropped; their
+     * documents can only come from the oplog, so inserts into them need no upsert.
+     *
+     * @param databaseName the target database of the command
+     * @param command the command applied on the target
+     */
+    private void trackEmptyNamespaces(String databaseName, Document command) {
+        if (command.get("create") instanceof String) {
+            emptyNamespaces.add(databaseName + "." + command.getString("create"));
+        }
+        else if (command.get("drop") instanceof String) {
+            emptyNamespaces.add(databaseName + "." + command.getString("drop"));
+        }
+        else if (command.get("renameCollection") instanceof String && command.get("to") instanceof String) {
+            emptyNamespaces.remove(command.getString("renameCollection"));
+            emptyNamespaces.remove(command.getString("to"));
+        }
+    }
+
     private Document getMappedOperation(Document operation) {
         Document document = operation.get("o", Document.class);
         if (!document.containsKey("create") &&
@@ -355,13 +669,27 @@ public class OplogWriter {
         }
     }
 
+    /**
+     * Blocks until the deferred index builds on the given target namespace are done
+     *
+     * @param namespace a target namespace
+     * @throws AppException
+     */
+    private void awaitIndexBuild(String namespace) throws AppException {
+        try {
+            indexBuildRegistry.awaitIndexBuild(namespace);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AppException(String.format("interrupted while waiting for index builds on %s", namespace), e);
+        }
+    }
+
     /**
      * Save's a document as the lastest oplog timestamp on oplog store
      *
      * @param document a document representing the fields that need to be set
      */
     protected void saveTimestampToOplogStore(Document document) {
-        WritableDataTracker tracker = new OplogTimestampTracker(oplogStoreClient, oplogTrackerResource, this.reader);
-        tracker.updateLatestDocument(document);
+        checkpointService.checkpoint(timestampTracker, document);
     }
 }
@@ -0,0 +1,174 @@
+package com.mongodb.migratecluster.progress;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * File: CollectionProgress
+ * Description:
+ *
+ * A class holding the copy progress of a collection. the writers only add
+ * to striped counters; the throughput is computed over a sliding window of
+ * samples taken by the progress monitor, so the hot path never takes a lock.
+ */
+public class CollectionProgress {
+    private final String namespace;
+    private final long estimatedDocuments;
+    private final long estimatedBytes;
+    private final LongAdder documents;
+    private final LongAdder bytes;
+    private final LongAdder batchesRead;
+    private final LongAdder batchesWritten;
+    private final LongAdder batchesFailed;
+    private final ArrayDeque<long[]> samples;
+    private final AtomicInteger pendingPartitions;
+    private volatile boolean completed;
+
+    /**
+     * @param namespace the namespace of the source collection
+     * @param estimatedDocuments the number of documents in the collection at discovery
+     * @param estimatedBytes the uncompressed size of the collection at discovery
+     */
+    public CollectionProgress(String namespace, long estimatedDocuments, long estimatedBytes) {
+        this.namespace = namespace;
+        this.estimatedDocuments = estimatedDocuments;
+        this.estimatedBytes = estimatedBytes;
+        this.documents = new LongAdder();
+        this.bytes = new LongAdder();
+        this.batchesRead = new LongAdder();
+        this.batchesWritten = new LongAdder();
+        this.batchesFailed = new LongAdder();
+        this.samples = new ArrayDeque<>();
+        this.pendingPartitions = new AtomicInteger(0);
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public long getEstimatedDocuments() {
+        return estimatedDocuments;
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * Records a batch handed over to the writers
+     */
+    public void onBatchRead() {
+        batchesRead.increment();
+    }
+
+    /**
+     * Records a batch written to the target
+     *
+     * @param documentCount the number of documents in the batch
+     * @param byteCount the bson size of the batch
+     */
+    public void onBatchWritten(int documentCount, long byteCount) {
+        documents.add(documentCount);
+        bytes.add(byteCount);
+        batchesWritten.increment();
+    }
+
+    /**
+     * Records a batch that could not be written to the target
+     */
+    public void onBatchFailed() {
+        batchesFailed.increment();
+    }
+
+    /**
+     * Records the partitions of the collection that are yet to be copied;
+     * a collection registered without any partition has nothing to copy and is completed
+     *
+     * @param count the number of partitions discovered or split off
+     */
+    public void addPartitions(int count) {
+        if (pendingPartitions.addAndGet(count) <= 0) {
+            completed = true;
+        }
+    }
+
+    /**
+     * Records a copied partition; the collection is completed with its last partition
+     */
+    public void onPartitionCompleted() {
+        if (pendingPartitions.decrementAndGet() <= 0) {
+            completed = true;
+        }
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public long getDocuments() {
+        return documents.sum();
+    }
+
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    /**
+     * @return the number of batches read but neither written nor failed yet
+     */
+    public long getBatchesInFlight() {
+        return Math.max(0, batchesRead.sum() - batchesWritten.sum() - batchesFailed.sum());
+    }
+
+    /**
+     * Takes a sample of the counters and drops the samples older than the window
+     *
+     * @param nowMillis the time of the sample
+     * @param windowMillis the length of the sliding window
+     */
+    synchronized void sample(long nowMillis, long windowMillis) {
+        samples.addLast(new long[] { nowMillis, getDocuments(), getBytes() });
+        while (samples.size() > 2 && samples.peekFirst()[0] < nowMillis - windowMillis) {
+            samples.removeFirst();
+        }
+    }
+
+    /**
+     * @return the documents written per second over the sliding window
+     */
+    synchronized double getDocumentsPerSecond() {
+        return getRate(1);
+    }
+
+    /**
+     * @return the bytes written per second over the sliding window
+     */
+    synchronized double getBytesPerSecond() {
+        return getRate(2);
+    }
+
+    /**
+     * @return the seconds left to copy the rest of the estimated documents; -1 if unknown
+     */
+    long getEtaSeconds() {
+        double rate = getDocumentsPerSecond();
+        if (completed) {
+            return 0;
+        }
+        if (rate <= 0) {
+            return -1;
+        }
+        return (long) (Math.max(0, estimatedDocuments - getDocuments()) / rate);
+    }
+
+    private double getRate(int field) {
+        if (samples.size() < 2) {
+            return 0;
+        }
+        long[] first = samples.peekFirst();
+        long[] last = samples.peekLast();
+        long elapsedMillis = last[0] - first[0];
+        return elapsedMillis <= 0 ? 0 : (last[field] - first[field]) * 1000.0 / elapsedMillis;
+    }
+}
@@ -0,0 +1,163 @@
+package com.mongodb.migratecluster.progress;
+
+import com.mongodb.MongoClient;
+import com.mongodb.MongoException;
+import com.mongodb.migratecluster.helpers.MongoDBHelper;
+import com.mongodb.migratecluster.migrators.MigratorSettings;
+import com.mongodb.migratecluster.model.Resource;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * File: ProgressMonitor
+ * Description:
+ *
+ * A class to report the progress of the copy. the size of each collection
+ * is estimated at discovery, and a compact summary of the documents copied,
+ * the throughput over a sliding window and the ETA of each collection in
+ * progress and of the whole copy is logged on an interval.
+ */
+public class ProgressMonitor {
+    private final static Logger logger = LoggerFactory.getLogger(ProgressMonitor.class);
+
+    private final ConcurrentHashMap<String, CollectionProgress> collections;
+    private ScheduledExecutorService reporter;
+    private long lastReportMillis;
+
+    public ProgressMonitor() {
+        this.collections = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Estimates the size of the collection, once per namespace
+     *
+     * @param sourceClient a MongoDB client object pointing to the source
+     * @param resource a collection in a database
+     * @return the progress of the collection
+     */
+    public CollectionProgress register(MongoClient sourceClient, Resource resource) {
+        return collections.computeIfAbsent(resource.getNamespace(), namespace -> {
+            long documents = 0;
+            long bytes = 0;
+            try {
+                documents = MongoDBHelper.getCollection(sourceClient, resource.getDatabase(), resource.getCollection())
+                        .estimatedDocumentCount();
+                Document stats = MongoDBHelper.getDatabase(sourceClient, resource.getDatabase())
+                        .runCommand(new Document("collStats", resource.getCollection()));
+                bytes = ((Number) stats.get("size", 0)).longValue();
+            } catch (MongoException e) {
+                logger.warn("could not estimate the size of collection {}. Error {}", namespace, e.getMessage());
+            }
+            return new CollectionProgress(namespace, documents, bytes);
+        });
+    }
+
+    /**
+     * @param resource a collection in a database or a range of it
+     * @return the progress of the collection of the resource
+     */
+    public CollectionProgress get(Resource resource) {
+        return collections.computeIfAbsent(resource.getNamespace(), namespace -> new CollectionProgress(namespace, 0, 0));
+    }
+
+    /**
+     * Starts logging the summary on an interval
+     */
+    public void start() {
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "migrator-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(this::report,
+                MigratorSettings.PROGRESS_SAMPLE_INTERVAL_MILLIS,
+                MigratorSettings.PROGRESS_SAMPLE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the interval and logs the final summary
+     */
+    public void stop() {
+        if (reporter != null) {
+            reporter.shutdown();
+        }
+        logger.info(getSummary(false));
+    }
+
+    private void report() {
+        try {
+            long now = System.currentTimeMillis();
+            for (CollectionProgress progress : collections.values()) {
+                progress.sample(now, MigratorSettings.PROGRESS_WINDOW_MILLIS);
+            }
+            if (now - lastReportMillis >= MigratorSettings.PROGRESS_REPORT_INTERVAL_MILLIS) {
+                lastReportMillis = now;
+                logger.info(getSummary(true));
+            }
+        } catch (Exception e) {
+            logger.error("error while reporting the progress", e);
+        }
+    }
+
+    /**
+     * @param withCollections true to add a line for each collection in progress
+     * @return a compact summary of the copy progress
+     */
+    String getSummary(boolean withCollections) {
+        long documents = 0, estimatedDocuments = 0, bytes = 0, inFlight = 0, remaining = 0;
+        double documentsPerSecond = 0, bytesPerSecond = 0;
+        int completed = 0;
+        List<String> lines = new ArrayList<>();
+        for (CollectionProgress progress : collections.values()) {
+            documents += progress.getDocuments();
+            estimatedDocuments += progress.getEstimatedDocuments();
+            bytes += progress.getBytes();
+            inFlight += progress.getBatchesInFlight();
+            documentsPerSecond += progress.getDocumentsPerSecond();
+            bytesPerSecond += progress.getBytesPerSecond();
+            if (progress.isCompleted()) {
+                completed++;
+                continue;
+            }
+            remaining += Math.max(0, progress.getEstimatedDocuments() - progress.getDocuments());
+            if (withCollections && (progress.getDocuments() > 0 || progress.getBatchesInFlight() > 0)) {
+                lines.add(String.format("%n  %s: %d/%d documents (%s), %.0f docs/s, %d batches in flight, eta %s",
+                        progress.getNamespace(), progress.getDocuments(), progress.getEstimatedDocuments(),
+                        getPercentage(progress.getDocuments(), progress.getEstimatedDocuments()),
+                        progress.getDocumentsPerSecond(), progress.getBatchesInFlight(),
+                        getDuration(progress.getEtaSeconds())));
+            }
+        }
+
+        long etaSeconds = documentsPerSecond > 0 ? (long) (remaining / documentsPerSecond) : -1;
+        StringBuilder summary = new StringBuilder(String.format(
+                "copy progress: %d/%d collections done, %d/%d documents (%s), %d MB; %.0f docs/s, %.1f MB/s; " +
+                        "%d batches in flight; eta %s",
+                completed, collections.size(), documents, estimatedDocuments,
+                getPercentage(documents, estimatedDocuments), bytes / (1024 * 1024),
+                documentsPerSecond, bytesPerSecond / (1024 * 1024), inFlight,
+                getDuration(completed == collections.size() ? 0 : etaSeconds)));
+        lines.forEach(summary::append);
+        return summary.toString();
+    }
+
+    private static String getPercentage(long value, long total) {
+        // the estimate is taken at discovery; the collection may have grown since
+        return total <= 0 ? "n/a" : String.format("%.1f%%", Math.min(100.0, value * 100.0 / total));
+    }
+
+    private static String getDuration(long seconds) {
+        if (seconds < 0) {
+            return "n/a";
+        }
+        return String.format("%d:%02d:%02d", seconds / 3600, (seconds / 60) % 60, seconds % 60);
+    }
+}
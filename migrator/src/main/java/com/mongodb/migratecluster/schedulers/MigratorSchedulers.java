@@ -0,0 +1,83 @@
+package com.mongodb.migratecluster.schedulers;
+
+import com.mongodb.migratecluster.commandline.ApplicationOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * File: MigratorSchedulers
+ * Description:
+ *
+ * A class holding the bounded worker pools used while copying the data.
+ * discovery of the collections, reads on the source and writes on the
+ * target run on separate pools so that none of them can starve the others
+ * and the number of threads and connections stays fixed.
+ */
+public class MigratorSchedulers {
+    private final static Logger logger = LoggerFactory.getLogger(MigratorSchedulers.class);
+    private static final long REPORT_INTERVAL_SECONDS = 60;
+
+    private final WorkerPool discoveryPool;
+    private final WorkerPool readerPool;
+    private final WorkerPool writerPool;
+    private final ScheduledExecutorService reporter;
+
+    /**
+     * @param options the application options holding the size of each pool
+     */
+    public MigratorSchedulers(ApplicationOptions options) {
+        discoveryPool = new WorkerPool("migrator-discovery", options.getDiscoveryPoolSize());
+        readerPool = new WorkerPool("migrator-reader", options.getReaderPoolSize());
+        writerPool = new WorkerPool("migrator-writer", options.getWriterPoolSize());
+
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "migrator-pools-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> logger.info("worker pools utilisation: {}", this.getUtilisation()),
+                REPORT_INTERVAL_SECONDS, REPORT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return the pool used to list and prepare the collections
+     */
+    public WorkerPool getDiscoveryPool() {
+        return discoveryPool;
+    }
+
+    /**
+     * @return the pool used to read the documents from source
+     */
+    public WorkerPool getReaderPool() {
+        return readerPool;
+    }
+
+    /**
+     * @return the pool used to write the documents on target
+     */
+    public WorkerPool getWriterPool() {
+        return writerPool;
+    }
+
+    /**
+     * @return a string representation of the current utilisation of all the pools
+     */
+    public String getUtilisation() {
+        return String.format("[ %s, %s, %s ]", discoveryPool, readerPool, writerPool);
+    }
+
+    /**
+     * Stops all the pools and the utilisation reporter
+     */
+    public void shutdown() {
+        reporter.shutdownNow();
+        discoveryPool.shutdown();
+        readerPool.shutdown();
+        writerPool.shutdown();
+    }
+}
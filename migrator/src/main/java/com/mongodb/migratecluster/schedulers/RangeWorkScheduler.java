@@ -0,0 +1,189 @@
+package com.mongodb.migratecluster.schedulers;
+
+import com.mongodb.migratecluster.AppException;
+import com.mongodb.migratecluster.migrators.MigratorSettings;
+import com.mongodb.migratecluster.model.ResourcePartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * File: RangeWorkScheduler
+ * Description:
+ *
+ * A class that copies the partitions of all the collections on a fixed set of
+ * workers. a worker picks the next pending partition, and once there are none
+ * left it steals work by splitting the unread tail of a partition that another
+ * worker is still copying. so the end of the copy is no longer decided by the
+ * largest collection being copied by a single worker.
+ */
+public class RangeWorkScheduler {
+    private final static Logger logger = LoggerFactory.getLogger(RangeWorkScheduler.class);
+
+    private final WorkerPool pool;
+    private final Consumer<ResourcePartition> copier;
+    private final Function<ResourcePartition, ResourcePartition> splitter;
+    private final LinkedBlockingQueue<ResourcePartition> pending;
+    private final Set<ResourcePartition> inFlight;
+    private final CountDownLatch workersDone;
+    private final AtomicLong stolenCount;
+    private final Object stealLock = new Object();
+    private volatile boolean submissionsComplete;
+    private volatile Exception failure;
+
+    /**
+     * @param pool the worker pool on which the partitions are copied; one worker per thread
+     * @param copier copies a partition from source to target, blocking until it is done
+     * @param splitter splits the unread tail off a partition being copied; returns null if it can't be split
+     */
+    public RangeWorkScheduler(WorkerPool pool,
+                              Consumer<ResourcePartition> copier,
+                              Function<ResourcePartition, ResourcePartition> splitter) {
+        this.pool = pool;
+        this.copier = copier;
+        this.splitter = splitter;
+        this.pending = new LinkedBlockingQueue<>();
+        this.inFlight = ConcurrentHashMap.newKeySet();
+        this.workersDone = new CountDownLatch(pool.getSize());
+        this.stolenCount = new AtomicLong();
+    }
+
+    /**
+     * Starts a worker on every thread of the pool
+     */
+    public void start() {
+        for (int i = 0; i < pool.getSize(); i++) {
+            pool.getScheduler().scheduleDirect(this::runWorker);
+        }
+    }
+
+    /**
+     * Adds a partition to be copied by the next idle worker
+     *
+     * @param partition a partition of a collection
+     */
+    public void submit(ResourcePartition partition) {
+        pending.add(partition);
+    }
+
+    /**
+     * Tells the workers no more partitions will be submitted, so they can
+     * stop once all the pending and in flight partitions are copied
+     */
+    public void completeSubmissions() {
+        submissionsComplete = true;
+    }
+
+    /**
+     * Waits for all the workers to finish
+     *
+     * @throws AppException if copying any of the partitions failed
+     */
+    public void awaitCompletion() throws AppException {
+        try {
+            workersDone.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AppException("interrupted while waiting for the range workers", e);
+        }
+        logger.info("range workers completed. {} ranges were stolen from in flight partitions", stolenCount.get());
+        if (failure != null) {
+            throw new AppException("error while copying the partitions", failure);
+        }
+    }
+
+    private void runWorker() {
+        try {
+            ResourcePartition partition;
+            while ((partition = getNextPartition()) != null) {
+                copyPartition(partition);
+            }
+        } catch (InterruptedException e) {
+            logger.error("range worker was interrupted", e);
+            Thread.currentThread().interrupt();
+        } finally {
+            workersDone.countDown();
+        }
+    }
+
+    /**
+     * Get's the partition the worker should copy next. pending partitions come
+     * first, then a range stolen from a partition in flight.
+     *
+     * @return a partition to copy; null once there is nothing left to copy
+     * @throws InterruptedException
+     */
+    private ResourcePartition getNextPartition() throws InterruptedException {
+        while (true) {
+            ResourcePartition partition = pending.poll();
+            if (partition != null) {
+                return partition;
+            }
+
+            partition = steal();
+            if (partition != null) {
+                return partition;
+            }
+
+            if (submissionsComplete && pending.isEmpty() && inFlight.isEmpty()) {
+                return null;
+            }
+
+            partition = pending.poll(MigratorSettings.STEAL_RETRY_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            if (partition != null) {
+                return partition;
+            }
+        }
+    }
+
+    /**
+     * Splits the tail off one of the partitions in flight. only one worker steals
+     * at a time so that two thieves never split the same partition concurrently.
+     *
+     * @return the stolen range; null if none of the partitions could be split
+     */
+    private ResourcePartition steal() {
+        synchronized (stealLock) {
+            for (ResourcePartition victim : inFlight) {
+                ResourcePartition stolen = splitter.apply(victim);
+                if (stolen != null) {
+                    // the stolen range is in flight before the lock is released
+                    inFlight.add(stolen);
+                    stolenCount.incrementAndGet();
+                    logger.info("stole range {} from partition {}", stolen, victim);
+                    return stolen;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void copyPartition(ResourcePartition partition) {
+        inFlight.add(partition);
+        try {
+            copier.accept(partition);
+        } catch (Exception e) {
+            logger.error("error while copying partition {}", partition, e);
+            failure = e;
+        } finally {
+            inFlight.remove(partition);
+        }
+    }
+
+    /**
+     * @return a string representation of the scheduler state
+     */
+    @Override
+    public String toString() {
+        return String.format("{ workers: %d, pending: %d, inFlight: %d, stolen: %d }",
+                pool.getSize(), pending.size(), inFlight.size(), stolenCount.get());
+    }
+}
@@ -0,0 +1,112 @@
+package com.mongodb.migratecluster.schedulers;
+
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * File: WorkerPool
+ * Description:
+ *
+ * A class representing a bounded pool of named daemon threads. work
+ * submitted beyond the pool size waits in the queue of the pool
+ * instead of creating new threads.
+ */
+public class WorkerPool {
+    private final String name;
+    private final int size;
+    private final ThreadPoolExecutor executor;
+    private final Scheduler scheduler;
+
+    /**
+     * @param name a string used as the prefix of the thread names
+     * @param size the maximum number of threads in the pool
+     */
+    public WorkerPool(String name, int size) {
+        this.name = name;
+        this.size = Math.max(1, size);
+        this.executor = new ThreadPoolExecutor(this.size, this.size,
+                60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                getThreadFactory(name));
+        this.executor.allowCoreThreadTimeOut(true);
+        this.scheduler = Schedulers.from(executor);
+    }
+
+    /**
+     * @return the name of the pool
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the maximum number of threads in the pool
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return the rx scheduler running its work on this pool
+     */
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * @return the number of threads that are currently running work
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * @return the number of tasks waiting for a free thread
+     */
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Submits a task to the pool
+     *
+     * @param task the work to run on a thread of the pool
+     * @return a future of the result of the task
+     */
+    public <T> Future<T> submit(Callable<T> task) {
+        return executor.submit(task);
+    }
+
+    /**
+     * Stops accepting new work and lets the running work finish
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static ThreadFactory getThreadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger(0);
+        return runnable -> {
+            Thread thread = new Thread(runnable, String.format("%s-%d", name, counter.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * @return a string representation of the current utilisation of the pool
+     */
+    @Override
+    public String toString() {
+        return String.format("{ pool: \"%s\", active: %d, size: %d, queued: %d, completed: %d }",
+                name, getActiveCount(), size, getQueuedCount(), executor.getCompletedTaskCount());
+    }
+}
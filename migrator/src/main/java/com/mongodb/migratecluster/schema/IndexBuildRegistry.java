@@ -0,0 +1,84 @@
+package com.mongodb.migratecluster.schema;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * File: IndexBuildRegistry
+ * Description:
+ *
+ * A registry of the index builds deferred until after the data copy, keyed
+ * by the target namespace. the oplog writer waits on the registry so that no
+ * oplog entry is applied on a namespace while its indexes are being built.
+ */
+public class IndexBuildRegistry {
+    private final static Logger logger = LoggerFactory.getLogger(IndexBuildRegistry.class);
+    private static final IndexBuildRegistry instance = new IndexBuildRegistry();
+
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> builds;
+
+    public static IndexBuildRegistry getInstance() {
+        return instance;
+    }
+
+    public IndexBuildRegistry() {
+        this.builds = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Registers a pending index build on the given namespace
+     *
+     * @param namespace the target namespace the indexes are built on
+     * @return a future to be completed once the indexes are built
+     */
+    public CompletableFuture<Void> register(String namespace) {
+        return builds.computeIfAbsent(namespace, k -> new CompletableFuture<>());
+    }
+
+    /**
+     * Checks if the indexes of the given namespace are still being built
+     *
+     * @param namespace a target namespace
+     * @return true if an index build was registered and has not completed yet
+     */
+    public boolean isBuildPending(String namespace) {
+        CompletableFuture<Void> build = builds.get(namespace);
+        return build != null && !build.isDone();
+    }
+
+    /**
+     * Blocks until the indexes of the given namespace are built
+     *
+     * @param namespace a target namespace
+     * @throws InterruptedException
+     */
+    public void awaitIndexBuild(String namespace) throws InterruptedException {
+        CompletableFuture<Void> build = builds.get(namespace);
+        if (build == null || build.isDone()) {
+            return;
+        }
+
+        logger.info("waiting for the index builds on {} to complete", namespace);
+        try {
+            build.get();
+        } catch (ExecutionException e) {
+            // the failure was already reported by the builder; the writes can go ahead
+            logger.warn("index builds on {} failed; continuing. Error {}", namespace, e.getMessage());
+        }
+    }
+
+    /**
+     * Blocks until all the registered index builds are done
+     *
+     * @throws InterruptedException
+     */
+    public void awaitAll() throws InterruptedException {
+        for (String namespace : builds.keySet()) {
+            awaitIndexBuild(namespace);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.mongodb.migratecluster.schema;
+
+import com.mongodb.MongoClient;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.migratecluster.AppException;
+import com.mongodb.migratecluster.commandline.ApplicationOptions;
+import com.mongodb.migratecluster.helpers.ModificationHelper;
+import com.mongodb.migratecluster.helpers.MongoDBHelper;
+import com.mongodb.migratecluster.model.Resource;
+import com.mongodb.migratecluster.observers.BaseDocumentWriter;
+import com.mongodb.migratecluster.schedulers.WorkerPool;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * File: SchemaMaterializer
+ * Description:
+ *
+ * A class to help create the target collections with the options of the
+ * source collections before their data is copied. the secondary indexes
+ * are read from source up front, but built only after the data copy is
+ * done, so the documents are loaded into collections with just the _id
+ * index. the builds of different collections run in parallel.
+ */
+public class SchemaMaterializer {
+    private final static Logger logger = LoggerFactory.getLogger(SchemaMaterializer.class);
+    private static final String ID_INDEX_NAME = "_id_";
+
+    private final ModificationHelper modificationHelper;
+    private final IndexBuildRegistry registry;
+    private final ConcurrentHashMap<Resource, List<Document>> pendingIndexes;
+    private final int indexBuildPoolSize;
+
+    /**
+     * @param options the application options holding the size of the index build pool
+     * @param modificationHelper the helper mapping the source namespaces to the target ones
+     */
+    public SchemaMaterializer(ApplicationOptions options, ModificationHelper modificationHelper) {
+        this.modificationHelper = modificationHelper;
+        this.registry = IndexBuildRegistry.getInstance();
+        this.pendingIndexes = new ConcurrentHashMap<>();
+        this.indexBuildPoolSize = options.getIndexBuildPoolSize();
+    }
+
+    /**
+     * Creates the target collection with the source collection options, and defers
+     * the build of the source secondary indexes until {@link #buildIndexes} is called.
+     *
+     * @param sourceClient a MongoDB client object pointing to the source
+     * @param targetClient a MongoDB client object pointing to the target
+     * @param resource a collection in a database on source
+     */
+    public void materialize(MongoClient sourceClient, MongoClient targetClient, Resource resource) {
+        Document collectionOptions = resource.getCollectionOptions();
+        if (collectionOptions != null && collectionOptions.containsKey("viewOn")) {
+            logger.warn("skipping the view {}; views are not materialized", resource.getNamespace());
+            return;
+        }
+
+        Resource mappedResource = modificationHelper.getMappedResource(resource);
+        createCollectionIfNotExists(targetClient, mappedResource, collectionOptions);
+
+        List<Document> indexes = getSecondaryIndexes(sourceClient, resource);
+        if (!indexes.isEmpty()) {
+            pendingIndexes.put(mappedResource, indexes);
+            registry.register(mappedResource.getNamespace());
+            logger.info("deferred the build of {} indexes on {} until its data is copied",
+                    indexes.size(), mappedResource.getNamespace());
+        }
+    }
+
+    /**
+     * Starts building all the deferred indexes in parallel across the collections.
+     * the method returns right away; the oplog writer waits on the {@link IndexBuildRegistry}.
+     *
+     * @param targetClient a MongoDB client object pointing to the target
+     */
+    public void buildIndexes(MongoClient targetClient) {
+        if (pendingIndexes.isEmpty()) {
+            return;
+        }
+
+        WorkerPool pool = new WorkerPool("migrator-index-builder", indexBuildPoolSize);
+        List<CompletableFuture<Void>> builds = new ArrayList<>();
+        for (Map.Entry<Resource, List<Document>> entry : pendingIndexes.entrySet()) {
+            Resource resource = entry.getKey();
+            CompletableFuture<Void> build = registry.register(resource.getNamespace());
+            builds.add(build);
+            pool.getScheduler().scheduleDirect(() -> {
+                try {
+                    buildIndexes(targetClient, resource, entry.getValue());
+                    build.complete(null);
+                } catch (Exception e) {
+                    logger.error("error while building the indexes on {}", resource.getNamespace(), e);
+                    build.completeExceptionally(e);
+                }
+            });
+        }
+        pendingIndexes.clear();
+
+        CompletableFuture.allOf(builds.toArray(new CompletableFuture<?>[0]))
+            .whenComplete((result, error) -> {
+                logger.info("completed the deferred index builds on {} collections", builds.size());
+                pool.shutdown();
+            });
+    }
+
+    private void createCollectionIfNotExists(MongoClient targetClient, Resource resource, Document collectionOptions) {
+        MongoDatabase database = MongoDBHelper.getDatabase(targetClient, resource.getDatabase());
+        for (String name : database.listCollectionNames()) {
+            if (name.equals(resource.getCollection())) {
+                logger.info("collection {} already exists on target", resource.getNamespace());
+                return;
+            }
+        }
+
+        Document options = (collectionOptions == null) ? new Document() : collectionOptions;
+        database.createCollection(resource.getCollection(),
+                BaseDocumentWriter.getInstance(targetClient).getCreateCollectionOptions(options));
+        logger.info("created collection {} on target with options {}", resource.getNamespace(), options.toJson());
+    }
+
+    /**
+     * Get's the specs of all the indexes on the source collection, except the _id index
+     *
+     * @param sourceClient a MongoDB client object pointing to the source
+     * @param resource a collection in a database on source
+     * @return a list of index specs as accepted by the createIndexes command
+     */
+    private List<Document> getSecondaryIndexes(MongoClient sourceClient, Resource resource) {
+        List<Document> indexes = new ArrayList<>();
+        for (Document index : MongoDBHelper.getCollection(sourceClient, resource.getDatabase(), resource.getCollection()).listIndexes()) {
+            if (!ID_INDEX_NAME.equals(index.getString("name"))) {
+                // the namespace may differ on target; the server fills it in
+                index.remove("ns");
+                indexes.add(index);
+            }
+        }
+        return indexes;
+    }
+
+    private void buildIndexes(MongoClient targetClient, Resource resource, List<Document> indexes) throws AppException {
+        logger.info("building {} indexes on {}", indexes.size(), resource.getNamespace());
+        long startTime = System.currentTimeMillis();
+
+        Document command = new Document("createIndexes", resource.getCollection())
+                .append("indexes", indexes);
+        Document operation = new Document("operation", "createIndexes");
+        operation.append("resource", resource.getNamespace());
+
+        MongoDatabase database = MongoDBHelper.getDatabase(targetClient, resource.getDatabase());
+        if (MongoDBHelper.performOperationWithRetry(() -> database.runCommand(command), operation) == null) {
+            throw new AppException(String.format("could not build the indexes on %s; retries exhausted",
+                    resource.getNamespace()));
+        }
+
+        logger.info("built {} indexes on {} in {} ms", indexes.size(), resource.getNamespace(),
+                System.currentTimeMillis() - startTime);
+    }
+}
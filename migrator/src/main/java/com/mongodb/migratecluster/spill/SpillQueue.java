@@ -0,0 +1,156 @@
+package com.mongodb.migratecluster.spill;
+
+import com.mongodb.migratecluster.migrators.MigratorSettings;
+import com.mongodb.migratecluster.model.DocumentsBatch;
+import com.mongodb.migratecluster.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+
+/**
+ * File: SpillQueue
+ * Description:
+ *
+ * A class holding the batches a reader spilled to disk while the writers
+ * had no room for them, in the order they were spilled. the batches are
+ * appended to segment files of a bounded size, and a segment is deleted as
+ * soon as all of its batches are read back. only the position of each
+ * batch is kept on the heap. a queue belongs to a single reader and is
+ * not thread safe.
+ */
+public class SpillQueue {
+    private final static Logger logger = LoggerFactory.getLogger(SpillQueue.class);
+
+    private final SpillStore store;
+    private final Resource resource;
+    private final String name;
+    private final ArrayDeque<SpilledBatch> batches;
+    private SpillSegment writeSegment;
+    private int segmentCount;
+    private boolean failed;
+
+    /**
+     * @param store the store holding the directory and the disk budget shared by all the queues
+     * @param resource the resource of the reader spilling its batches
+     * @param name the unique name of the queue, used as the prefix of its segment files
+     */
+    SpillQueue(SpillStore store, Resource resource, String name) {
+        this.store = store;
+        this.resource = resource;
+        this.name = name;
+        this.batches = new ArrayDeque<>();
+    }
+
+    /**
+     * @return true if there are no spilled batches left to read back
+     */
+    public boolean isEmpty() {
+        return batches.isEmpty();
+    }
+
+    /**
+     * @return the number of spilled batches left to read back
+     */
+    public int size() {
+        return batches.size();
+    }
+
+    /**
+     * Spills the batch to disk if it fits in the disk budget
+     *
+     * @param batch a batch of documents read from the source
+     * @return true if the batch was spilled; false if the reader has to wait for the writers instead
+     */
+    public boolean offer(DocumentsBatch batch) {
+        if (failed) {
+            return false;
+        }
+
+        long reserved = 0;
+        try {
+            byte[] record = SpillRecord.encode(batch);
+            reserved = record.length + 4;
+            if (!store.reserve(reserved)) {
+                return false;
+            }
+            if (writeSegment == null
+                    || (writeSegment.getSize() > 0 && writeSegment.getSize() + reserved > MigratorSettings.SPILL_SEGMENT_BYTES)) {
+                rollSegment();
+            }
+            long offset = writeSegment.append(record);
+            batches.add(new SpilledBatch(writeSegment, offset, reserved));
+            return true;
+        } catch (IOException e) {
+            // the reader falls back to waiting for the writers
+            failed = true;
+            store.release(reserved);
+            logger.warn("could not spill batch {} of resource {} to disk; not spilling this resource any more. Error {}",
+                    batch.getBatchId(), resource, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Reads the oldest spilled batch back
+     *
+     * @return the batch; null if there are none
+     * @throws IOException when the batch can't be read back
+     */
+    public DocumentsBatch poll() throws IOException {
+        SpilledBatch spilled = batches.poll();
+        if (spilled == null) {
+            return null;
+        }
+
+        byte[] record = spilled.segment.read(spilled.offset);
+        store.release(spilled.length);
+        if (spilled.segment.getPendingRecords() == 0 && spilled.segment != writeSegment) {
+            spilled.segment.delete();
+        }
+        SpillRecord spillRecord = SpillRecord.decode(record);
+        return new DocumentsBatch(resource, spillRecord.getBatchId(), spillRecord.getDocuments());
+    }
+
+    /**
+     * Deletes the segment files of the queue; the batches not read back yet are lost
+     */
+    public void close() {
+        if (!batches.isEmpty()) {
+            logger.warn("closing the spill queue of resource {} with {} batches not read back", resource, batches.size());
+        }
+        for (SpilledBatch spilled : batches) {
+            store.release(spilled.length);
+        }
+        batches.stream().map(spilled -> spilled.segment).distinct().forEach(SpillSegment::delete);
+        batches.clear();
+        if (writeSegment != null) {
+            writeSegment.delete();
+            writeSegment = null;
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        if (writeSegment != null && writeSegment.getPendingRecords() == 0) {
+            writeSegment.delete();
+        }
+        writeSegment = new SpillSegment(store.getSegmentFile(name, segmentCount++));
+        logger.debug("resource {} spills into segment {}", resource, writeSegment);
+    }
+
+    /**
+     * the position of a batch in a segment
+     */
+    private static class SpilledBatch {
+        private final SpillSegment segment;
+        private final long offset;
+        private final long length;
+
+        private SpilledBatch(SpillSegment segment, long offset, long length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
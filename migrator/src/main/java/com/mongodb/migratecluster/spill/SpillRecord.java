@@ -0,0 +1,105 @@
+package com.mongodb.migratecluster.spill;
+
+import com.mongodb.migratecluster.model.DocumentsBatch;
+import org.bson.RawBsonDocument;
+import org.xerial.snappy.Snappy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * File: SpillRecord
+ * Description:
+ *
+ * A class representing a batch of documents as it is saved in a spill
+ * segment: the source namespace, the batch id and the raw bson bytes of
+ * the documents one after the other, snappy compressed. the documents
+ * read back share the one uncompressed buffer.
+ */
+class SpillRecord {
+    private final String namespace;
+    private final int batchId;
+    private final List<RawBsonDocument> documents;
+
+    private SpillRecord(String namespace, int batchId, List<RawBsonDocument> documents) {
+        this.namespace = namespace;
+        this.batchId = batchId;
+        this.documents = documents;
+    }
+
+    String getNamespace() {
+        return namespace;
+    }
+
+    int getBatchId() {
+        return batchId;
+    }
+
+    List<RawBsonDocument> getDocuments() {
+        return documents;
+    }
+
+    /**
+     * @param batch a batch of documents read from the source
+     * @return the bytes of the record
+     * @throws IOException when the documents can't be compressed
+     */
+    static byte[] encode(DocumentsBatch batch) throws IOException {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream((int) batch.getByteSize());
+        for (RawBsonDocument document : batch.getDocuments()) {
+            ByteBuffer buffer = document.getByteBuffer().asNIO();
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            raw.write(bytes);
+        }
+        byte[] rawBytes = raw.toByteArray();
+        byte[] compressed = Snappy.compress(rawBytes);
+
+        ByteArrayOutputStream record = new ByteArrayOutputStream(compressed.length + 64);
+        DataOutputStream out = new DataOutputStream(record);
+        out.writeUTF(batch.getResource().getNamespace());
+        out.writeInt(batch.getBatchId());
+        out.writeInt(rawBytes.length);
+        out.write(compressed);
+        out.flush();
+        return record.toByteArray();
+    }
+
+    /**
+     * @param record the bytes of a record
+     * @return the record with its documents
+     * @throws IOException when the record is truncated or can't be uncompressed
+     */
+    static SpillRecord decode(byte[] record) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        String namespace = in.readUTF();
+        int batchId = in.readInt();
+        int rawLength = in.readInt();
+        byte[] compressed = new byte[in.available()];
+        in.readFully(compressed);
+
+        byte[] raw = Snappy.uncompress(compressed);
+        if (raw.length != rawLength) {
+            throw new IOException(String.format("spilled batch %d of %s is %d bytes; expected %d",
+                    batchId, namespace, raw.length, rawLength));
+        }
+
+        List<RawBsonDocument> documents = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN);
+        int offset = 0;
+        while (offset < raw.length) {
+            // every bson document starts with its own size
+            int size = buffer.getInt(offset);
+            documents.add(new RawBsonDocument(raw, offset, size));
+            offset += size;
+        }
+        return new SpillRecord(namespace, batchId, documents);
+    }
+}
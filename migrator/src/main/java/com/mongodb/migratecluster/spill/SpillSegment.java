@@ -0,0 +1,119 @@
+package com.mongodb.migratecluster.spill;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * File: SpillSegment
+ * Description:
+ *
+ * A class representing one file of a spill queue. records are appended
+ * with their length in front, so the file can be read back sequentially
+ * after a restart. the segment counts the records not read back yet, and
+ * can be deleted once that count is zero and no more records are appended.
+ */
+class SpillSegment {
+    private final File file;
+    private final RandomAccessFile data;
+    private long size;
+    private int pendingRecords;
+    private boolean deleted;
+
+    /**
+     * @param file the file of the segment; created if it doesn't exist
+     * @throws IOException when the file can't be opened
+     */
+    SpillSegment(File file) throws IOException {
+        this.file = file;
+        this.data = new RandomAccessFile(file, "rw");
+        this.size = data.length();
+    }
+
+    long getSize() {
+        return size;
+    }
+
+    int getPendingRecords() {
+        return pendingRecords;
+    }
+
+    /**
+     * @param record the bytes of a record
+     * @return the offset of the record in the segment
+     * @throws IOException when the record can't be written
+     */
+    long append(byte[] record) throws IOException {
+        long offset = size;
+        data.seek(offset);
+        data.writeInt(record.length);
+        data.write(record);
+        size += 4 + record.length;
+        pendingRecords++;
+        return offset;
+    }
+
+    /**
+     * Reads a record back; a record is read back only once
+     *
+     * @param offset the offset returned when the record was appended
+     * @return the bytes of the record
+     * @throws IOException when the record can't be read
+     */
+    byte[] read(long offset) throws IOException {
+        data.seek(offset);
+        byte[] record = new byte[data.readInt()];
+        data.readFully(record);
+        pendingRecords--;
+        return record;
+    }
+
+    /**
+     * Reads the record at the offset, i.e. while recovering the segment after a restart
+     *
+     * @param offset the offset of a record
+     * @return the bytes of the record; null at the end of the segment or at a record cut short by a crash
+     * @throws IOException when the segment can't be read
+     */
+    byte[] readAt(long offset) throws IOException {
+        if (offset + 4 > size) {
+            return null;
+        }
+        data.seek(offset);
+        int length = data.readInt();
+        if (length < 0 || offset + 4 + length > size) {
+            return null;
+        }
+        byte[] record = new byte[length];
+        try {
+            data.readFully(record);
+        } catch (EOFException e) {
+            return null;
+        }
+        return record;
+    }
+
+    /**
+     * Closes and deletes the file of the segment
+     */
+    void delete() {
+        if (deleted) {
+            return;
+        }
+        deleted = true;
+        try {
+            data.close();
+        } catch (IOException e) {
+            // the file is deleted anyway
+        }
+        if (!file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return file.getName();
+    }
+}
@@ -0,0 +1,190 @@
+package com.mongodb.migratecluster.spill;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.migratecluster.AppException;
+import com.mongodb.migratecluster.commandline.ApplicationOptions;
+import com.mongodb.migratecluster.helpers.ModificationHelper;
+import com.mongodb.migratecluster.helpers.MongoDBHelper;
+import com.mongodb.migratecluster.model.Resource;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * File: SpillStore
+ * Description:
+ *
+ * A class holding the spill directory and the disk budget shared by the
+ * spill queues of all the readers. the segments left behind by a prior
+ * run that stopped while its writers were behind are written to the
+ * target before the copy starts, so the batches spilled are never lost.
+ */
+public class SpillStore {
+    private final static Logger logger = LoggerFactory.getLogger(SpillStore.class);
+    private final static int DUPLICATE_KEY_ERROR_CODE = 11000;
+    private final static String SEGMENT_SUFFIX = ".spill";
+
+    private final File directory;
+    private final long maxBytes;
+    private final AtomicLong usedBytes;
+    private final AtomicInteger queueCount;
+    private final String runId;
+
+    /**
+     * @param options the application options holding the spill directory and its disk budget
+     */
+    public SpillStore(ApplicationOptions options) {
+        String spillDirectory = options.getSpillDirectory();
+        this.directory = (spillDirectory == null || spillDirectory.isEmpty()) ? null : new File(spillDirectory);
+        this.maxBytes = options.getSpillMaxBytes();
+        this.usedBytes = new AtomicLong();
+        this.queueCount = new AtomicInteger();
+        this.runId = Long.toString(System.currentTimeMillis(), 36);
+    }
+
+    /**
+     * @return true if a spill directory and a disk budget are set
+     */
+    public boolean isEnabled() {
+        return directory != null && maxBytes > 0;
+    }
+
+    /**
+     * @return the bytes spilled and not read back yet by all the queues
+     */
+    public long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    /**
+     * Creates the spill queue of a reader
+     *
+     * @param resource the resource of the reader
+     * @return a spill queue; null if spilling is not enabled
+     */
+    public SpillQueue createQueue(Resource resource) {
+        if (!isEnabled()) {
+            return null;
+        }
+        return new SpillQueue(this, resource, String.format("%s-%d", runId, queueCount.incrementAndGet()));
+    }
+
+    /**
+     * Writes the batches spilled by a prior run to the target and deletes their segments
+     *
+     * @param targetClient a MongoDB client object pointing to the target
+     * @param modificationHelper the helper mapping the source namespaces to the target ones
+     * @throws AppException when the spill directory can't be created or a segment can't be read
+     */
+    public void recover(MongoClient targetClient, ModificationHelper modificationHelper) throws AppException {
+        if (!isEnabled()) {
+            return;
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new AppException(String.format("could not create the spill directory %s", directory));
+        }
+
+        File[] files = directory.listFiles((dir, fileName) -> fileName.endsWith(SEGMENT_SUFFIX));
+        if (files == null || files.length == 0) {
+            return;
+        }
+        Arrays.sort(files);
+        logger.info("found {} spill segments left by a prior run in {}; writing them to the target",
+                files.length, directory);
+        for (File file : files) {
+            recoverSegment(file, targetClient, modificationHelper);
+        }
+    }
+
+    private void recoverSegment(File file, MongoClient targetClient, ModificationHelper modificationHelper) throws AppException {
+        long documents = 0;
+        SpillSegment segment;
+        try {
+            segment = new SpillSegment(file);
+        } catch (IOException e) {
+            throw new AppException(String.format("could not open the spill segment %s", file), e);
+        }
+
+        try {
+            long offset = 0;
+            byte[] record;
+            while ((record = segment.readAt(offset)) != null) {
+                offset += 4 + record.length;
+                SpillRecord spillRecord = SpillRecord.decode(record);
+                Resource mappedResource = modificationHelper.getMappedResource(new Resource(spillRecord.getNamespace()));
+                insertDocuments(MongoDBHelper.getCollection(targetClient, mappedResource.getDatabase(),
+                        mappedResource.getCollection()).withDocumentClass(RawBsonDocument.class),
+                        spillRecord.getDocuments());
+                documents += spillRecord.getDocuments().size();
+            }
+            if (offset < segment.getSize()) {
+                logger.warn("spill segment {} ends with a batch cut short; it is read again from the source", file);
+            }
+        } catch (IOException e) {
+            throw new AppException(String.format("could not read the spill segment %s", file), e);
+        }
+        segment.delete();
+        logger.info("wrote {} documents of spill segment {} to the target", documents, file.getName());
+    }
+
+    private void insertDocuments(MongoCollection<RawBsonDocument> collection, List<RawBsonDocument> documents) throws AppException {
+        Document operation = new Document("operation", "insertMany")
+                .append("namespace", collection.getNamespace().getFullName());
+        MongoDBHelper.performOperationWithRetry(() -> {
+            try {
+                collection.insertMany(documents, new InsertManyOptions().ordered(false));
+            } catch (MongoBulkWriteException e) {
+                // the documents may have been copied already by the readers of the prior run
+                long errors = e.getWriteErrors().stream()
+                        .filter(error -> error.getCode() != DUPLICATE_KEY_ERROR_CODE)
+                        .count();
+                if (errors > 0) {
+                    logger.warn("{} documents of a spilled batch could not be written to {}",
+                            errors, collection.getNamespace());
+                }
+            }
+            return documents.size();
+        }, operation);
+    }
+
+    File getSegmentFile(String queueName, int segment) {
+        return new File(directory, String.format("%s-%05d%s", queueName, segment, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Takes bytes from the disk budget
+     *
+     * @param bytes the size of a batch to spill
+     * @return true if the budget had room for the batch
+     */
+    boolean reserve(long bytes) {
+        long used;
+        do {
+            used = usedBytes.get();
+            if (used + bytes > maxBytes) {
+                return false;
+            }
+        } while (!usedBytes.compareAndSet(used, used + bytes));
+        return true;
+    }
+
+    /**
+     * Gives bytes back to the disk budget
+     *
+     * @param bytes the size of a batch read back
+     */
+    void release(long bytes) {
+        usedBytes.addAndGet(-bytes);
+    }
+}
@@ -0,0 +1,47 @@
+package com.mongodb.migratecluster.throttling;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * File: AdjustableSemaphore
+ * Description:
+ *
+ * A semaphore whose total number of permits can be changed while it is in use.
+ * shrinking it does not take away permits already acquired, it only holds back
+ * the permits released afterwards until the new limit is met.
+ */
+public class AdjustableSemaphore extends Semaphore {
+    private static final long serialVersionUID = 1L;
+    private int maxPermits;
+
+    /**
+     * @param permits the initial total number of permits
+     */
+    public AdjustableSemaphore(int permits) {
+        super(permits);
+        this.maxPermits = permits;
+    }
+
+    /**
+     * @return the current total number of permits
+     */
+    public synchronized int getMaxPermits() {
+        return maxPermits;
+    }
+
+    /**
+     * Changes the total number of permits
+     *
+     * @param permits the new total number of permits; at least one
+     */
+    public synchronized void setMaxPermits(int permits) {
+        int delta = Math.max(1, permits) - maxPermits;
+        if (delta > 0) {
+            this.release(delta);
+        }
+        else if (delta < 0) {
+            this.reducePermits(-delta);
+        }
+        maxPermits += delta;
+    }
+}
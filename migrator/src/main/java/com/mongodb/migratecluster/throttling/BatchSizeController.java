@@ -0,0 +1,184 @@
+package com.mongodb.migratecluster.throttling;
+
+import com.mongodb.migratecluster.model.BatchLimits;
+import com.mongodb.migratecluster.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * File: BatchSizeController
+ * Description:
+ *
+ * A class controlling the size of the batches and the number of batches in flight
+ * for a resource being copied. when adaptive, it follows an additive increase /
+ * multiplicative decrease (AIMD) rule on the latency and the errors of the writes:
+ * every write faster than the target latency grows the batch a little, and a
+ * slow or failed write halves both the batch size and the batches in flight.
+ * the limits are halved at most once per congestion window: the batches handed
+ * over before a decrease were cut and sent under the old limits, so their slow
+ * writes don't halve the limits again.
+ */
+public class BatchSizeController {
+    private final static Logger logger = LoggerFactory.getLogger(BatchSizeController.class);
+
+    public static final int MIN_BATCH_DOCUMENTS = 50;
+    public static final int MAX_BATCH_DOCUMENTS = 100000;
+    public static final int INITIAL_BATCHES_IN_FLIGHT = 2;
+    public static final int MAX_BATCHES_IN_FLIGHT = 16;
+
+    private final Resource resource;
+    private final boolean adaptive;
+    private final long targetLatencyMillis;
+    private final long maxBytes;
+    private final int increaseStep;
+    private final AdjustableSemaphore inFlight;
+
+    private final AtomicLong handedOverCount;
+
+    private volatile BatchLimits batchLimits;
+    private int fastWritesCount;
+    private long writtenCount;
+    // the batches handed over when the limits were last halved
+    private long recoveryPoint;
+
+    /**
+     * @param resource the resource whose batches are controlled
+     * @param initialLimits the limits to start with; its bytes limit is never exceeded
+     * @param adaptive a boolean representing if the limits follow the write latency or stay fixed
+     * @param targetLatencyMillis the write latency that is considered healthy
+     */
+    public BatchSizeController(Resource resource, BatchLimits initialLimits, boolean adaptive, long targetLatencyMillis) {
+        this.resource = resource;
+        this.adaptive = adaptive;
+        this.targetLatencyMillis = targetLatencyMillis;
+        this.maxBytes = initialLimits.getMaxBytes();
+        this.increaseStep = Math.max(1, initialLimits.getMaxDocuments() / 10);
+        this.batchLimits = initialLimits;
+        this.inFlight = new AdjustableSemaphore(INITIAL_BATCHES_IN_FLIGHT);
+        this.handedOverCount = new AtomicLong();
+    }
+
+    /**
+     * @return the limits at which the next batch has to be cut
+     */
+    public BatchLimits getBatchLimits() {
+        return batchLimits;
+    }
+
+    /**
+     * @return the number of batches allowed to be written at the same time
+     */
+    public int getBatchesInFlight() {
+        return inFlight.getMaxPermits();
+    }
+
+    /**
+     * Waits until one more batch is allowed to be handed over to the writers
+     *
+     * @throws InterruptedException
+     */
+    public void acquire() throws InterruptedException {
+        inFlight.acquire();
+        handedOverCount.incrementAndGet();
+    }
+
+    /**
+     * Takes a permit to hand over one more batch to the writers if one is available
+     *
+     * @return true if the permit was taken
+     */
+    public boolean tryAcquire() {
+        if (!inFlight.tryAcquire()) {
+            return false;
+        }
+        handedOverCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Notifies that a batch handed over to the writers is done
+     */
+    public void release() {
+        inFlight.release();
+    }
+
+    /**
+     * @return the number of batches that can be handed over without waiting
+     */
+    public int availablePermits() {
+        return inFlight.availablePermits();
+    }
+
+    /**
+     * Records the outcome of a batch write and adjusts the limits if adaptive
+     *
+     * @param latencyMillis the time taken to write the batch
+     * @param failed a boolean representing if the write had errors other than duplicate keys
+     */
+    public synchronized void onBatchWritten(long latencyMillis, boolean failed) {
+        if (!adaptive) {
+            return;
+        }
+
+        int documents = batchLimits.getMaxDocuments();
+        int batchesInFlight = inFlight.getMaxPermits();
+        writtenCount++;
+
+        if (failed || latencyMillis > targetLatencyMillis) {
+            fastWritesCount = 0;
+            if (writtenCount <= recoveryPoint) {
+                // a batch of the window that was halved already
+                logger.debug("adaptive batching for resource {} ignored {} write in {} ms of the window backed off already",
+                        resource.getNamespace(), failed ? "a failed" : "a slow", latencyMillis);
+                return;
+            }
+            // multiplicative decrease
+            recoveryPoint = handedOverCount.get();
+            int newDocuments = Math.max(MIN_BATCH_DOCUMENTS, documents / 2);
+            int newBatchesInFlight = Math.max(1, batchesInFlight / 2);
+            update(newDocuments, newBatchesInFlight);
+            logger.info("adaptive batching for resource {} backed off on {} write in {} ms; batch documents {} -> {}, batches in flight {} -> {}",
+                    resource.getNamespace(), failed ? "a failed" : "a slow", latencyMillis,
+                    documents, newDocuments, batchesInFlight, newBatchesInFlight);
+            return;
+        }
+
+        // additive increase
+        fastWritesCount++;
+        int newDocuments = Math.min(MAX_BATCH_DOCUMENTS, documents + increaseStep);
+        int newBatchesInFlight = batchesInFlight;
+        if (fastWritesCount >= batchesInFlight && latencyMillis * 2 < targetLatencyMillis) {
+            // the target keeps up easily; allow one more batch to be written in parallel
+            fastWritesCount = 0;
+            newBatchesInFlight = Math.min(MAX_BATCHES_IN_FLIGHT, batchesInFlight + 1);
+        }
+        update(newDocuments, newBatchesInFlight);
+
+        if (newBatchesInFlight != batchesInFlight) {
+            logger.info("adaptive batching for resource {} grew on a {} ms write; batch documents {} -> {}, batches in flight {} -> {}",
+                    resource.getNamespace(), latencyMillis, documents, newDocuments, batchesInFlight, newBatchesInFlight);
+        }
+        else {
+            logger.debug("adaptive batching for resource {} grew on a {} ms write; batch documents {} -> {}",
+                    resource.getNamespace(), latencyMillis, documents, newDocuments);
+        }
+    }
+
+    private void update(int documents, int batchesInFlight) {
+        if (documents != batchLimits.getMaxDocuments()) {
+            batchLimits = new BatchLimits(documents, maxBytes);
+        }
+        inFlight.setMaxPermits(batchesInFlight);
+    }
+
+    /**
+     * @return a string representation of the current state of the controller
+     */
+    @Override
+    public String toString() {
+        return String.format("{ resource: \"%s\", adaptive: %s, batch: %s, batchesInFlight: %d }",
+                resource.getNamespace(), adaptive, batchLimits, getBatchesInFlight());
+    }
+}
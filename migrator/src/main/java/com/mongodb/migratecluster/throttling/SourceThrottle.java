@@ -0,0 +1,319 @@
+package com.mongodb.migratecluster.throttling;
+
+import com.mongodb.MongoClient;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.migratecluster.AppException;
+import com.mongodb.migratecluster.commandline.ApplicationOptions;
+import com.mongodb.migratecluster.commandline.ApplicationOptionsLoader;
+import com.mongodb.migratecluster.commandline.ThrottleOptions;
+import com.mongodb.migratecluster.helpers.ShardHelper;
+import com.mongodb.migratecluster.migrators.MigratorSettings;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * File: SourceThrottle
+ * Description:
+ *
+ * A class limiting the documents and bytes per second all the readers take
+ * from the source, so the copy doesn't starve the live traffic. on an
+ * interval it re-reads the limits from the configuration file if it was
+ * changed, and checks the replication lag of the source secondaries and the
+ * read latency of the source; the lag of a sharded source is checked on the
+ * replica set of each shard. while either is past its threshold the rates
+ * are halved on every check, down to a floor; once healthy they grow back
+ * to the limits in steps.
+ */
+public class SourceThrottle {
+    private final static Logger logger = LoggerFactory.getLogger(SourceThrottle.class);
+
+    private final String configFilePath;
+    private final TokenBucket documentsBucket;
+    private final TokenBucket bytesBucket;
+    private final LongAdder documentsRead;
+    private final LongAdder bytesRead;
+    private volatile ThrottleOptions limits;
+
+    // the state below is only touched by the poller thread
+    private MongoClient sourceClient;
+    private ShardHelper shardHelper;
+    private ScheduledExecutorService poller;
+    private long configLastModified;
+    private long lastPollMillis;
+    private double factor;
+    private double documentsBase;
+    private double bytesBase;
+    // the replica sets that have no replication status, i.e. standalones
+    private final Set<String> lagUnsupported;
+    private long lastReadLatencyMicros;
+    private long lastReadOps;
+
+    /**
+     * @param options the application options holding the initial limits and the configuration file
+     */
+    public SourceThrottle(ApplicationOptions options) {
+        this.configFilePath = options.getConfigFilePath();
+        this.limits = options.getSourceThrottle();
+        this.documentsBucket = new TokenBucket(limits.getMaxDocumentsPerSecond());
+        this.bytesBucket = new TokenBucket(limits.getMaxBytesPerSecond());
+        this.documentsRead = new LongAdder();
+        this.bytesRead = new LongAdder();
+        this.factor = 1.0;
+        this.lagUnsupported = new HashSet<>();
+        this.lastReadLatencyMicros = -1;
+    }
+
+    /**
+     * Waits until the documents read are within the rates
+     *
+     * @param documents the number of documents read
+     * @param bytes the size of the documents read
+     * @throws InterruptedException
+     */
+    public void acquire(int documents, long bytes) throws InterruptedException {
+        documentsRead.add(documents);
+        bytesRead.add(bytes);
+        documentsBucket.acquire(documents);
+        bytesBucket.acquire(bytes);
+    }
+
+    /**
+     * Starts checking the limits and the health of the source on an interval
+     *
+     * @param sourceClient a MongoDB client object pointing to the source
+     * @param shardHelper the helper holding the clients of the shards of a sharded source
+     */
+    public void start(MongoClient sourceClient, ShardHelper shardHelper) {
+        if (!limits.isEnabled() && isEmpty(configFilePath)) {
+            // nothing to enforce, and no way to set a limit later on
+            return;
+        }
+        this.sourceClient = sourceClient;
+        this.shardHelper = shardHelper;
+        this.configLastModified = isEmpty(configFilePath) ? 0 : new File(configFilePath).lastModified();
+        this.lastPollMillis = System.currentTimeMillis();
+        logger.info("source throttle started with limits {}", limits);
+
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "migrator-throttle");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::poll,
+                MigratorSettings.THROTTLE_POLL_INTERVAL_MILLIS,
+                MigratorSettings.THROTTLE_POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops checking the limits and the health of the source
+     */
+    public void stop() {
+        if (poller != null) {
+            poller.shutdown();
+        }
+    }
+
+    private void poll() {
+        try {
+            reloadLimits();
+
+            long now = System.currentTimeMillis();
+            double seconds = Math.max(1, now - lastPollMillis) / 1000.0;
+            double documentsPerSecond = documentsRead.sumThenReset() / seconds;
+            double bytesPerSecond = bytesRead.sumThenReset() / seconds;
+            lastPollMillis = now;
+
+            String reason = getBackOffReason();
+            double previousFactor = factor;
+            if (reason != null) {
+                if (factor >= 1.0) {
+                    // an unlimited rate backs off from the rate seen right before
+                    documentsBase = documentsPerSecond;
+                    bytesBase = bytesPerSecond;
+                }
+                factor = Math.max(MigratorSettings.THROTTLE_MIN_FACTOR, factor / 2);
+            }
+            else {
+                factor = Math.min(1.0, factor + MigratorSettings.THROTTLE_RECOVERY_STEP);
+            }
+            applyRates();
+
+            if (reason != null) {
+                logger.warn("source throttle backed off on {}; rates are at {}% of {} documents/s, {} bytes/s",
+                        reason, Math.round(factor * 100),
+                        Math.round(documentsBucket.getRatePerSecond()), Math.round(bytesBucket.getRatePerSecond()));
+            }
+            else if (previousFactor < 1.0 && factor >= 1.0) {
+                logger.info("source throttle recovered; rates are back at the limits {}", limits);
+            }
+        } catch (Exception e) {
+            logger.error("error while checking the source throttle", e);
+        }
+    }
+
+    private void reloadLimits() {
+        if (isEmpty(configFilePath)) {
+            return;
+        }
+        long modified = new File(configFilePath).lastModified();
+        if (modified == configLastModified) {
+            return;
+        }
+        configLastModified = modified;
+        try {
+            limits = ApplicationOptionsLoader.load(configFilePath).getSourceThrottle();
+            logger.info("source throttle limits changed to {}", limits);
+        } catch (AppException e) {
+            logger.warn("could not reload the source throttle limits; keeping {}. Error {}", limits, e.getMessage());
+        }
+        applyRates();
+    }
+
+    private void applyRates() {
+        double documentsRate = getRate(limits.getMaxDocumentsPerSecond(), documentsBase);
+        if (documentsRate != documentsBucket.getRatePerSecond()) {
+            documentsBucket.setRatePerSecond(documentsRate);
+        }
+        double bytesRate = getRate(limits.getMaxBytesPerSecond(), bytesBase);
+        if (bytesRate != bytesBucket.getRatePerSecond()) {
+            bytesBucket.setRatePerSecond(bytesRate);
+        }
+    }
+
+    private double getRate(long limit, double base) {
+        if (factor >= 1.0) {
+            return limit;
+        }
+        double fullRate = (limit > 0) ? limit : base;
+        if (fullRate <= 0) {
+            return 0;
+        }
+        return Math.max(1, fullRate * factor);
+    }
+
+    /**
+     * @return a description of the threshold the source is past; null if it is healthy
+     */
+    private String getBackOffReason() {
+        ThrottleOptions current = limits;
+        if (current.getMaxReplicationLagSeconds() > 0) {
+            long lagSeconds = getReplicationLagSeconds();
+            if (lagSeconds > current.getMaxReplicationLagSeconds()) {
+                return String.format("a replication lag of %d s", lagSeconds);
+            }
+        }
+        if (current.getMaxReadLatencyMillis() > 0) {
+            long latencyMillis = getReadLatencyMillis();
+            if (latencyMillis > current.getMaxReadLatencyMillis()) {
+                return String.format("a read latency of %d ms", latencyMillis);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the replication lag of the most lagging secondary of the source, or of any of its shards
+     */
+    private long getReplicationLagSeconds() {
+        if (!shardHelper.isShardedCluster(sourceClient)) {
+            return getReplicationLagSeconds(sourceClient, "the source");
+        }
+
+        // a mongos has no replica set status of its own
+        long lagSeconds = 0;
+        for (String shard : shardHelper.getShardNames(sourceClient)) {
+            MongoClient shardClient = shardHelper.getShardClient(sourceClient, shard);
+            lagSeconds = Math.max(lagSeconds, getReplicationLagSeconds(shardClient, "shard " + shard));
+        }
+        return lagSeconds;
+    }
+
+    /**
+     * @param client a MongoDB client object pointing to a replica set
+     * @param name the name of the replica set in the logs
+     * @return the replication lag of the most lagging secondary of the replica set; 0 if it has none
+     */
+    @SuppressWarnings("unchecked")
+    private long getReplicationLagSeconds(MongoClient client, String name) {
+        if (lagUnsupported.contains(name)) {
+            return 0;
+        }
+        Document status;
+        try {
+            status = client.getDatabase("admin").runCommand(new Document("replSetGetStatus", 1));
+        } catch (MongoCommandException e) {
+            // i.e. a standalone; the other shards are still checked
+            lagUnsupported.add(name);
+            logger.warn("could not get the replication lag of {}; not backing off on it. Error {}",
+                    name, e.getErrorMessage());
+            return 0;
+        } catch (MongoException e) {
+            logger.warn("could not get the replication lag of {}. Error {}", name, e.getMessage());
+            return 0;
+        }
+
+        Date primaryOptime = null;
+        Date oldestSecondaryOptime = null;
+        for (Document member : (List<Document>) status.get("members")) {
+            Date optime = member.getDate("optimeDate");
+            if (optime == null) {
+                continue;
+            }
+            int state = member.getInteger("state", 0);
+            if (state == 1) {
+                primaryOptime = optime;
+            }
+            else if (state == 2 && (oldestSecondaryOptime == null || optime.before(oldestSecondaryOptime))) {
+                oldestSecondaryOptime = optime;
+            }
+        }
+        if (primaryOptime == null || oldestSecondaryOptime == null) {
+            return 0;
+        }
+        return Math.max(0, TimeUnit.MILLISECONDS.toSeconds(primaryOptime.getTime() - oldestSecondaryOptime.getTime()));
+    }
+
+    /**
+     * @return the average latency of the reads on the source since the last check
+     */
+    private long getReadLatencyMillis() {
+        Document reads;
+        try {
+            Document serverStatus = sourceClient.getDatabase("admin").runCommand(new Document("serverStatus", 1));
+            Document opLatencies = (Document) serverStatus.get("opLatencies");
+            reads = (opLatencies == null) ? null : (Document) opLatencies.get("reads");
+        } catch (MongoException e) {
+            logger.warn("could not get the read latency of the source. Error {}", e.getMessage());
+            return 0;
+        }
+        if (reads == null) {
+            return 0;
+        }
+
+        long latencyMicros = ((Number) reads.get("latency", 0L)).longValue();
+        long ops = ((Number) reads.get("ops", 0L)).longValue();
+        long averageMillis = 0;
+        if (lastReadLatencyMicros >= 0 && ops > lastReadOps) {
+            averageMillis = TimeUnit.MICROSECONDS.toMillis((latencyMicros - lastReadLatencyMicros) / (ops - lastReadOps));
+        }
+        lastReadLatencyMicros = latencyMicros;
+        lastReadOps = ops;
+        return averageMillis;
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+}
@@ -0,0 +1,97 @@
+package com.mongodb.migratecluster.throttling;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * File: TokenBucket
+ * Description:
+ *
+ * A token bucket limiting a rate per second, shared by many threads. the
+ * bucket holds up to one second worth of tokens. a caller may take more
+ * tokens than there are, i.e. a whole batch at once; the bucket goes into
+ * debt and the caller waits until the debt would have been refilled, so
+ * the following callers queue up behind it.
+ */
+public class TokenBucket {
+    private final LongSupplier nanoClock;
+    private double ratePerSecond;
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * @param ratePerSecond the number of tokens added per second; zero or less is no limit
+     */
+    public TokenBucket(double ratePerSecond) {
+        this(ratePerSecond, System::nanoTime);
+    }
+
+    TokenBucket(double ratePerSecond, LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.ratePerSecond = ratePerSecond;
+        this.tokens = Math.max(0, ratePerSecond);
+        this.lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * @return the number of tokens added per second; zero or less is no limit
+     */
+    public synchronized double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    /**
+     * Changes the rate; the tokens already in the bucket or owed are kept
+     *
+     * @param ratePerSecond the number of tokens added per second; zero or less is no limit
+     */
+    public synchronized void setRatePerSecond(double ratePerSecond) {
+        if (this.ratePerSecond <= 0) {
+            tokens = Math.max(0, ratePerSecond);
+        }
+        else {
+            refill();
+            tokens = Math.min(tokens, Math.max(0, ratePerSecond));
+        }
+        this.ratePerSecond = ratePerSecond;
+        lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * Takes the tokens, waiting until the bucket is out of debt
+     *
+     * @param count the number of tokens to take
+     * @throws InterruptedException
+     */
+    public void acquire(long count) throws InterruptedException {
+        long waitNanos = reserve(count);
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Takes the tokens without waiting
+     *
+     * @param count the number of tokens to take
+     * @return the time in nanoseconds the caller has to wait before going ahead
+     */
+    synchronized long reserve(long count) {
+        if (ratePerSecond <= 0) {
+            return 0;
+        }
+        refill();
+        tokens -= count;
+        if (tokens >= 0) {
+            return 0;
+        }
+        return (long) (-tokens / ratePerSecond * TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        double refilled = (now - lastRefillNanos) * ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+        tokens = Math.min(ratePerSecond, tokens + refilled);
+        lastRefillNanos = now;
+    }
+}
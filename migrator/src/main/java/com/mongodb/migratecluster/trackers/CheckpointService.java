@@ -0,0 +1,200 @@
+package com.mongodb.migratecluster.trackers;
+
+import com.mongodb.MongoClient;
+import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.migratecluster.AppException;
+import com.mongodb.migratecluster.helpers.MongoClientRegistry;
+import com.mongodb.migratecluster.helpers.MongoClientRegistry.ClusterRole;
+import com.mongodb.migratecluster.helpers.MongoDBHelper;
+import com.mongodb.migratecluster.migrators.MigratorSettings;
+import com.mongodb.migratecluster.model.Resource;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * File: CheckpointService
+ * Description:
+ *
+ * A class to save the tracker checkpoints on the oplog store in the
+ * background. a checkpoint replaces the pending checkpoint of the same
+ * tracker document, so only the newest value of each is written. the
+ * pending checkpoints are written as one bulk write per tracker collection,
+ * on an interval or as soon as they add up to the byte threshold.
+ */
+public class CheckpointService {
+    private final static Logger logger = LoggerFactory.getLogger(CheckpointService.class);
+
+    private final MongoClientRegistry clientRegistry;
+    private final ConcurrentHashMap<String, Checkpoint> pending;
+    private final AtomicLong pendingBytes;
+    private final AtomicBoolean flushScheduled;
+    private final ScheduledExecutorService flusher;
+    private final Object flushLock = new Object();
+
+    /**
+     * @param clientRegistry the registry holding the client to the oplog store; connected on the first write
+     */
+    public CheckpointService(MongoClientRegistry clientRegistry) {
+        this.clientRegistry = clientRegistry;
+        this.pending = new ConcurrentHashMap<>();
+        this.pendingBytes = new AtomicLong(0);
+        this.flushScheduled = new AtomicBoolean(false);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "migrator-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flushQuietly,
+                MigratorSettings.CHECKPOINT_FLUSH_INTERVAL_MILLIS,
+                MigratorSettings.CHECKPOINT_FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Accepts the latest document of a tracker to be saved; returns without waiting for the write
+     *
+     * @param tracker the tracker of a resource
+     * @param latestDocument a document representing the most recently processed
+     */
+    public void checkpoint(WritableDataTracker tracker, Document latestDocument) {
+        Resource resource = tracker.resource;
+        Document query = tracker.getQueryDocument();
+        Document update = tracker.getUpdateDocument(latestDocument);
+        String key = resource.getNamespace() + query.toJson();
+        Checkpoint checkpoint = new Checkpoint(key, resource, query, update, key.length() + update.toJson().length());
+
+        Checkpoint previous = pending.put(key, checkpoint);
+        long bytes = pendingBytes.addAndGet(checkpoint.bytes - (previous == null ? 0 : previous.bytes));
+        if (bytes >= MigratorSettings.CHECKPOINT_FLUSH_BYTES && flushScheduled.compareAndSet(false, true)) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * Writes all the checkpoints accepted so far; the checkpoints are durable once it returns
+     *
+     * @throws AppException when some of the checkpoints could not be written
+     */
+    public void flush() throws AppException {
+        synchronized (flushLock) {
+            flushScheduled.set(false);
+            Map<String, List<Checkpoint>> checkpoints = drainPending();
+            int failed = 0;
+            for (Map.Entry<String, List<Checkpoint>> entry : checkpoints.entrySet()) {
+                failed += writeCheckpoints(entry.getValue());
+            }
+            if (failed > 0) {
+                throw new AppException(String.format("could not save %d checkpoints on the oplog store", failed));
+            }
+        }
+    }
+
+    /**
+     * Writes the pending checkpoints and stops the background flushes
+     *
+     * @throws AppException when some of the checkpoints could not be written
+     */
+    public void close() throws AppException {
+        flusher.shutdown();
+        flush();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (AppException e) {
+            logger.error("error while saving the checkpoints; retrying on the next flush. Error {}", e.getMessage());
+        } catch (Exception e) {
+            logger.error("error while saving the checkpoints", e);
+        }
+    }
+
+    /**
+     * Takes out all the pending checkpoints, grouped by the namespace of their tracker collection
+     */
+    private Map<String, List<Checkpoint>> drainPending() {
+        Map<String, List<Checkpoint>> checkpoints = new HashMap<>();
+        for (String key : pending.keySet()) {
+            Checkpoint checkpoint = pending.remove(key);
+            if (checkpoint != null) {
+                pendingBytes.addAndGet(-checkpoint.bytes);
+                checkpoints.computeIfAbsent(checkpoint.resource.getNamespace(), k -> new ArrayList<>())
+                        .add(checkpoint);
+            }
+        }
+        return checkpoints;
+    }
+
+    /**
+     * Upserts the checkpoints of a tracker collection in one bulk write
+     *
+     * @return the number of checkpoints that could not be written; they are queued again
+     */
+    private int writeCheckpoints(List<Checkpoint> checkpoints) {
+        Resource resource = checkpoints.get(0).resource;
+        List<WriteModel<Document>> models = new ArrayList<>();
+        UpdateOptions upsert = new UpdateOptions().upsert(true);
+        for (Checkpoint checkpoint : checkpoints) {
+            models.add(new UpdateOneModel<>(checkpoint.query, checkpoint.update, upsert));
+        }
+
+        MongoClient client = clientRegistry.getClient(ClusterRole.OPLOG_STORE);
+        Document operation = new Document("operation", "bulkWrite")
+                .append("checkpoints", models.size());
+        String error;
+        try {
+            BulkWriteResult result = MongoDBHelper.performOperationWithRetry(() ->
+                    MongoDBHelper.getCollection(client, resource.getDatabase(), resource.getCollection())
+                            .bulkWrite(models, new BulkWriteOptions().ordered(false)), operation);
+            if (result != null) {
+                logger.debug("saved {} checkpoints in {}", models.size(), resource.getNamespace());
+                return 0;
+            }
+            error = "retries exhausted";
+        } catch (AppException | MongoException e) {
+            error = e.getMessage();
+        }
+
+        logger.error("error while saving {} checkpoints in {}. Error {}",
+                models.size(), resource.getNamespace(), error);
+        for (Checkpoint checkpoint : checkpoints) {
+            // a newer checkpoint accepted in the meantime wins over the failed one
+            if (pending.putIfAbsent(checkpoint.key, checkpoint) == null) {
+                pendingBytes.addAndGet(checkpoint.bytes);
+            }
+        }
+        return checkpoints.size();
+    }
+
+    private static class Checkpoint {
+        private final String key;
+        private final Resource resource;
+        private final Document query;
+        private final Document update;
+        private final long bytes;
+
+        Checkpoint(String key, Resource resource, Document query, Document update, long bytes) {
+            this.key = key;
+            this.resource = resource;
+            this.query = query;
+            this.update = update;
+            this.bytes = bytes;
+        }
+    }
+}
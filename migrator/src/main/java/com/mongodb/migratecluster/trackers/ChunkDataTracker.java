@@ -0,0 +1,66 @@
+package com.mongodb.migratecluster.trackers;
+
+import com.mongodb.MongoClient;
+import com.mongodb.migratecluster.model.ShardChunk;
+import org.bson.Document;
+
+/**
+ *
+ * File: ChunkDataTracker
+ * Description:
+ *
+ * A class representing a tracker for a chunk of a sharded collection.
+ * A chunk is read in shard key order, not in _id order, so it can't be
+ * resumed from its latest document. It is tracked as completed or not,
+ * and an incomplete chunk is read again from the start on a restart.
+ *
+ */
+public class ChunkDataTracker extends CollectionDataTracker {
+    private final ShardChunk chunk;
+
+    /**
+     * @param client a MongoDB client object to work with collections
+     * @param chunk a resource representing a chunk of a sharded collection
+     * @param reader a string representation of the current reader / migrator name
+     */
+    public ChunkDataTracker(MongoClient client, ShardChunk chunk, String reader) {
+        super(client, chunk, reader);
+        this.chunk = chunk;
+    }
+
+    /**
+     * Get's the filter that matches the tracking document of current chunk
+     *
+     * @return a document representing the filter clause on the chunk field
+     */
+    @Override
+    protected Document getPartitionFilter() {
+        return new Document("chunk", chunk.getChunkId());
+    }
+
+    /**
+     * Get's the document representing the update command
+     *
+     * @param latestDocument a document holding the _id of latest document for current chunk
+     * @return the document representation of the update $set
+     * @see Document
+     */
+    @Override
+    protected Document getUpdateDocument(Document latestDocument) {
+        Document update = new Document(trackerKey, latestDocument.get("_id"))
+                .append("shard", chunk.getShard())
+                .append("min", chunk.getMin())
+                .append("max", chunk.getMax());
+        if (latestDocument.containsKey("completed")) {
+            update.append("completed", latestDocument.getBoolean("completed"));
+        }
+        return new Document("$set", update);
+    }
+
+    /**
+     * Marks the chunk as completely copied, so that it is skipped on a restart
+     */
+    public void markCompleted() {
+        updateLatestDocument(new Document("_id", null).append("completed", true));
+    }
+}
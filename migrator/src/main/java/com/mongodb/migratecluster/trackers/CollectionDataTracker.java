@@ -53,10 +53,22 @@ public class CollectionDataTracker extends WritableDataTracker {
         filters.add(readerFilter);
         filters.add(databaseFilter);
         filters.add(collectionFilter);
+        filters.add(getPartitionFilter());
 
         return new Document("$and", filters);
     }
 
+    /**
+     * Get's the filter that tells apart the tracking document of an unpartitioned
+     * collection from the tracking documents of its partitions and chunks
+     *
+     * @return a document representing the filter clause on the partition field
+     */
+    protected Document getPartitionFilter() {
+        return new Document("partition", new Document("$exists", false))
+                .append("chunk", new Document("$exists", false));
+    }
+
     /**
      * Get's the document representing the update command
      *
@@ -0,0 +1,143 @@
+package com.mongodb.migratecluster.trackers;
+
+import com.mongodb.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.migratecluster.AppException;
+import com.mongodb.migratecluster.helpers.MongoDBHelper;
+import com.mongodb.migratecluster.model.Resource;
+import com.mongodb.migratecluster.model.ResourcePartition;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *
+ * File: CollectionPartitionsTracker
+ * Description:
+ *
+ * A class to help save and load the _id ranges a collection was split into,
+ * so that a restart resumes every partition from its own latest document
+ *
+ */
+public class CollectionPartitionsTracker {
+    final static Logger logger = LoggerFactory.getLogger(CollectionPartitionsTracker.class);
+
+    private final MongoClient client;
+    private final Resource resource;
+    private final String reader;
+
+    /**
+     * @param client a MongoDB client object to work with collections
+     * @param resource a resource representing the collection in a database
+     * @param reader a string representation of the current reader / migrator name
+     */
+    public CollectionPartitionsTracker(MongoClient client, Resource resource, String reader) {
+        this.client = client;
+        this.resource = resource;
+        this.reader = reader;
+    }
+
+    /**
+     * Get's the partitions previously saved for the collection
+     *
+     * @return a list of partitions sorted by partition id; empty if none were saved
+     * @see ResourcePartition
+     */
+    public List<ResourcePartition> getPartitions() {
+        Bson query = Filters.and(getCollectionFilter(), Filters.exists("partition"));
+        MongoCollection<Document> collection = getTrackerCollection();
+
+        List<ResourcePartition> partitions = new ArrayList<>();
+        for (Document item : collection.find(query).sort(new Document("partition", 1))) {
+            partitions.add(new ResourcePartition(resource,
+                    item.getInteger("partition"),
+                    item.get("min_id"),
+                    item.get("max_id")));
+        }
+        return partitions;
+    }
+
+    /**
+     * Replaces any previously saved partitions of the collection with the given ones
+     *
+     * @param partitions a list of partitions covering the collection
+     * @throws AppException
+     */
+    public void savePartitions(List<ResourcePartition> partitions) throws AppException {
+        MongoCollection<Document> collection = getTrackerCollection();
+        Bson query = Filters.and(getCollectionFilter(), Filters.exists("partition"));
+
+        List<WriteModel<Document>> models = new ArrayList<>();
+        for (ResourcePartition partition : partitions) {
+            models.add(new UpdateOneModel<>(getPartitionFilter(partition), getBoundsUpdate(partition),
+                    new UpdateOptions().upsert(true)));
+        }
+
+        Document operation = new Document("operation", "savePartitions");
+        operation.append("resource", resource.getNamespace());
+        MongoDBHelper.performOperationWithRetry(() -> {
+            collection.deleteMany(query);
+            return collection.bulkWrite(models);
+        }, operation);
+        logger.info("saved {} partitions for resource {}", partitions.size(), resource.getNamespace());
+    }
+
+    /**
+     * Saves the bounds of a single partition, keeping the other partitions of the collection
+     *
+     * @param partition a partition of the collection
+     * @throws AppException
+     */
+    public void savePartition(ResourcePartition partition) throws AppException {
+        MongoCollection<Document> collection = getTrackerCollection();
+        Document operation = new Document("operation", "savePartition");
+        operation.append("resource", resource.getNamespace());
+        operation.append("partition", partition.getPartitionId());
+        MongoDBHelper.performOperationWithRetry(() ->
+                collection.updateOne(getPartitionFilter(partition), getBoundsUpdate(partition),
+                        new UpdateOptions().upsert(true)), operation);
+    }
+
+    /**
+     * Removes the saved tracking document of a single partition
+     *
+     * @param partition a partition of the collection
+     * @throws AppException
+     */
+    public void removePartition(ResourcePartition partition) throws AppException {
+        MongoCollection<Document> collection = getTrackerCollection();
+        Document operation = new Document("operation", "removePartition");
+        operation.append("resource", resource.getNamespace());
+        operation.append("partition", partition.getPartitionId());
+        MongoDBHelper.performOperationWithRetry(() ->
+                collection.deleteOne(getPartitionFilter(partition)), operation);
+    }
+
+    private Bson getPartitionFilter(ResourcePartition partition) {
+        return Filters.and(getCollectionFilter(), Filters.eq("partition", partition.getPartitionId()));
+    }
+
+    private Document getBoundsUpdate(ResourcePartition partition) {
+        return new Document("$set", new Document("min_id", partition.getLowerBound())
+                .append("max_id", partition.getUpperBound()));
+    }
+
+    private Bson getCollectionFilter() {
+        return Filters.and(
+                Filters.eq("reader", reader),
+                Filters.eq("database", resource.getDatabase()),
+                Filters.eq("collection", resource.getCollection()));
+    }
+
+    private MongoCollection<Document> getTrackerCollection() {
+        return MongoDBHelper.getCollection(client, resource.getDatabase(), resource.getCollection());
+    }
+}
@@ -0,0 +1,106 @@
+package com.mongodb.migratecluster.trackers;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * File: CompletionWatermark
+ * Description:
+ *
+ * A class to track the batches of a reader that are written, when the
+ * writers complete them out of order. the completed batches past the first
+ * gap are kept as ranges of batch ids, so only the gaps cost memory. the
+ * watermark is the last _id of the highest batch below which every batch
+ * is written; it is the only _id that is safe to resume after.
+ */
+public class CompletionWatermark {
+    private final TreeMap<Integer, Range> completed;
+    private int nextBatchId;
+    private Object watermarkId;
+
+    public CompletionWatermark() {
+        this.completed = new TreeMap<>();
+        this.nextBatchId = 0;
+    }
+
+    /**
+     * Records a written batch
+     *
+     * @param batchId the identifier of the batch; the batches of a reader are numbered from 0 in _id order
+     * @param lastId the _id of the last document of the batch; null for an empty batch
+     * @return the new watermark if the batch moved it; otherwise null
+     */
+    public synchronized Object complete(int batchId, Object lastId) {
+        if (batchId < nextBatchId || isCompleted(batchId)) {
+            return null;
+        }
+
+        Range range = new Range(batchId, batchId, lastId);
+        Map.Entry<Integer, Range> lower = completed.lowerEntry(batchId);
+        if (lower != null && lower.getValue().end == batchId - 1) {
+            range = lower.getValue().merge(range);
+            completed.remove(lower.getKey());
+        }
+        Range higher = completed.remove(batchId + 1);
+        if (higher != null) {
+            range = range.merge(higher);
+        }
+
+        if (range.start != nextBatchId) {
+            completed.put(range.start, range);
+            return null;
+        }
+        nextBatchId = range.end + 1;
+        if (range.lastId == null) {
+            return null;
+        }
+        watermarkId = range.lastId;
+        return watermarkId;
+    }
+
+    /**
+     * @return the last _id below which every batch is written; null if none is
+     */
+    public synchronized Object getWatermarkId() {
+        return watermarkId;
+    }
+
+    /**
+     * @return the identifier of the first batch that is not written yet
+     */
+    public synchronized int getNextBatchId() {
+        return nextBatchId;
+    }
+
+    /**
+     * @return the number of ranges of written batches waiting on a gap
+     */
+    public synchronized int getPendingRangeCount() {
+        return completed.size();
+    }
+
+    private boolean isCompleted(int batchId) {
+        Map.Entry<Integer, Range> floor = completed.floorEntry(batchId);
+        return floor != null && floor.getValue().end >= batchId;
+    }
+
+    /**
+     * a range of consecutive written batches and the last _id of the highest one
+     */
+    private static class Range {
+        private final int start;
+        private final int end;
+        private final Object lastId;
+
+        Range(int start, int end, Object lastId) {
+            this.start = start;
+            this.end = end;
+            this.lastId = lastId;
+        }
+
+        Range merge(Range higher) {
+            // an empty batch keeps the last _id of the batches before it
+            return new Range(start, higher.end, higher.lastId != null ? higher.lastId : lastId);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.mongodb.migratecluster.trackers;
+
+import com.mongodb.MongoClient;
+import com.mongodb.migratecluster.model.ResourcePartition;
+import org.bson.Document;
+
+/**
+ *
+ * File: PartitionDataTracker
+ * Description:
+ *
+ * A class representing a tracker for an _id range of a collection.
+ * It helps you track the latest document copied within the range
+ * along with the bounds of the range itself
+ *
+ */
+public class PartitionDataTracker extends CollectionDataTracker {
+    private final ResourcePartition partition;
+
+    /**
+     * @param client a MongoDB client object to work with collections
+     * @param partition a resource representing the _id range of a collection
+     * @param reader a string representation of the current reader / migrator name
+     */
+    public PartitionDataTracker(MongoClient client, ResourcePartition partition, String reader) {
+        super(client, partition, reader);
+        this.partition = partition;
+    }
+
+    /**
+     * Get's the filter that matches the tracking document of current partition
+     *
+     * @return a document representing the filter clause on the partition field
+     */
+    @Override
+    protected Document getPartitionFilter() {
+        return new Document("partition", partition.getPartitionId());
+    }
+
+    /**
+     * Get's the document representing the update command
+     *
+     * @param latestDocument a document holding the _id of latest document for current partition
+     * @return the document representation of the update $set
+     * @see Document
+     */
+    @Override
+    protected Document getUpdateDocument(Document latestDocument) {
+        Document update = new Document(trackerKey, latestDocument.get("_id"))
+                .append("min_id", partition.getLowerBound())
+                .append("max_id", partition.getUpperBound());
+        return new Document("$set", update);
+    }
+}
@@ -0,0 +1,213 @@
+package com.mongodb.migratecluster.utils;
+
+import com.mongodb.MongoClient;
+import org.bson.*;
+import org.bson.types.Decimal128;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * File: BsonValueComparator
+ * Description:
+ *
+ * A comparator that orders bson values the same way the server sorts them.
+ * values of different types are ordered by the bson type sort order, numbers
+ * are compared by their numeric value regardless of their type, and strings
+ * are compared by their utf-8 bytes (simple binary collation).
+ */
+public class BsonValueComparator implements Comparator<BsonValue> {
+    public static final BsonValueComparator INSTANCE = new BsonValueComparator();
+
+    /**
+     * Converts a value decoded by the driver back into its bson representation
+     *
+     * @param value a java value such as an ObjectId, String or Long; or a bson value
+     * @return the bson representation of the value
+     */
+    public static BsonValue toBsonValue(Object value) {
+        if (value instanceof BsonValue) {
+            return (BsonValue) value;
+        }
+        return new Document("v", value)
+                .toBsonDocument(BsonDocument.class, MongoClient.getDefaultCodecRegistry())
+                .get("v");
+    }
+
+    @Override
+    public int compare(BsonValue left, BsonValue right) {
+        int typeOrder = Integer.compare(getTypeOrder(left), getTypeOrder(right));
+        if (typeOrder != 0) {
+            return typeOrder;
+        }
+
+        switch (left.getBsonType()) {
+            case MIN_KEY:
+            case MAX_KEY:
+            case NULL:
+            case UNDEFINED:
+                return 0;
+            case INT32:
+            case INT64:
+            case DOUBLE:
+            case DECIMAL128:
+                return compareNumbers(left, right);
+            case STRING:
+            case SYMBOL:
+                return compareBytes(getString(left).getBytes(StandardCharsets.UTF_8),
+                        getString(right).getBytes(StandardCharsets.UTF_8));
+            case DOCUMENT:
+                return compareDocuments(left.asDocument(), right.asDocument());
+            case ARRAY:
+                return compareArrays(left.asArray(), right.asArray());
+            case BINARY:
+                return compareBinaries(left.asBinary(), right.asBinary());
+            case OBJECT_ID:
+                return left.asObjectId().getValue().compareTo(right.asObjectId().getValue());
+            case BOOLEAN:
+                return Boolean.compare(left.asBoolean().getValue(), right.asBoolean().getValue());
+            case DATE_TIME:
+                return Long.compare(left.asDateTime().getValue(), right.asDateTime().getValue());
+            case TIMESTAMP:
+                return left.asTimestamp().compareTo(right.asTimestamp());
+            case REGULAR_EXPRESSION:
+                int patternOrder = left.asRegularExpression().getPattern()
+                        .compareTo(right.asRegularExpression().getPattern());
+                return (patternOrder != 0)
+                        ? patternOrder
+                        : left.asRegularExpression().getOptions().compareTo(right.asRegularExpression().getOptions());
+            default:
+                return left.toString().compareTo(right.toString());
+        }
+    }
+
+    /**
+     * Get's the position of the type of the value in the bson type sort order
+     *
+     * @param value a bson value
+     * @return an integer representing the sort order of the type
+     */
+    private static int getTypeOrder(BsonValue value) {
+        switch (value.getBsonType()) {
+            case MIN_KEY: return 1;
+            case NULL:
+            case UNDEFINED: return 2;
+            case INT32:
+            case INT64:
+            case DOUBLE:
+            case DECIMAL128: return 3;
+            case STRING:
+            case SYMBOL: return 4;
+            case DOCUMENT: return 5;
+            case ARRAY: return 6;
+            case BINARY: return 7;
+            case OBJECT_ID: return 8;
+            case BOOLEAN: return 9;
+            case DATE_TIME: return 10;
+            case TIMESTAMP: return 11;
+            case REGULAR_EXPRESSION: return 12;
+            case DB_POINTER: return 13;
+            case JAVASCRIPT: return 14;
+            case JAVASCRIPT_WITH_SCOPE: return 15;
+            case MAX_KEY: return 100;
+            default: return 50;
+        }
+    }
+
+    private static int compareNumbers(BsonValue left, BsonValue right) {
+        if (isIntegral(left) && isIntegral(right)) {
+            return Long.compare(left.asNumber().longValue(), right.asNumber().longValue());
+        }
+        if (left.isDecimal128() || right.isDecimal128()) {
+            BigDecimal leftValue = toBigDecimal(left);
+            BigDecimal rightValue = toBigDecimal(right);
+            if (leftValue != null && rightValue != null) {
+                return leftValue.compareTo(rightValue);
+            }
+        }
+        return Double.compare(left.asNumber().doubleValue(), right.asNumber().doubleValue());
+    }
+
+    private static boolean isIntegral(BsonValue value) {
+        return value.isInt32() || value.isInt64();
+    }
+
+    private static BigDecimal toBigDecimal(BsonValue value) {
+        try {
+            if (value.isDecimal128()) {
+                Decimal128 decimal = value.asDecimal128().getValue();
+                return decimal.isNaN() || decimal.isInfinite() ? null : decimal.bigDecimalValue();
+            }
+            if (isIntegral(value)) {
+                return BigDecimal.valueOf(value.asNumber().longValue());
+            }
+            return BigDecimal.valueOf(value.asDouble().getValue());
+        } catch (ArithmeticException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String getString(BsonValue value) {
+        return value.isSymbol()
+                ? value.asSymbol().getSymbol()
+                : value.asString().getValue();
+    }
+
+    private static int compareBytes(byte[] left, byte[] right) {
+        int length = Math.min(left.length, right.length);
+        for (int i = 0; i < length; i++) {
+            int order = Integer.compare(left[i] & 0xff, right[i] & 0xff);
+            if (order != 0) {
+                return order;
+            }
+        }
+        return Integer.compare(left.length, right.length);
+    }
+
+    private int compareDocuments(BsonDocument left, BsonDocument right) {
+        Iterator<Map.Entry<String, BsonValue>> leftIterator = left.entrySet().iterator();
+        Iterator<Map.Entry<String, BsonValue>> rightIterator = right.entrySet().iterator();
+        while (leftIterator.hasNext() && rightIterator.hasNext()) {
+            Map.Entry<String, BsonValue> leftEntry = leftIterator.next();
+            Map.Entry<String, BsonValue> rightEntry = rightIterator.next();
+
+            int order = Integer.compare(getTypeOrder(leftEntry.getValue()), getTypeOrder(rightEntry.getValue()));
+            if (order == 0) {
+                order = compareBytes(leftEntry.getKey().getBytes(StandardCharsets.UTF_8),
+                        rightEntry.getKey().getBytes(StandardCharsets.UTF_8));
+            }
+            if (order == 0) {
+                order = compare(leftEntry.getValue(), rightEntry.getValue());
+            }
+            if (order != 0) {
+                return order;
+            }
+        }
+        return Boolean.compare(leftIterator.hasNext(), rightIterator.hasNext());
+    }
+
+    private int compareArrays(BsonArray left, BsonArray right) {
+        int length = Math.min(left.size(), right.size());
+        for (int i = 0; i < length; i++) {
+            int order = compare(left.get(i), right.get(i));
+            if (order != 0) {
+                return order;
+            }
+        }
+        return Integer.compare(left.size(), right.size());
+    }
+
+    private static int compareBinaries(BsonBinary left, BsonBinary right) {
+        int order = Integer.compare(left.getData().length, right.getData().length);
+        if (order == 0) {
+            order = Integer.compare(left.getType() & 0xff, right.getType() & 0xff);
+        }
+        if (order == 0) {
+            order = compareBytes(left.getData(), right.getData());
+        }
+        return order;
+    }
+}
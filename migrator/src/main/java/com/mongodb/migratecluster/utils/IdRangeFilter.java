@@ -0,0 +1,108 @@
+package com.mongodb.migratecluster.utils;
+
+import com.mongodb.client.model.Filters;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * File: IdRangeFilter
+ * Description:
+ *
+ * A class to build the filter of an _id range that matches every _id between
+ * the bounds in the sort order of the server. a comparison such as $gte only
+ * matches values of the same type bracket as its bound, so an _id of another
+ * type would match no range at all. the types sorting strictly between the
+ * brackets of the bounds, or beyond an open bound, are matched with $type.
+ */
+public class IdRangeFilter {
+    // the bson types of each bracket, in the sort order of the server
+    private static final List<List<BsonType>> BRACKETS = Arrays.asList(
+            Arrays.asList(BsonType.MIN_KEY),
+            Arrays.asList(BsonType.NULL, BsonType.UNDEFINED),
+            Arrays.asList(BsonType.DOUBLE, BsonType.INT32, BsonType.INT64, BsonType.DECIMAL128),
+            Arrays.asList(BsonType.STRING, BsonType.SYMBOL),
+            Arrays.asList(BsonType.DOCUMENT),
+            Arrays.asList(BsonType.ARRAY),
+            Arrays.asList(BsonType.BINARY),
+            Arrays.asList(BsonType.OBJECT_ID),
+            Arrays.asList(BsonType.BOOLEAN),
+            Arrays.asList(BsonType.DATE_TIME),
+            Arrays.asList(BsonType.TIMESTAMP),
+            Arrays.asList(BsonType.REGULAR_EXPRESSION),
+            Arrays.asList(BsonType.DB_POINTER),
+            Arrays.asList(BsonType.JAVASCRIPT),
+            Arrays.asList(BsonType.JAVASCRIPT_WITH_SCOPE),
+            Arrays.asList(BsonType.MAX_KEY));
+
+    private IdRangeFilter() {
+    }
+
+    /**
+     * Get's the filter of the _ids between the given bounds
+     *
+     * @param lowerBound the lower _id bound; null if unbounded
+     * @param lowerInclusive a boolean representing if the lower bound itself is in the range
+     * @param upperBound the exclusive upper _id bound; null if unbounded
+     * @return a filter on _id matching every value between the bounds, whatever its type
+     */
+    public static Bson getFilter(Object lowerBound, boolean lowerInclusive, Object upperBound) {
+        if (lowerBound == null && upperBound == null) {
+            return new Document();
+        }
+
+        int lowerBracket = (lowerBound == null) ? -1 : getBracket(lowerBound);
+        int upperBracket = (upperBound == null) ? BRACKETS.size() : getBracket(upperBound);
+        Bson lowerFilter = (lowerBound == null)
+                ? null
+                : (lowerInclusive ? Filters.gte("_id", lowerBound) : Filters.gt("_id", lowerBound));
+        Bson upperFilter = (upperBound == null) ? null : Filters.lt("_id", upperBound);
+        if (lowerBracket == upperBracket) {
+            return Filters.and(lowerFilter, upperFilter);
+        }
+
+        List<Bson> filters = new ArrayList<>();
+        if (lowerFilter != null) {
+            filters.add(lowerFilter);
+        }
+        if (upperFilter != null) {
+            filters.add(upperFilter);
+        }
+        List<Integer> types = new ArrayList<>();
+        for (int bracket = lowerBracket + 1; bracket < upperBracket; bracket++) {
+            BRACKETS.get(bracket).forEach(type -> types.add(type.getValue()));
+        }
+        if (!types.isEmpty()) {
+            filters.add(new Document("_id", new Document("$type", types)));
+        }
+        return (filters.size() == 1) ? filters.get(0) : Filters.or(filters);
+    }
+
+    /**
+     * Get's the filter of the _ids sorting after the given _id
+     *
+     * @param id an _id already read
+     * @return a filter on _id matching every value greater than the given _id, whatever its type
+     */
+    public static Bson getFilterAfter(Object id) {
+        return getFilter(id, false, null);
+    }
+
+    /**
+     * @param value an _id value
+     * @return the position of the type bracket of the value in the sort order of the server
+     */
+    static int getBracket(Object value) {
+        BsonType type = BsonValueComparator.toBsonValue(value).getBsonType();
+        for (int bracket = 0; bracket < BRACKETS.size(); bracket++) {
+            if (BRACKETS.get(bracket).contains(type)) {
+                return bracket;
+            }
+        }
+        throw new IllegalArgumentException(String.format("unsupported _id type %s", type));
+    }
+}
@@ -0,0 +1,82 @@
+package com.mongodb.migratecluster.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * File: RingBuffer
+ * Description:
+ *
+ * A bounded single producer, single consumer queue backed by preallocated
+ * slots. the producer and the consumer each own their own sequence and only
+ * publish it to the other side, so neither takes a lock. a producer that
+ * waits on a full buffer pushes back on whatever it is reading from.
+ */
+public class RingBuffer<T> {
+    private final Object[] slots;
+    private final int mask;
+    // the sequence of the next slot to write; written by the producer only
+    private final AtomicLong tail;
+    // the sequence of the next slot to read; written by the consumer only
+    private final AtomicLong head;
+
+    /**
+     * @param capacity the number of slots; rounded up to a power of two
+     */
+    public RingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new Object[size];
+        this.mask = size - 1;
+        this.tail = new AtomicLong();
+        this.head = new AtomicLong();
+    }
+
+    /**
+     * @return the number of slots
+     */
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * @return the number of items waiting for the consumer
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    /**
+     * Adds the item if there is a free slot; called by the producer only
+     *
+     * @param item the item to add
+     * @return true if the item was added; false if the buffer is full
+     */
+    public boolean offer(T item) {
+        long sequence = tail.get();
+        if (sequence - head.get() == slots.length) {
+            return false;
+        }
+        slots[(int) sequence & mask] = item;
+        // publishes the slot to the consumer
+        tail.lazySet(sequence + 1);
+        return true;
+    }
+
+    /**
+     * Takes the oldest item; called by the consumer only
+     *
+     * @return the oldest item; null if the buffer is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        long sequence = head.get();
+        if (sequence == tail.get()) {
+            return null;
+        }
+        int index = (int) sequence & mask;
+        T item = (T) slots[index];
+        slots[index] = null;
+        // hands the slot back to the producer
+        head.lazySet(sequence + 1);
+        return item;
+    }
+}
@@ -0,0 +1,129 @@
+package com.mongodb.migratecluster.verify;
+
+import com.mongodb.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.migratecluster.AppException;
+import com.mongodb.migratecluster.helpers.ModificationHelper;
+import com.mongodb.migratecluster.migrators.MigratorSettings;
+import com.mongodb.migratecluster.model.Resource;
+import com.mongodb.migratecluster.model.ResourcePartition;
+import com.mongodb.migratecluster.throttling.SourceThrottle;
+import com.mongodb.migratecluster.utils.BsonValueComparator;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.conversions.Bson;
+
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * File: PartitionVerifier
+ * Description:
+ *
+ * A class to compare a collection or an _id range of it on source with its
+ * copy on target. both sides are read with an _id sorted cursor and merge
+ * joined, so only the current batch of each cursor is held in memory. the
+ * documents with the same _id are compared on a digest of their raw bson
+ * bytes; a document with the same fields in a different order differs.
+ */
+public class PartitionVerifier {
+    private final MongoClient sourceClient;
+    private final MongoClient targetClient;
+    private final ModificationHelper modificationHelper;
+    private final SourceThrottle sourceThrottle;
+
+    /**
+     * @param sourceClient a MongoDB client object pointing to the source
+     * @param targetClient a MongoDB client object pointing to the target
+     * @param modificationHelper the helper mapping the source namespaces to the target ones
+     * @param sourceThrottle the limits on the documents and bytes read per second from the source
+     */
+    public PartitionVerifier(MongoClient sourceClient, MongoClient targetClient,
+                             ModificationHelper modificationHelper, SourceThrottle sourceThrottle) {
+        this.sourceClient = sourceClient;
+        this.targetClient = targetClient;
+        this.modificationHelper = modificationHelper;
+        this.sourceThrottle = sourceThrottle;
+    }
+
+    /**
+     * Compares every document of the resource on source and target
+     *
+     * @param resource a collection in a database or an _id range of it
+     * @return the counts and the first _ids of the missing, extra and differing documents
+     * @throws AppException when the digest algorithm is not available or interrupted on the source throttle
+     */
+    public VerificationResult verify(Resource resource) throws AppException {
+        MessageDigest digest = RangeDigest.getMessageDigest();
+        Resource mappedResource = modificationHelper.getMappedResource(resource);
+        Bson filter = (resource instanceof ResourcePartition)
+                ? ((ResourcePartition) resource).getRangeFilter()
+                : new Document();
+
+        VerificationResult result = new VerificationResult(resource.toString());
+        try (MongoCursor<RawBsonDocument> source = getCursor(sourceClient, resource, filter);
+             MongoCursor<RawBsonDocument> target = getCursor(targetClient, mappedResource, filter)) {
+            RawBsonDocument sourceDocument = nextFromSource(source);
+            RawBsonDocument targetDocument = next(target);
+            while (sourceDocument != null || targetDocument != null) {
+                int order;
+                if (sourceDocument == null) {
+                    order = 1;
+                }
+                else if (targetDocument == null) {
+                    order = -1;
+                }
+                else {
+                    order = BsonValueComparator.INSTANCE.compare(sourceDocument.get("_id"), targetDocument.get("_id"));
+                }
+
+                if (order < 0) {
+                    result.addMissing(sourceDocument.get("_id"));
+                    sourceDocument = nextFromSource(source);
+                }
+                else if (order > 0) {
+                    result.addExtra(targetDocument.get("_id"));
+                    targetDocument = next(target);
+                }
+                else {
+                    if (Arrays.equals(getHash(digest, sourceDocument), getHash(digest, targetDocument))) {
+                        result.addMatched();
+                    }
+                    else {
+                        result.addDiffering(sourceDocument.get("_id"));
+                    }
+                    sourceDocument = nextFromSource(source);
+                    targetDocument = next(target);
+                }
+            }
+        }
+        return result;
+    }
+
+    private MongoCursor<RawBsonDocument> getCursor(MongoClient client, Resource resource, Bson filter) {
+        MongoCollection<RawBsonDocument> collection = client.getDatabase(resource.getDatabase())
+                .getCollection(resource.getCollection(), RawBsonDocument.class);
+        return collection.find(filter)
+                .sort(new Document("_id", 1))
+                .batchSize(MigratorSettings.VERIFY_BATCH_SIZE)
+                .iterator();
+    }
+
+    private RawBsonDocument nextFromSource(MongoCursor<RawBsonDocument> cursor) throws AppException {
+        RawBsonDocument document = next(cursor);
+        if (document != null) {
+            RangeDigest.acquire(sourceThrottle, 1, document.getByteBuffer().remaining());
+        }
+        return document;
+    }
+
+    private static RawBsonDocument next(MongoCursor<RawBsonDocument> cursor) {
+        return cursor.hasNext() ? cursor.next() : null;
+    }
+
+    private static byte[] getHash(MessageDigest digest, RawBsonDocument document) {
+        digest.update(document.getByteBuffer().asNIO());
+        return digest.digest();
+    }
+}
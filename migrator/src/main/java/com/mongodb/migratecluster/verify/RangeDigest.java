@@ -0,0 +1,113 @@
+package com.mongodb.migratecluster.verify;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.migratecluster.AppException;
+import com.mongodb.migratecluster.migrators.MigratorSettings;
+import com.mongodb.migratecluster.throttling.SourceThrottle;
+import org.bson.RawBsonDocument;
+import org.bson.conversions.Bson;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * File: RangeDigest
+ * Description:
+ *
+ * A class representing the digest of the documents in an _id range. the
+ * digest is the count and the sum of a 64 bit hash of the raw bson bytes of
+ * each document, so it does not depend on the order the documents are read in.
+ */
+public class RangeDigest {
+    private final long count;
+    private final long hashSum;
+
+    public RangeDigest(long count, long hashSum) {
+        this.count = count;
+        this.hashSum = hashSum;
+    }
+
+    /**
+     * Computes the digest of the documents in the collection matching the filter
+     *
+     * @param collection a collection of raw documents on source or target
+     * @param filter a filter limiting the documents to an _id range
+     * @param digest the message digest used to hash each document
+     * @param sourceThrottle the limits on the reads from the source; null if the collection is on target
+     * @return the digest of the range
+     * @throws AppException when interrupted while waiting on the source throttle
+     */
+    public static RangeDigest compute(MongoCollection<RawBsonDocument> collection, Bson filter, MessageDigest digest,
+                                      SourceThrottle sourceThrottle) throws AppException {
+        long count = 0;
+        long hashSum = 0;
+        try (MongoCursor<RawBsonDocument> cursor = collection.find(filter)
+                .batchSize(MigratorSettings.VERIFY_BATCH_SIZE)
+                .iterator()) {
+            while (cursor.hasNext()) {
+                RawBsonDocument document = cursor.next();
+                if (sourceThrottle != null) {
+                    acquire(sourceThrottle, 1, document.getByteBuffer().remaining());
+                }
+                digest.update(document.getByteBuffer().asNIO());
+                hashSum += ByteBuffer.wrap(digest.digest()).getLong();
+                count++;
+            }
+        }
+        return new RangeDigest(count, hashSum);
+    }
+
+    /**
+     * Waits until the documents read from the source are within the rates of the throttle
+     *
+     * @param sourceThrottle the limits on the reads from the source
+     * @param documents the number of documents read
+     * @param bytes the size of the documents read
+     * @throws AppException when interrupted while waiting
+     */
+    static void acquire(SourceThrottle sourceThrottle, int documents, long bytes) throws AppException {
+        try {
+            sourceThrottle.acquire(documents, bytes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AppException("interrupted while waiting on the source throttle", e);
+        }
+    }
+
+    /**
+     * @return a new digest of the raw bson bytes of a document; a digest is not thread safe
+     * @throws AppException when the digest algorithm is not available
+     */
+    public static MessageDigest getMessageDigest() throws AppException {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AppException("the MD5 digest is not available", e);
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof RangeDigest)) {
+            return false;
+        }
+        RangeDigest digest = (RangeDigest) other;
+        return count == digest.count && hashSum == digest.hashSum;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(count * 31 + hashSum);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("{ count: %d, hash: %016x }", count, hashSum);
+    }
+}
@@ -0,0 +1,150 @@
+package com.mongodb.migratecluster.verify;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.migratecluster.AppException;
+import com.mongodb.migratecluster.helpers.ModificationHelper;
+import com.mongodb.migratecluster.helpers.MongoDBHelper;
+import com.mongodb.migratecluster.migrators.MigratorSettings;
+import com.mongodb.migratecluster.model.BatchLimits;
+import com.mongodb.migratecluster.model.Resource;
+import com.mongodb.migratecluster.model.ResourcePartition;
+import com.mongodb.migratecluster.throttling.SourceThrottle;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * File: RangeResyncer
+ * Description:
+ *
+ * A class to bring an _id range of a collection on target in line with the
+ * source. the digests of the range on both sides are compared first, and
+ * only a range that differs is re-copied; its documents on target are
+ * deleted and the documents on source are inserted in batches.
+ */
+public class RangeResyncer {
+    private final static Logger logger = LoggerFactory.getLogger(RangeResyncer.class);
+    private final static int DUPLICATE_KEY_ERROR_CODE = 11000;
+    private final MongoClient sourceClient;
+    private final MongoClient targetClient;
+    private final ModificationHelper modificationHelper;
+    private final BatchLimits batchLimits;
+    private final SourceThrottle sourceThrottle;
+
+    /**
+     * @param sourceClient a MongoDB client object pointing to the source
+     * @param targetClient a MongoDB client object pointing to the target
+     * @param modificationHelper the helper mapping the source namespaces to the target ones
+     * @param batchLimits the limits at which the re-copied documents are cut into batches
+     * @param sourceThrottle the limits on the documents and bytes read per second from the source
+     */
+    public RangeResyncer(MongoClient sourceClient, MongoClient targetClient, ModificationHelper modificationHelper,
+                         BatchLimits batchLimits, SourceThrottle sourceThrottle) {
+        this.sourceClient = sourceClient;
+        this.targetClient = targetClient;
+        this.modificationHelper = modificationHelper;
+        this.batchLimits = batchLimits;
+        this.sourceThrottle = sourceThrottle;
+    }
+
+    /**
+     * Re-copies the range if its digest on target differs from source
+     *
+     * @param range an _id range of a collection
+     * @return the number of documents re-copied; -1 if the range was already in sync
+     * @throws AppException when the digest algorithm is not available or the range could not be written
+     */
+    public long resync(ResourcePartition range) throws AppException {
+        MessageDigest digest = RangeDigest.getMessageDigest();
+        Resource mappedResource = modificationHelper.getMappedResource(range);
+        MongoCollection<RawBsonDocument> source = getCollection(sourceClient, range);
+        MongoCollection<RawBsonDocument> target = getCollection(targetClient, mappedResource);
+        Bson filter = range.getRangeFilter();
+
+        RangeDigest sourceDigest = RangeDigest.compute(source, filter, digest, sourceThrottle);
+        RangeDigest targetDigest = RangeDigest.compute(target, filter, digest, null);
+        if (sourceDigest.equals(targetDigest)) {
+            logger.debug("range {} is in sync; digest {}", range, sourceDigest);
+            return -1;
+        }
+
+        logger.info("range {} differs; source digest {}, target digest {}. re-copying it",
+                range, sourceDigest, targetDigest);
+        Document operation = new Document("operation", "deleteMany")
+                .append("namespace", mappedResource.getNamespace());
+        if (MongoDBHelper.performOperationWithRetry(() -> target.deleteMany(filter), operation) == null) {
+            throw new AppException(String.format("could not delete the documents of range %s on target", range));
+        }
+        return copyRange(source, target, filter);
+    }
+
+    private long copyRange(MongoCollection<RawBsonDocument> source, MongoCollection<RawBsonDocument> target,
+                           Bson filter) throws AppException {
+        long copied = 0;
+        long bytes = 0;
+        List<RawBsonDocument> documents = new ArrayList<>();
+        try (MongoCursor<RawBsonDocument> cursor = source.find(filter)
+                .sort(new Document("_id", 1))
+                .batchSize(batchLimits.getMaxDocuments())
+                .iterator()) {
+            while (cursor.hasNext()) {
+                RawBsonDocument document = cursor.next();
+                documents.add(document);
+                bytes += document.getByteBuffer().remaining();
+                if (batchLimits.isReached(documents.size(), bytes)) {
+                    RangeDigest.acquire(sourceThrottle, documents.size(), bytes);
+                    copied += insertDocuments(target, documents);
+                    documents = new ArrayList<>();
+                    bytes = 0;
+                }
+            }
+        }
+        if (!documents.isEmpty()) {
+            RangeDigest.acquire(sourceThrottle, documents.size(), bytes);
+            copied += insertDocuments(target, documents);
+        }
+        return copied;
+    }
+
+    private int insertDocuments(MongoCollection<RawBsonDocument> target, List<RawBsonDocument> documents) throws AppException {
+        Document operation = new Document("operation", "insertMany")
+                .append("namespace", target.getNamespace().getFullName());
+        Integer inserted;
+        try {
+            inserted = MongoDBHelper.performOperationWithRetry(() -> {
+                target.insertMany(documents, new InsertManyOptions().ordered(false));
+                return documents.size();
+            }, operation);
+        }
+        catch (MongoBulkWriteException e) {
+            // a retry of a partially applied insertMany finds the documents inserted by the first attempt
+            boolean duplicatesOnly = e.getWriteErrors().stream()
+                    .allMatch(error -> error.getCode() == DUPLICATE_KEY_ERROR_CODE);
+            if (!duplicatesOnly) {
+                throw new AppException(String.format("could not insert %d documents on target %s",
+                        documents.size(), target.getNamespace().getFullName()), e);
+            }
+            inserted = documents.size();
+        }
+        if (inserted == null) {
+            throw new AppException(String.format("could not insert %d documents on target %s",
+                    documents.size(), target.getNamespace().getFullName()));
+        }
+        return inserted;
+    }
+
+    private static MongoCollection<RawBsonDocument> getCollection(MongoClient client, Resource resource) {
+        return client.getDatabase(resource.getDatabase())
+                .getCollection(resource.getCollection(), RawBsonDocument.class);
+    }
+}
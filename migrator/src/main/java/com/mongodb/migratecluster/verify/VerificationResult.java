@@ -0,0 +1,118 @@
+package com.mongodb.migratecluster.verify;
+
+import com.mongodb.migratecluster.migrators.MigratorSettings;
+import org.bson.BsonValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * File: VerificationResult
+ * Description:
+ *
+ * A class holding the outcome of comparing a resource on source and target.
+ * every discrepancy is counted, but only the first few _ids of each kind are
+ * kept, so the result of a badly diverged collection stays small.
+ */
+public class VerificationResult {
+    private final String name;
+    private long matched;
+    private long missing;
+    private long extra;
+    private long differing;
+    private final List<BsonValue> missingIds;
+    private final List<BsonValue> extraIds;
+    private final List<BsonValue> differingIds;
+
+    /**
+     * @param name the name of the resource compared
+     */
+    public VerificationResult(String name) {
+        this.name = name;
+        this.missingIds = new ArrayList<>();
+        this.extraIds = new ArrayList<>();
+        this.differingIds = new ArrayList<>();
+    }
+
+    public void addMatched() {
+        matched++;
+    }
+
+    /**
+     * @param id the _id of a document on source that is not on target
+     */
+    public void addMissing(BsonValue id) {
+        missing++;
+        addId(missingIds, id);
+    }
+
+    /**
+     * @param id the _id of a document on target that is not on source
+     */
+    public void addExtra(BsonValue id) {
+        extra++;
+        addId(extraIds, id);
+    }
+
+    /**
+     * @param id the _id of a document whose bytes on target differ from source
+     */
+    public void addDiffering(BsonValue id) {
+        differing++;
+        addId(differingIds, id);
+    }
+
+    /**
+     * Adds up the outcome of another resource into this one
+     *
+     * @param other the result of a partition or a collection
+     */
+    public synchronized void merge(VerificationResult other) {
+        matched += other.matched;
+        missing += other.missing;
+        extra += other.extra;
+        differing += other.differing;
+        other.missingIds.forEach(id -> addId(missingIds, id));
+        other.extraIds.forEach(id -> addId(extraIds, id));
+        other.differingIds.forEach(id -> addId(differingIds, id));
+    }
+
+    public long getCompared() {
+        return matched + differing;
+    }
+
+    public long getMissing() {
+        return missing;
+    }
+
+    public long getExtra() {
+        return extra;
+    }
+
+    public long getDiffering() {
+        return differing;
+    }
+
+    /**
+     * @return the total number of missing, extra and differing documents
+     */
+    public long getDiscrepancies() {
+        return missing + extra + differing;
+    }
+
+    private static void addId(List<BsonValue> ids, BsonValue id) {
+        if (ids.size() < MigratorSettings.VERIFY_MAX_REPORTED_IDS) {
+            ids.add(id);
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (getDiscrepancies() == 0) {
+            return String.format("{ resource: %s, compared: %d, matched: %d }", name, getCompared(), matched);
+        }
+        return String.format("{ resource: %s, compared: %d, matched: %d, missing: %d, extra: %d, differing: %d, " +
+                        "missingIds: %s, extraIds: %s, differingIds: %s }",
+                name, getCompared(), matched, missing, extra, differing, missingIds, extraIds, differingIds);
+    }
+}
@@ -0,0 +1,99 @@
+package com.mongodb.migratecluster.helpers;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.Tag;
+import com.mongodb.TagSet;
+import com.mongodb.TaggableReadPreference;
+import com.mongodb.migratecluster.AppException;
+import com.mongodb.migratecluster.commandline.ReadPreferenceOptions;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * File: MongoDBHelperTest
+ * Description:
+ */
+public class MongoDBHelperTest {
+
+    @Test
+    public void optionsWithoutModeKeepTheDefault() {
+        Assert.assertEquals(MongoDBHelper.getReadPreference(null, ReadPreference.secondaryPreferred()),
+                ReadPreference.secondaryPreferred());
+        Assert.assertEquals(MongoDBHelper.getReadPreference(new ReadPreferenceOptions(), ReadPreference.primary()),
+                ReadPreference.primary());
+    }
+
+    @Test
+    public void primary() throws AppException {
+        ReadPreferenceOptions options = getOptions("primary");
+        options.validate("copyReadPreference");
+
+        Assert.assertEquals(MongoDBHelper.getReadPreference(options, null), ReadPreference.primary());
+    }
+
+    @Test(expected = AppException.class)
+    public void primaryWithTagSetsIsRejected() throws AppException {
+        ReadPreferenceOptions options = getOptions("primary");
+        options.setTagSets(Collections.singletonList(new HashMap<>()));
+        options.validate("copyReadPreference");
+    }
+
+    @Test(expected = AppException.class)
+    public void primaryWithStalenessIsRejected() throws AppException {
+        ReadPreferenceOptions options = getOptions("primary");
+        options.setMaxStalenessSeconds(120L);
+        options.validate("copyReadPreference");
+    }
+
+    @Test
+    public void primaryPreferred() {
+        Assert.assertEquals(MongoDBHelper.getReadPreference(getOptions("primaryPreferred"), null),
+                ReadPreference.primaryPreferred());
+    }
+
+    @Test
+    public void secondaryWithTagSets() throws AppException {
+        ReadPreferenceOptions options = getOptions("secondary");
+        Map<String, String> analytics = new HashMap<>();
+        analytics.put("use", "analytics");
+        options.setTagSets(Arrays.asList(analytics, new HashMap<>()));
+        options.validate("copyReadPreference");
+
+        List<TagSet> tagSets = Arrays.asList(new TagSet(new Tag("use", "analytics")), new TagSet());
+        Assert.assertEquals(MongoDBHelper.getReadPreference(options, null), ReadPreference.secondary(tagSets));
+    }
+
+    @Test
+    public void secondaryPreferredWithStaleness() throws AppException {
+        ReadPreferenceOptions options = getOptions("secondaryPreferred");
+        options.setMaxStalenessSeconds(120L);
+        options.validate("oplogReadPreference");
+
+        TaggableReadPreference readPreference = (TaggableReadPreference) MongoDBHelper.getReadPreference(options, null);
+        Assert.assertEquals(readPreference.getName(), "secondaryPreferred");
+        Assert.assertEquals(readPreference.getMaxStaleness(TimeUnit.SECONDS), Long.valueOf(120));
+    }
+
+    @Test
+    public void nearest() {
+        Assert.assertEquals(MongoDBHelper.getReadPreference(getOptions("nearest"), null), ReadPreference.nearest());
+    }
+
+    @Test(expected = AppException.class)
+    public void unknownModeIsRejected() throws AppException {
+        getOptions("fastest").validate("trackerReadPreference");
+    }
+
+    private ReadPreferenceOptions getOptions(String mode) {
+        ReadPreferenceOptions options = new ReadPreferenceOptions();
+        options.setMode(mode);
+        return options;
+    }
+}
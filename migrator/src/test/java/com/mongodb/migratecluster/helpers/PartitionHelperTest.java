@@ -0,0 +1,155 @@
+package com.mongodb.migratecluster.helpers;
+
+import com.mongodb.MongoClient;
+import com.mongodb.migratecluster.model.Resource;
+import com.mongodb.migratecluster.model.ResourcePartition;
+import com.mongodb.migratecluster.utils.BsonValueComparator;
+import com.mongodb.migratecluster.utils.IdRangeFilter;
+import org.bson.*;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * File: PartitionHelperTest
+ * Description:
+ */
+public class PartitionHelperTest {
+    private final Resource resource = new Resource("social", "users");
+
+    private final List<BsonValue> ids = Arrays.asList(
+            new BsonNull(),
+            new BsonInt32(-5), new BsonInt64(7L), new BsonDouble(7.5),
+            new BsonString("alice"), new BsonString("zoe"),
+            new BsonDocument("region", new BsonString("us")),
+            new BsonBinary(new byte[] { 1, 2 }),
+            new BsonObjectId(new ObjectId("5c3e1ba0a1b2c3d4e5f60718")),
+            new BsonObjectId(new ObjectId("6c3e1ba0a1b2c3d4e5f60718")),
+            new BsonBoolean(true),
+            new BsonDateTime(1547600000000L),
+            new BsonTimestamp(1547600000, 1));
+
+    @Test
+    public void boundariesAreDistinctAndEvenlySpread() {
+        List<Object> samples = Arrays.asList(1, 2, 2, 2, 3, 4, 5, 6, 7, 8);
+
+        Assert.assertEquals(PartitionHelper.getBoundaries(samples, 5), Arrays.asList(2, 3, 5, 7));
+        Assert.assertEquals(PartitionHelper.getBoundaries(new ArrayList<>(), 4), new ArrayList<>());
+    }
+
+    @Test
+    public void midpointKeepsTheTypeOfTheIds() {
+        Assert.assertEquals(PartitionHelper.getMidpoint(new BsonInt32(10), new BsonInt32(20)), new BsonInt32(15));
+        Assert.assertEquals(PartitionHelper.getMidpoint(new BsonInt32(10), new BsonInt64(20)), new BsonInt64(15));
+        Assert.assertEquals(PartitionHelper.getMidpoint(new BsonDateTime(1000), new BsonDateTime(3000)), new BsonDateTime(2000));
+        Assert.assertEquals(PartitionHelper.getMidpoint(
+                new BsonObjectId(new ObjectId("000000000000000000000000")),
+                new BsonObjectId(new ObjectId("000000000000000000000010"))),
+                new BsonObjectId(new ObjectId("000000000000000000000008")));
+        Assert.assertNull(PartitionHelper.getMidpoint(new BsonString("a"), new BsonString("b")));
+        Assert.assertNull(PartitionHelper.getMidpoint(new BsonInt32(1), new BsonObjectId()));
+    }
+
+    @Test
+    public void everyIdFallsInExactlyOnePartitionWhateverItsType() {
+        // sampled from an ObjectId keyed collection holding a few ids of other types
+        List<Object> boundaries = Arrays.asList(
+                new ObjectId("5c3e1ba0a1b2c3d4e5f60718"), new ObjectId("5f3e1ba0a1b2c3d4e5f60718"));
+        List<ResourcePartition> partitions = getPartitions(boundaries);
+        assertEveryIdInOnePartition(partitions);
+
+        // bounds of different types
+        assertEveryIdInOnePartition(getPartitions(Arrays.asList(0, "m", new ObjectId("6000000000000000000000ff"), new Date(0))));
+    }
+
+    @Test
+    public void resumeFilterMatchesEveryLaterIdWhateverItsType() {
+        BsonValue latestId = new BsonString("alice");
+        Bson filter = IdRangeFilter.getFilterAfter(latestId.asString().getValue());
+        for (BsonValue id : ids) {
+            Assert.assertEquals(id.toString(), matches(filter, id),
+                    BsonValueComparator.INSTANCE.compare(id, latestId) > 0);
+        }
+    }
+
+    private List<ResourcePartition> getPartitions(List<Object> boundaries) {
+        List<ResourcePartition> partitions = new ArrayList<>();
+        Object lowerBound = null;
+        for (Object boundary : boundaries) {
+            partitions.add(new ResourcePartition(resource, partitions.size(), lowerBound, boundary));
+            lowerBound = boundary;
+        }
+        partitions.add(new ResourcePartition(resource, partitions.size(), lowerBound, null));
+        return partitions;
+    }
+
+    private void assertEveryIdInOnePartition(List<ResourcePartition> partitions) {
+        for (BsonValue id : ids) {
+            long matching = partitions.stream()
+                    .filter(partition -> matches(partition.getRangeFilter(), id))
+                    .count();
+            Assert.assertEquals(id.toString(), matching, 1L);
+        }
+    }
+
+    /**
+     * evaluates an _id filter the way the server does; comparisons only match values of the same type bracket
+     */
+    private static boolean matches(Bson filter, BsonValue id) {
+        BsonDocument document = filter.toBsonDocument(BsonDocument.class, MongoClient.getDefaultCodecRegistry());
+        for (Map.Entry<String, BsonValue> clause : document.entrySet()) {
+            if (!matchesClause(clause.getKey(), clause.getValue(), id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matchesClause(String key, BsonValue value, BsonValue id) {
+        switch (key) {
+            case "$and":
+                return value.asArray().stream().allMatch(item -> matches(item.asDocument(), id));
+            case "$or":
+                return value.asArray().stream().anyMatch(item -> matches(item.asDocument(), id));
+            case "_id":
+                for (Map.Entry<String, BsonValue> condition : value.asDocument().entrySet()) {
+                    if (!matchesCondition(condition.getKey(), condition.getValue(), id)) {
+                        return false;
+                    }
+                }
+                return true;
+            default:
+                throw new IllegalArgumentException(key);
+        }
+    }
+
+    private static boolean matchesCondition(String operator, BsonValue bound, BsonValue id) {
+        if ("$type".equals(operator)) {
+            return bound.asArray().stream().anyMatch(type -> type.asInt32().getValue() == id.getBsonType().getValue());
+        }
+        if (getBracket(bound) != getBracket(id)) {
+            return false;
+        }
+        int order = BsonValueComparator.INSTANCE.compare(id, bound);
+        switch (operator) {
+            case "$gt": return order > 0;
+            case "$gte": return order >= 0;
+            case "$lt": return order < 0;
+            default: throw new IllegalArgumentException(operator);
+        }
+    }
+
+    /**
+     * values of different type brackets never compare in a query; all the numbers share a bracket
+     */
+    private static int getBracket(BsonValue value) {
+        return value.isNumber() || value.isDecimal128() ? -1 : value.getBsonType().getValue();
+    }
+}
@@ -0,0 +1,63 @@
+package com.mongodb.migratecluster.helpers;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.types.MaxKey;
+import org.bson.types.MinKey;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * File: TargetChunkRouterTest
+ * Description:
+ */
+public class TargetChunkRouterTest {
+    private final TargetChunkRouter router = new TargetChunkRouter(
+            new Document("region", 1).append("user.id", 1),
+            Arrays.asList(
+                    new Document("region", "eu").append("user.id", 100),
+                    new Document("region", new MinKey()).append("user.id", new MinKey()),
+                    new Document("region", "us").append("user.id", new MinKey())));
+
+    @Test
+    public void documentsAreRoutedToTheChunkHoldingTheirKey() {
+        Assert.assertEquals(router.getChunkCount(), 3);
+        Assert.assertEquals(router.getChunkIndex(BsonDocument.parse("{ region: 'ap', user: { id: 5 } }")), 0);
+        Assert.assertEquals(router.getChunkIndex(BsonDocument.parse("{ region: 'eu', user: { id: 99 } }")), 0);
+        Assert.assertEquals(router.getChunkIndex(BsonDocument.parse("{ region: 'eu', user: { id: 100 } }")), 1);
+        Assert.assertEquals(router.getChunkIndex(BsonDocument.parse("{ region: 'us', user: { id: 1 } }")), 2);
+    }
+
+    @Test
+    public void missingShardKeyFieldsAreRoutedAsNull() {
+        Assert.assertEquals(router.getChunkIndex(BsonDocument.parse("{ _id: 1 }")), 0);
+    }
+
+    @Test
+    public void batchesAreGroupedByChunkInOrder() {
+        List<BsonDocument> documents = new ArrayList<>();
+        documents.add(BsonDocument.parse("{ _id: 1, region: 'us', user: { id: 1 } }"));
+        documents.add(BsonDocument.parse("{ _id: 2, region: 'ap', user: { id: 1 } }"));
+        documents.add(BsonDocument.parse("{ _id: 3, region: 'us', user: { id: 2 } }"));
+
+        Collection<List<BsonDocument>> groups = router.group(documents);
+        List<List<BsonDocument>> list = new ArrayList<>(groups);
+
+        Assert.assertEquals(list.size(), 2);
+        Assert.assertEquals(list.get(0).get(0).getInt32("_id").getValue(), 2);
+        Assert.assertEquals(list.get(1).get(0).getInt32("_id").getValue(), 1);
+        Assert.assertEquals(list.get(1).get(1).getInt32("_id").getValue(), 3);
+    }
+
+    @Test
+    public void maxKeyIsAboveEveryValue() {
+        TargetChunkRouter single = new TargetChunkRouter(new Document("a", 1),
+                Arrays.asList(new Document("a", new MinKey()), new Document("a", new MaxKey())));
+        Assert.assertEquals(single.getChunkIndex(BsonDocument.parse("{ a: { b: 1 } }")), 0);
+    }
+}
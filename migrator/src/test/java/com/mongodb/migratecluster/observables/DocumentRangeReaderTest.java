@@ -0,0 +1,159 @@
+package com.mongodb.migratecluster.observables;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.ServerCursor;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.migratecluster.commandline.ApplicationOptions;
+import com.mongodb.migratecluster.model.BatchLimits;
+import com.mongodb.migratecluster.model.Resource;
+import com.mongodb.migratecluster.spill.SpillQueue;
+import com.mongodb.migratecluster.spill.SpillStore;
+import com.mongodb.migratecluster.throttling.BatchSizeController;
+import com.mongodb.migratecluster.throttling.SourceThrottle;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * File: DocumentRangeReaderTest
+ * Description:
+ */
+public class DocumentRangeReaderTest {
+    private final Resource resource = new Resource("social", "users");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void everyBatchIsEmittedOnceWithoutSpillQueue() {
+        BatchSizeController throttler = getThrottler();
+        TestReader reader = new TestReader(throttler, null, 95);
+
+        List<Integer> batchIds = new ArrayList<>();
+        reader.subscribe(batch -> {
+            batchIds.add(batch.getBatchId());
+            reader.releaseThrottler();
+        });
+
+        Assert.assertEquals(batchIds, getBatchIds(10));
+        Assert.assertEquals(throttler.availablePermits(), BatchSizeController.INITIAL_BATCHES_IN_FLIGHT);
+    }
+
+    @Test
+    public void everyBatchIsEmittedOnceWithSpillQueue() throws InterruptedException {
+        BatchSizeController throttler = getThrottler();
+        SpillQueue spillQueue = getSpillStore().createQueue(resource);
+        TestReader reader = new TestReader(throttler, spillQueue, 95);
+
+        // the writers are slow, so the reader spills the batches they have no room for
+        ScheduledExecutorService writers = Executors.newSingleThreadScheduledExecutor();
+        List<Integer> batchIds = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger maxSpilled = new AtomicInteger();
+        reader.subscribe(batch -> {
+            batchIds.add(batch.getBatchId());
+            maxSpilled.set(Math.max(maxSpilled.get(), spillQueue.size()));
+            writers.schedule(reader::releaseThrottler, 20, TimeUnit.MILLISECONDS);
+        });
+        writers.shutdown();
+        Assert.assertTrue(writers.awaitTermination(5, TimeUnit.SECONDS));
+
+        List<Integer> sorted = new ArrayList<>(batchIds);
+        Collections.sort(sorted);
+        Assert.assertEquals(sorted, getBatchIds(10));
+        Assert.assertTrue(maxSpilled.get() > 0);
+        Assert.assertTrue(spillQueue.isEmpty());
+        Assert.assertEquals(throttler.availablePermits(), BatchSizeController.INITIAL_BATCHES_IN_FLIGHT);
+    }
+
+    private BatchSizeController getThrottler() {
+        return new BatchSizeController(resource, new BatchLimits(10, 1024 * 1024), false, 1000);
+    }
+
+    private SpillStore getSpillStore() {
+        ApplicationOptions options = new ApplicationOptions();
+        options.setSpillDirectory(folder.getRoot().getAbsolutePath());
+        options.setSpillMaxBytes(1024 * 1024);
+        return new SpillStore(options);
+    }
+
+    private List<Integer> getBatchIds(int count) {
+        List<Integer> batchIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            batchIds.add(i);
+        }
+        return batchIds;
+    }
+
+    /**
+     * a range reader over documents held in memory
+     */
+    private static class TestReader extends DocumentRangeReader {
+        private final int documentsCount;
+
+        private TestReader(BatchSizeController throttler, SpillQueue spillQueue, int documentsCount) {
+            super(null, new Resource("social", "users"), null, throttler,
+                    new SourceThrottle(new ApplicationOptions()), spillQueue);
+            this.documentsCount = documentsCount;
+        }
+
+        @Override
+        protected MongoCursor<RawBsonDocument> getCursor(BatchLimits batchLimits) {
+            List<RawBsonDocument> documents = new ArrayList<>();
+            for (int id = 0; id < documentsCount; id++) {
+                documents.add(new RawBsonDocument(new BsonDocument("_id", new BsonInt32(id)), new BsonDocumentCodec()));
+            }
+            return new ListCursor(documents.iterator());
+        }
+    }
+
+    private static class ListCursor implements MongoCursor<RawBsonDocument> {
+        private final Iterator<RawBsonDocument> iterator;
+
+        private ListCursor(Iterator<RawBsonDocument> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public RawBsonDocument next() {
+            return iterator.next();
+        }
+
+        @Override
+        public RawBsonDocument tryNext() {
+            return iterator.hasNext() ? iterator.next() : null;
+        }
+
+        @Override
+        public ServerCursor getServerCursor() {
+            return null;
+        }
+
+        @Override
+        public ServerAddress getServerAddress() {
+            return null;
+        }
+    }
+}
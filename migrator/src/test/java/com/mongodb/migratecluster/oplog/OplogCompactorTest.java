@@ -0,0 +1,108 @@
+package com.mongodb.migratecluster.oplog;
+
+import org.bson.Document;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * File: OplogCompactorTest
+ * Description:
+ */
+public class OplogCompactorTest {
+    private final static String NAMESPACE = "social.users";
+
+    @Test
+    public void insertAndUpdatesBecomeOneInsert() {
+        List<Document> compacted = OplogCompactor.compact(Arrays.asList(
+                getInsert(1, new Document("name", "user-1").append("age", 20)),
+                getUpdate(1, new Document("$set", new Document("age", 21))),
+                getUpdate(1, new Document("$v", 1).append("$unset", new Document("name", true)))));
+
+        Assert.assertEquals(compacted.size(), 1);
+        Assert.assertEquals(compacted.get(0).getString("op"), "i");
+        Assert.assertEquals(compacted.get(0).get("o", Document.class),
+                new Document("_id", 1).append("age", 21));
+    }
+
+    @Test
+    public void anythingFollowedByDeleteBecomesTheDelete() {
+        List<Document> compacted = OplogCompactor.compact(Arrays.asList(
+                getInsert(1, new Document("name", "user-1")),
+                getUpdate(1, new Document("$inc", new Document("age", 1))),
+                getDelete(1)));
+
+        Assert.assertEquals(compacted.size(), 1);
+        Assert.assertEquals(compacted.get(0).getString("op"), "d");
+    }
+
+    @Test
+    public void consecutiveSetsAreMerged() {
+        List<Document> compacted = OplogCompactor.compact(Arrays.asList(
+                getUpdate(1, new Document("$set", new Document("age", 21).append("city", "austin"))),
+                getUpdate(1, new Document("$set", new Document("age", 22))),
+                getUpdate(1, new Document("$unset", new Document("city", true)))));
+
+        Assert.assertEquals(compacted.size(), 1);
+        Assert.assertEquals(compacted.get(0).get("o", Document.class),
+                new Document("$set", new Document("age", 22)).append("$unset", new Document("city", true)));
+    }
+
+    @Test
+    public void overlappingPathsAndOtherOperatorsAreNotFolded() {
+        List<Document> compacted = OplogCompactor.compact(Arrays.asList(
+                getUpdate(1, new Document("$set", new Document("address", new Document("city", "austin")))),
+                getUpdate(1, new Document("$set", new Document("address.zip", "78701"))),
+                getUpdate(1, new Document("$inc", new Document("age", 1)))));
+
+        Assert.assertEquals(compacted.size(), 3);
+        Assert.assertEquals(compacted.get(1).get("o", Document.class),
+                new Document("$set", new Document("address.zip", "78701")));
+    }
+
+    @Test
+    public void documentsAreFoldedIndependently() {
+        List<Document> compacted = OplogCompactor.compact(Arrays.asList(
+                getInsert(1, new Document("name", "user-1")),
+                getInsert(2, new Document("name", "user-2")),
+                getUpdate(1, new Document("$set", new Document("name", "member-1"))),
+                getDelete(2)));
+
+        Assert.assertEquals(compacted.size(), 2);
+        Assert.assertEquals(compacted.get(0).get("o", Document.class),
+                new Document("_id", 1).append("name", "member-1"));
+        Assert.assertEquals(compacted.get(1).getString("op"), "d");
+    }
+
+    @Test
+    public void foldedEntryTakesThePositionOfItsLatestEntry() {
+        List<Document> compacted = OplogCompactor.compact(Arrays.asList(
+                getInsert(1, new Document("email", "a@example.com")),
+                getDelete(2),
+                getUpdate(1, new Document("$set", new Document("email", "b@example.com")))));
+
+        Assert.assertEquals(compacted.size(), 2);
+        Assert.assertEquals(compacted.get(0).getString("op"), "d");
+        Assert.assertEquals(compacted.get(1).get("o", Document.class),
+                new Document("_id", 1).append("email", "b@example.com"));
+    }
+
+    private Document getInsert(int id, Document fields) {
+        Document document = new Document("_id", id);
+        document.putAll(fields);
+        return new Document("op", "i").append("ns", NAMESPACE).append("o", document);
+    }
+
+    private Document getUpdate(int id, Document update) {
+        return new Document("op", "u").append("ns", NAMESPACE)
+                .append("o2", new Document("_id", id))
+                .append("o", update);
+    }
+
+    private Document getDelete(int id) {
+        return new Document("op", "d").append("ns", NAMESPACE)
+                .append("o", new Document("_id", id));
+    }
+}
@@ -0,0 +1,81 @@
+package com.mongodb.migratecluster.oplog;
+
+import org.bson.Document;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * File: OplogLanesTest
+ * Description:
+ */
+public class OplogLanesTest {
+
+    @Test
+    public void entriesOfADocumentStayInOneLaneInOrder() {
+        List<Document> operations = new ArrayList<>();
+        for (int id = 0; id < 20; id++) {
+            operations.add(getInsert("social.users", id));
+        }
+        for (int id = 0; id < 20; id++) {
+            operations.add(getUpdate("social.users", id));
+        }
+        for (int id = 0; id < 20; id++) {
+            operations.add(getDelete("social.users", id));
+        }
+
+        List<List<Document>> lanes = OplogLanes.partition(operations, 4);
+        Assert.assertEquals(lanes.size(), 4);
+        Assert.assertEquals(lanes.stream().mapToInt(List::size).sum(), operations.size());
+
+        for (List<Document> lane : lanes) {
+            for (int id = 0; id < 20; id++) {
+                final int documentId = id;
+                List<String> ops = new ArrayList<>();
+                lane.stream()
+                        .filter(operation -> OplogLanes.getDocumentId(operation).equals(documentId))
+                        .forEach(operation -> ops.add(operation.getString("op")));
+                if (!ops.isEmpty()) {
+                    Assert.assertEquals(String.join(",", ops), "i,u,d");
+                }
+            }
+        }
+    }
+
+    @Test
+    public void updateIsLanedByTheIdOfItsQuery() {
+        Assert.assertEquals(OplogLanes.getDocumentId(getUpdate("social.users", 7)), 7);
+        Assert.assertEquals(OplogLanes.getLane(getUpdate("social.users", 7), 8),
+                OplogLanes.getLane(getInsert("social.users", 7), 8));
+    }
+
+    @Test
+    public void singleLaneHoldsAllTheEntries() {
+        List<Document> operations = new ArrayList<>();
+        operations.add(getInsert("social.users", 1));
+        operations.add(getInsert("social.posts", 1));
+        operations.add(getDelete("social.users", 1));
+
+        List<List<Document>> lanes = OplogLanes.partition(operations, 1);
+        Assert.assertEquals(lanes.size(), 1);
+        Assert.assertEquals(lanes.get(0), operations);
+    }
+
+    private Document getInsert(String namespace, int id) {
+        return new Document("op", "i").append("ns", namespace)
+                .append("o", new Document("_id", id).append("name", "user-" + id));
+    }
+
+    private Document getUpdate(String namespace, int id) {
+        return new Document("op", "u").append("ns", namespace)
+                .append("o2", new Document("_id", id))
+                .append("o", new Document("$set", new Document("name", "member-" + id)));
+    }
+
+    private Document getDelete(String namespace, int id) {
+        return new Document("op", "d").append("ns", namespace)
+                .append("o", new Document("_id", id));
+    }
+}
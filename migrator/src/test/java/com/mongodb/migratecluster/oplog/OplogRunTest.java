@@ -0,0 +1,85 @@
+package com.mongodb.migratecluster.oplog;
+
+import org.bson.Document;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * File: OplogRunTest
+ * Description:
+ */
+public class OplogRunTest {
+    private final static String NAMESPACE = "social.users";
+
+    @Test
+    public void consecutiveDeletesFormOneRun() {
+        List<OplogRun> runs = OplogRun.split(Arrays.asList(
+                getDelete(new Document("_id", 1)),
+                getDelete(new Document("_id", 2)),
+                getDelete(new Document("_id", 3))), 1000);
+
+        Assert.assertEquals(runs.size(), 1);
+        Assert.assertEquals(runs.get(0).getKind(), OplogRun.Kind.DELETE);
+        Assert.assertEquals(runs.get(0).getIds(), Arrays.asList(1, 2, 3));
+    }
+
+    @Test
+    public void updatesWithDifferentSpecsAreSeparateRuns() {
+        Document expire = new Document("$set", new Document("expired", true));
+        List<OplogRun> runs = OplogRun.split(Arrays.asList(
+                getUpdate(1, expire),
+                getUpdate(2, expire),
+                getUpdate(3, new Document("$set", new Document("expired", false)))), 1000);
+
+        Assert.assertEquals(runs.size(), 2);
+        Assert.assertEquals(runs.get(0).getKind(), OplogRun.Kind.UPDATE);
+        Assert.assertEquals(runs.get(0).getIds(), Arrays.asList(1, 2));
+        Assert.assertEquals(runs.get(1).getIds(), Arrays.asList(3));
+    }
+
+    @Test
+    public void repeatedIdStartsANewRun() {
+        Document count = new Document("$set", new Document("count", 2));
+        List<OplogRun> runs = OplogRun.split(Arrays.asList(
+                getUpdate(1, count),
+                getUpdate(1, count)), 1000);
+
+        Assert.assertEquals(runs.size(), 2);
+    }
+
+    @Test
+    public void unsafeEntriesAreSingleRuns() {
+        List<OplogRun> runs = OplogRun.split(Arrays.asList(
+                getDelete(new Document("_id", 1).append("region", "us")),
+                getDelete(new Document("_id", 2).append("region", "us")),
+                getUpdate(3, new Document("_id", 3).append("name", "user-3")),
+                getUpdate(4, new Document("_id", 4).append("name", "user-4"))), 1000);
+
+        Assert.assertEquals(runs.size(), 4);
+        runs.forEach(run -> Assert.assertEquals(run.getKind(), OplogRun.Kind.SINGLE));
+    }
+
+    @Test
+    public void runsAreCappedInSize() {
+        List<OplogRun> runs = OplogRun.split(Arrays.asList(
+                getDelete(new Document("_id", 1)),
+                getDelete(new Document("_id", 2)),
+                getDelete(new Document("_id", 3))), 2);
+
+        Assert.assertEquals(runs.size(), 2);
+        Assert.assertEquals(runs.get(1).getIds(), Arrays.asList(3));
+    }
+
+    private Document getUpdate(int id, Document update) {
+        return new Document("op", "u").append("ns", NAMESPACE)
+                .append("o2", new Document("_id", id))
+                .append("o", update);
+    }
+
+    private Document getDelete(Document filter) {
+        return new Document("op", "d").append("ns", NAMESPACE).append("o", filter);
+    }
+}
@@ -0,0 +1,43 @@
+package com.mongodb.migratecluster.progress;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * File: CollectionProgressTest
+ * Description:
+ */
+public class CollectionProgressTest {
+
+    @Test
+    public void failedBatchesAreNotInFlight() {
+        CollectionProgress progress = new CollectionProgress("db.coll", 10, 100);
+        progress.onBatchRead();
+        progress.onBatchRead();
+        progress.onBatchRead();
+        progress.onBatchWritten(5, 50);
+        progress.onBatchFailed();
+
+        Assert.assertEquals(progress.getBatchesInFlight(), 1);
+        Assert.assertEquals(progress.getDocuments(), 5);
+    }
+
+    @Test
+    public void collectionWithoutPartitionsIsCompleted() {
+        CollectionProgress progress = new CollectionProgress("db.coll", 0, 0);
+        progress.addPartitions(0);
+
+        Assert.assertTrue(progress.isCompleted());
+    }
+
+    @Test
+    public void collectionIsCompletedWithItsLastPartition() {
+        CollectionProgress progress = new CollectionProgress("db.coll", 10, 100);
+        progress.addPartitions(2);
+        progress.onPartitionCompleted();
+        Assert.assertFalse(progress.isCompleted());
+
+        progress.onPartitionCompleted();
+        Assert.assertTrue(progress.isCompleted());
+    }
+}
@@ -0,0 +1,101 @@
+package com.mongodb.migratecluster.spill;
+
+import com.mongodb.migratecluster.commandline.ApplicationOptions;
+import com.mongodb.migratecluster.model.DocumentsBatch;
+import com.mongodb.migratecluster.model.Resource;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * File: SpillQueueTest
+ * Description:
+ */
+public class SpillQueueTest {
+    private final Resource resource = new Resource("social", "users");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void spilledBatchesAreReadBackInOrder() throws IOException {
+        SpillQueue queue = getStore(1024 * 1024).createQueue(resource);
+
+        Assert.assertTrue(queue.offer(getBatch(0, 0, 3)));
+        Assert.assertTrue(queue.offer(getBatch(1, 3, 2)));
+
+        DocumentsBatch first = queue.poll();
+        Assert.assertEquals(first.getBatchId(), 0);
+        Assert.assertEquals(first.getSize(), 3);
+        Assert.assertEquals(first.getDocuments().get(2).getInt32("_id").getValue(), 2);
+        Assert.assertEquals(first.getDocuments().get(2).getString("name").getValue(), "user-2");
+
+        DocumentsBatch second = queue.poll();
+        Assert.assertEquals(second.getBatchId(), 1);
+        Assert.assertEquals(second.getDocuments().get(0).getInt32("_id").getValue(), 3);
+        Assert.assertEquals(second.getByteSize(), getBatch(1, 3, 2).getByteSize());
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertNull(queue.poll());
+    }
+
+    @Test
+    public void batchIsNotSpilledPastTheDiskBudget() throws IOException {
+        DocumentsBatch batch = getBatch(0, 0, 10);
+        SpillStore store = getStore(SpillRecord.encode(batch).length + 4);
+        SpillQueue queue = store.createQueue(resource);
+
+        Assert.assertTrue(queue.offer(batch));
+        Assert.assertFalse(queue.offer(getBatch(1, 10, 10)));
+
+        queue.poll();
+        Assert.assertEquals(store.getUsedBytes(), 0L);
+        Assert.assertTrue(queue.offer(getBatch(1, 10, 10)));
+    }
+
+    @Test
+    public void segmentsAreDeletedOnceClosed() throws IOException {
+        SpillQueue queue = getStore(1024 * 1024).createQueue(resource);
+        queue.offer(getBatch(0, 0, 3));
+        Assert.assertEquals(folder.getRoot().list().length, 1);
+
+        queue.poll();
+        queue.close();
+
+        Assert.assertEquals(folder.getRoot().list().length, 0);
+    }
+
+    @Test
+    public void disabledStoreHasNoQueues() {
+        ApplicationOptions options = new ApplicationOptions();
+
+        Assert.assertFalse(new SpillStore(options).isEnabled());
+        Assert.assertNull(new SpillStore(options).createQueue(resource));
+    }
+
+    private SpillStore getStore(long maxBytes) {
+        ApplicationOptions options = new ApplicationOptions();
+        options.setSpillDirectory(folder.getRoot().getAbsolutePath());
+        options.setSpillMaxBytes(maxBytes);
+        return new SpillStore(options);
+    }
+
+    private DocumentsBatch getBatch(int batchId, int firstId, int count) {
+        List<RawBsonDocument> documents = new ArrayList<>();
+        for (int id = firstId; id < firstId + count; id++) {
+            BsonDocument document = new BsonDocument("_id", new BsonInt32(id))
+                    .append("name", new BsonString("user-" + id));
+            documents.add(new RawBsonDocument(document, new BsonDocumentCodec()));
+        }
+        return new DocumentsBatch(resource, batchId, documents);
+    }
+}
@@ -0,0 +1,104 @@
+package com.mongodb.migratecluster.throttling;
+
+import com.mongodb.migratecluster.model.BatchLimits;
+import com.mongodb.migratecluster.model.Resource;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * File: BatchSizeControllerTest
+ * Description:
+ */
+public class BatchSizeControllerTest {
+    private final Resource resource = new Resource("social", "users");
+
+    @Test
+    public void nonAdaptiveControllerKeepsTheInitialLimits() {
+        BatchSizeController controller = new BatchSizeController(resource, new BatchLimits(1000, 1024), false, 100);
+
+        controller.onBatchWritten(5000, true);
+        controller.onBatchWritten(1, false);
+
+        Assert.assertEquals(controller.getBatchLimits().getMaxDocuments(), 1000);
+        Assert.assertEquals(controller.getBatchesInFlight(), BatchSizeController.INITIAL_BATCHES_IN_FLIGHT);
+    }
+
+    @Test
+    public void fastWritesGrowTheBatchAdditively() {
+        BatchSizeController controller = new BatchSizeController(resource, new BatchLimits(1000, 1024), true, 100);
+
+        controller.onBatchWritten(80, false);
+        Assert.assertEquals(controller.getBatchLimits().getMaxDocuments(), 1100);
+
+        controller.onBatchWritten(80, false);
+        Assert.assertEquals(controller.getBatchLimits().getMaxDocuments(), 1200);
+        Assert.assertEquals(controller.getBatchLimits().getMaxBytes(), 1024);
+    }
+
+    @Test
+    public void veryFastWritesAllowMoreBatchesInFlight() {
+        BatchSizeController controller = new BatchSizeController(resource, new BatchLimits(1000, 1024), true, 100);
+
+        controller.onBatchWritten(10, false);
+        controller.onBatchWritten(10, false);
+
+        Assert.assertEquals(controller.getBatchesInFlight(), BatchSizeController.INITIAL_BATCHES_IN_FLIGHT + 1);
+        Assert.assertEquals(controller.availablePermits(), BatchSizeController.INITIAL_BATCHES_IN_FLIGHT + 1);
+    }
+
+    @Test
+    public void slowOrFailedWritesHalveTheLimits() {
+        BatchSizeController controller = new BatchSizeController(resource, new BatchLimits(1000, 1024), true, 100);
+
+        controller.onBatchWritten(500, false);
+        Assert.assertEquals(controller.getBatchLimits().getMaxDocuments(), 500);
+        Assert.assertEquals(controller.getBatchesInFlight(), 1);
+
+        controller.onBatchWritten(10, true);
+        Assert.assertEquals(controller.getBatchLimits().getMaxDocuments(), 250);
+        Assert.assertEquals(controller.getBatchesInFlight(), 1);
+    }
+
+    @Test
+    public void slowWritesOfOneWindowHalveTheLimitsOnce() throws InterruptedException {
+        BatchSizeController controller = new BatchSizeController(resource, new BatchLimits(1000, 1024), true, 100);
+        controller.acquire();
+        controller.acquire();
+
+        controller.onBatchWritten(500, false);
+        controller.onBatchWritten(500, false);
+        Assert.assertEquals(controller.getBatchLimits().getMaxDocuments(), 500);
+        Assert.assertEquals(controller.getBatchesInFlight(), 1);
+
+        // a batch handed over after the decrease opens the next window
+        controller.release();
+        controller.release();
+        controller.acquire();
+        controller.onBatchWritten(500, false);
+        Assert.assertEquals(controller.getBatchLimits().getMaxDocuments(), 250);
+    }
+
+    @Test
+    public void batchNeverShrinksBelowTheMinimum() {
+        BatchSizeController controller = new BatchSizeController(resource, new BatchLimits(100, 1024), true, 100);
+
+        for (int i = 0; i < 10; i++) {
+            controller.onBatchWritten(500, false);
+        }
+        Assert.assertEquals(controller.getBatchLimits().getMaxDocuments(), BatchSizeController.MIN_BATCH_DOCUMENTS);
+    }
+
+    @Test
+    public void shrinkingInFlightDoesNotTakeAwayAcquiredPermits() throws InterruptedException {
+        BatchSizeController controller = new BatchSizeController(resource, new BatchLimits(1000, 1024), true, 100);
+        controller.acquire();
+        controller.acquire();
+
+        controller.onBatchWritten(500, false);
+        Assert.assertEquals(controller.availablePermits(), -1);
+
+        controller.release();
+        controller.release();
+        Assert.assertEquals(controller.availablePermits(), 1);
+    }
+}
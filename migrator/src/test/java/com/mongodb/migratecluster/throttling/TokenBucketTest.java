@@ -0,0 +1,63 @@
+package com.mongodb.migratecluster.throttling;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * File: TokenBucketTest
+ * Description:
+ */
+public class TokenBucketTest {
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    public void unlimitedBucketNeverWaits() {
+        TokenBucket bucket = new TokenBucket(0, clock::get);
+
+        Assert.assertEquals(bucket.reserve(1000000), 0L);
+        Assert.assertEquals(bucket.reserve(1000000), 0L);
+    }
+
+    @Test
+    public void bucketAllowsABurstOfOneSecond() {
+        TokenBucket bucket = new TokenBucket(1000, clock::get);
+
+        Assert.assertEquals(bucket.reserve(600), 0L);
+        Assert.assertEquals(bucket.reserve(400), 0L);
+        Assert.assertEquals(bucket.reserve(500), TimeUnit.MILLISECONDS.toNanos(500));
+    }
+
+    @Test
+    public void callersQueueUpBehindTheDebt() {
+        TokenBucket bucket = new TokenBucket(1000, clock::get);
+
+        Assert.assertEquals(bucket.reserve(1500), TimeUnit.MILLISECONDS.toNanos(500));
+        Assert.assertEquals(bucket.reserve(1000), TimeUnit.MILLISECONDS.toNanos(1500));
+    }
+
+    @Test
+    public void bucketRefillsOverTimeUpToOneSecond() {
+        TokenBucket bucket = new TokenBucket(1000, clock::get);
+        bucket.reserve(1000);
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(250));
+        Assert.assertEquals(bucket.reserve(250), 0L);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        Assert.assertEquals(bucket.reserve(1000), 0L);
+        Assert.assertEquals(bucket.reserve(100), TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    public void loweringTheRateTrimsTheBurst() {
+        TokenBucket bucket = new TokenBucket(1000, clock::get);
+
+        bucket.setRatePerSecond(100);
+
+        Assert.assertEquals(bucket.reserve(100), 0L);
+        Assert.assertEquals(bucket.reserve(50), TimeUnit.MILLISECONDS.toNanos(500));
+    }
+}
@@ -0,0 +1,69 @@
+package com.mongodb.migratecluster.trackers;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * File: CompletionWatermarkTest
+ * Description:
+ */
+public class CompletionWatermarkTest {
+
+    @Test
+    public void batchesInOrderMoveTheWatermark() {
+        CompletionWatermark watermark = new CompletionWatermark();
+        Assert.assertEquals(watermark.complete(0, 10), 10);
+        Assert.assertEquals(watermark.complete(1, 20), 20);
+        Assert.assertEquals(watermark.getWatermarkId(), 20);
+        Assert.assertEquals(watermark.getNextBatchId(), 2);
+    }
+
+    @Test
+    public void batchesAheadOfAGapAreHeldBack() {
+        CompletionWatermark watermark = new CompletionWatermark();
+        Assert.assertNull(watermark.complete(2, 30));
+        Assert.assertNull(watermark.complete(1, 20));
+        Assert.assertNull(watermark.getWatermarkId());
+        Assert.assertEquals(watermark.getPendingRangeCount(), 1);
+
+        Assert.assertEquals(watermark.complete(0, 10), 30);
+        Assert.assertEquals(watermark.getNextBatchId(), 3);
+        Assert.assertEquals(watermark.getPendingRangeCount(), 0);
+    }
+
+    @Test
+    public void rangesOnBothSidesOfABatchAreMerged() {
+        CompletionWatermark watermark = new CompletionWatermark();
+        watermark.complete(1, 20);
+        watermark.complete(3, 40);
+        watermark.complete(5, 60);
+        Assert.assertEquals(watermark.getPendingRangeCount(), 3);
+
+        watermark.complete(2, 30);
+        Assert.assertEquals(watermark.getPendingRangeCount(), 2);
+
+        Assert.assertEquals(watermark.complete(0, 10), 40);
+        Assert.assertEquals(watermark.getNextBatchId(), 4);
+        Assert.assertEquals(watermark.getPendingRangeCount(), 1);
+    }
+
+    @Test
+    public void repeatedBatchesAreIgnored() {
+        CompletionWatermark watermark = new CompletionWatermark();
+        watermark.complete(0, 10);
+        watermark.complete(2, 30);
+        Assert.assertNull(watermark.complete(0, 10));
+        Assert.assertNull(watermark.complete(2, 30));
+        Assert.assertEquals(watermark.getWatermarkId(), 10);
+        Assert.assertEquals(watermark.getPendingRangeCount(), 1);
+    }
+
+    @Test
+    public void emptyBatchesKeepThePreviousId() {
+        CompletionWatermark watermark = new CompletionWatermark();
+        Assert.assertEquals(watermark.complete(0, 10), 10);
+        Assert.assertNull(watermark.complete(1, null));
+        Assert.assertEquals(watermark.getNextBatchId(), 2);
+        Assert.assertEquals(watermark.getWatermarkId(), 10);
+    }
+}
@@ -0,0 +1,73 @@
+package com.mongodb.migratecluster.utils;
+
+import com.mongodb.migratecluster.helpers.PartitionHelper;
+import org.bson.*;
+import org.bson.types.ObjectId;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * File: BsonValueComparatorTest
+ * Description:
+ */
+public class BsonValueComparatorTest {
+    private final BsonValueComparator comparator = BsonValueComparator.INSTANCE;
+
+    @Test
+    public void typesAreOrderedByTheBsonSortOrder() {
+        Assert.assertTrue(comparator.compare(new BsonMinKey(), new BsonNull()) < 0);
+        Assert.assertTrue(comparator.compare(new BsonNull(), new BsonInt32(-5)) < 0);
+        Assert.assertTrue(comparator.compare(new BsonInt64(Long.MAX_VALUE), new BsonString("")) < 0);
+        Assert.assertTrue(comparator.compare(new BsonString("zzz"), new BsonDocument()) < 0);
+        Assert.assertTrue(comparator.compare(new BsonBinary(new byte[] { 1 }), new BsonObjectId()) < 0);
+        Assert.assertTrue(comparator.compare(new BsonObjectId(), new BsonBoolean(false)) < 0);
+        Assert.assertTrue(comparator.compare(new BsonBoolean(true), new BsonDateTime(0)) < 0);
+        Assert.assertTrue(comparator.compare(new BsonDateTime(Long.MAX_VALUE), new BsonMaxKey()) < 0);
+    }
+
+    @Test
+    public void numbersAreComparedByValueAcrossTypes() {
+        Assert.assertEquals(comparator.compare(new BsonInt32(7), new BsonInt64(7)), 0);
+        Assert.assertEquals(comparator.compare(new BsonInt32(7), new BsonDouble(7.0)), 0);
+        Assert.assertTrue(comparator.compare(new BsonDouble(6.5), new BsonInt32(7)) < 0);
+        Assert.assertTrue(comparator.compare(new BsonInt64(Long.MAX_VALUE), new BsonInt64(Long.MAX_VALUE - 1)) > 0);
+    }
+
+    @Test
+    public void stringsAreComparedByTheirBytes() {
+        Assert.assertTrue(comparator.compare(new BsonString("Z"), new BsonString("a")) < 0);
+        Assert.assertTrue(comparator.compare(new BsonString("ab"), new BsonString("abc")) < 0);
+        Assert.assertTrue(comparator.compare(new BsonString("é"), new BsonString("z")) > 0);
+    }
+
+    @Test
+    public void documentsAreComparedFieldByField() {
+        BsonDocument left = BsonDocument.parse("{ a: 1, b: 2 }");
+        Assert.assertEquals(comparator.compare(left, BsonDocument.parse("{ a: 1, b: 2 }")), 0);
+        Assert.assertTrue(comparator.compare(left, BsonDocument.parse("{ a: 1, b: 3 }")) < 0);
+        Assert.assertTrue(comparator.compare(left, BsonDocument.parse("{ a: 1, c: 0 }")) < 0);
+        Assert.assertTrue(comparator.compare(left, BsonDocument.parse("{ a: 1 }")) > 0);
+    }
+
+    @Test
+    public void javaValuesAreConvertedToBson() {
+        ObjectId id = new ObjectId();
+        Assert.assertEquals(BsonValueComparator.toBsonValue(id), new BsonObjectId(id));
+        Assert.assertEquals(BsonValueComparator.toBsonValue(42L), new BsonInt64(42));
+        Assert.assertEquals(BsonValueComparator.toBsonValue("abc"), new BsonString("abc"));
+    }
+
+    @Test
+    public void midpointLiesBetweenTheGivenIds() {
+        BsonValue low = new BsonObjectId(new ObjectId("5c3a00000000000000000000"));
+        BsonValue high = new BsonObjectId(new ObjectId("5c3c00000000000000000000"));
+        BsonValue midpoint = PartitionHelper.getMidpoint(low, high);
+
+        Assert.assertEquals(midpoint, new BsonObjectId(new ObjectId("5c3b00000000000000000000")));
+        Assert.assertEquals(PartitionHelper.getMidpoint(new BsonInt32(10), new BsonInt32(20)), new BsonInt32(15));
+        Assert.assertEquals(PartitionHelper.getMidpoint(new BsonInt64(Long.MAX_VALUE - 2), new BsonInt64(Long.MAX_VALUE)),
+                new BsonInt64(Long.MAX_VALUE - 1));
+        Assert.assertEquals(PartitionHelper.getMidpoint(new BsonDateTime(1000), new BsonDateTime(3000)), new BsonDateTime(2000));
+        Assert.assertNull(PartitionHelper.getMidpoint(new BsonString("a"), new BsonString("z")));
+    }
+}
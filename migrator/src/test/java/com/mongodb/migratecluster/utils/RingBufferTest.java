@@ -0,0 +1,78 @@
+package com.mongodb.migratecluster.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * File: RingBufferTest
+ * Description:
+ */
+public class RingBufferTest {
+
+    @Test
+    public void capacityIsRoundedUpToAPowerOfTwo() {
+        Assert.assertEquals(new RingBuffer<Integer>(1000).getCapacity(), 1024);
+        Assert.assertEquals(new RingBuffer<Integer>(4).getCapacity(), 4);
+    }
+
+    @Test
+    public void offerFailsOnceTheBufferIsFull() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(buffer.offer(i));
+        }
+        Assert.assertFalse(buffer.offer(4));
+        Assert.assertEquals(buffer.size(), 4);
+
+        Assert.assertEquals(buffer.poll(), Integer.valueOf(0));
+        Assert.assertTrue(buffer.offer(4));
+    }
+
+    @Test
+    public void itemsAreTakenInOrderAcrossTheWrap() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        List<Integer> taken = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            buffer.offer(i);
+            if (i % 2 == 1) {
+                taken.add(buffer.poll());
+                taken.add(buffer.poll());
+            }
+        }
+        Assert.assertNull(buffer.poll());
+        Assert.assertEquals(taken.size(), 10);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(taken.get(i), Integer.valueOf(i));
+        }
+    }
+
+    @Test
+    public void producerAndConsumerThreadsSeeEveryItemOnce() throws InterruptedException {
+        RingBuffer<Integer> buffer = new RingBuffer<>(16);
+        int count = 100000;
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                while (!buffer.offer(i)) {
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+
+        int expected = 0;
+        while (expected < count) {
+            Integer item = buffer.poll();
+            if (item == null) {
+                Thread.yield();
+                continue;
+            }
+            Assert.assertEquals(item, Integer.valueOf(expected));
+            expected++;
+        }
+        producer.join();
+        Assert.assertEquals(buffer.size(), 0);
+    }
+}